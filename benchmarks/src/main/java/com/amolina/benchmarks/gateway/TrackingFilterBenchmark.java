@@ -0,0 +1,99 @@
+package com.amolina.benchmarks.gateway;
+
+import com.amolina.common.tracing.SpanRecorder;
+import com.amolina.gatewayserver.filters.FilterUtils;
+import com.amolina.gatewayserver.filters.TrackingFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TrackingFilter} per-request cost, which includes the JWT body decode used to log the
+ * caller, and the {@link FilterUtils} header helpers it relies on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackingFilterBenchmark {
+
+	private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+	private TrackingFilter trackingFilter;
+	private FilterUtils filterUtils;
+	private String bearerToken;
+	private HttpHeaders headersWithCorrelationId;
+
+	@Setup
+	public void setUp() {
+		filterUtils = new FilterUtils();
+		trackingFilter = new TrackingFilter();
+		ReflectionTestUtils.setField(trackingFilter, "filterUtils", filterUtils);
+		ReflectionTestUtils.setField(trackingFilter, "spanRecorder", new SpanRecorder("gateway-server", 1024));
+
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String header = encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+		String body = encoder.encodeToString(("{\"exp\":1700000000,\"iat\":1699999700,\"iss\":\"http://keycloak:8080/auth/realms/pizza-store\","
+				+ "\"azp\":\"pizza-store-client\",\"preferred_username\":\"service-account-pizza-store-client\","
+				+ "\"resource_access\":{\"pizza-store-client\":{\"roles\":[\"ADMIN\",\"USER\"]}}}").getBytes(StandardCharsets.UTF_8));
+		bearerToken = "Bearer " + header + "." + body + "." + encoder.encodeToString(new byte[256]);
+
+		headersWithCorrelationId = new HttpHeaders();
+		headersWithCorrelationId.add(FilterUtils.CORRELATION_ID, "3f2a6c1e-8d4b-4c7a-9b1e-5d6f7a8b9c0d");
+		headersWithCorrelationId.add(FilterUtils.AUTH_TOKEN, bearerToken);
+	}
+
+	@Benchmark
+	public Void filterNewRequest() {
+		return trackingFilter.filter(exchange(false), CHAIN).block();
+	}
+
+	@Benchmark
+	public Void filterWithCorrelationId() {
+		return trackingFilter.filter(exchange(true), CHAIN).block();
+	}
+
+	@Benchmark
+	public String getCorrelationId() {
+		return filterUtils.getCorrelationId(headersWithCorrelationId);
+	}
+
+	@Benchmark
+	public String getAuthToken() {
+		return filterUtils.getAuthToken(headersWithCorrelationId);
+	}
+
+	@Benchmark
+	public ServerWebExchange setCorrelationId() {
+		return filterUtils.setCorrelationId(exchange(false), "3f2a6c1e-8d4b-4c7a-9b1e-5d6f7a8b9c0d");
+	}
+
+	private MockServerWebExchange exchange(boolean withCorrelationId) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/order-service/api/orders/1")
+				.header(FilterUtils.AUTH_TOKEN, bearerToken);
+		if (withCorrelationId) {
+			request.header(FilterUtils.CORRELATION_ID, "3f2a6c1e-8d4b-4c7a-9b1e-5d6f7a8b9c0d");
+		}
+		return MockServerWebExchange.from(request);
+	}
+}
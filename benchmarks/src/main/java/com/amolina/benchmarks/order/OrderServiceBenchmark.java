@@ -0,0 +1,96 @@
+package com.amolina.benchmarks.order;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.amolina.order.model.dto.OrderResponseDTO;
+import com.amolina.order.repository.OrderRepository;
+import com.amolina.order.service.OrderService;
+import com.amolina.order.service.client.CustomerServiceClient;
+import com.amolina.order.service.client.MenuServiceClient;
+import com.amolina.order.service.client.dto.CustomerDTO;
+import com.amolina.order.service.client.dto.PizzaDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link OrderService#getOrderById} aggregation with the repository and both
+ * downstream clients stubbed out, i.e. everything order-service does besides I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+	private OrderService orderService;
+
+	@Setup
+	public void setUp() {
+		Order order = new Order(1L, new BigDecimal("31.48"), new BigDecimal("2.52"), new BigDecimal("34.00"), 3L, Instant.now(),
+				new ArrayList<>(List.of(new OrderLine(2L, 1, new BigDecimal("14.99")), new OrderLine(5L, 1, new BigDecimal("16.49")))), 0L);
+		Map<Long, PizzaDTO> pizzas = Map.of(
+				2L, new PizzaDTO(2L, "Pepperoni", "Classic pepperoni with mozzarella cheese", new BigDecimal("14.99"), false),
+				5L, new PizzaDTO(5L, "Veggie Supreme", "Mushrooms, bell peppers, onions, olives, and tomatoes", new BigDecimal("16.49"), false));
+		CustomerDTO customer = new CustomerDTO(3L, "Mike", "Johnson", "555-0103", "mike.johnson@email.com", false);
+
+		orderService = new OrderService();
+		ReflectionTestUtils.setField(orderService, "orderRepository", stubRepository(order));
+		ReflectionTestUtils.setField(orderService, "menuServiceClient", new MenuServiceClient() {
+			@Override
+			public Map<Long, PizzaDTO> getPizzas(Collection<Long> pizzaIds) {
+				return pizzas;
+			}
+		});
+		ReflectionTestUtils.setField(orderService, "customerServiceClient", new CustomerServiceClient() {
+			@Override
+			public CustomerDTO getCustomer(Long customerId) {
+				return customer;
+			}
+		});
+	}
+
+	@Benchmark
+	public Optional<OrderResponseDTO> getOrderById() {
+		return orderService.getOrderById(1L);
+	}
+
+	private static OrderRepository stubRepository(Order order) {
+		Optional<Order> result = Optional.of(order);
+		return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+				new Class<?>[] {OrderRepository.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "findById":
+							return result;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						case "toString":
+							return "StubOrderRepository";
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
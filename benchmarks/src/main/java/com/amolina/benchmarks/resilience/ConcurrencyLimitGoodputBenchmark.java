@@ -0,0 +1,112 @@
+package com.amolina.benchmarks.resilience;
+
+import com.amolina.order.resilience.AdaptiveConcurrencyLimiter;
+import com.amolina.order.resilience.AdaptiveLimiterProperties;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Goodput of the fixed 10-permit bulkhead against the adaptive AIMD limiter, calling a stub
+ * downstream whose latency is flat up to its capacity and grows quadratically past it.
+ * The {@code succeeded} and {@code rejected} counters are reported as throughput; goodput is
+ * {@code succeeded}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class ConcurrencyLimitGoodputBenchmark {
+
+	private static final long BASE_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+	/** Concurrent requests the stub serves at base latency; a healthy downstream has more room than the static bulkhead allows. */
+	@Param({"8", "32"})
+	public int downstreamCapacity;
+
+	private final AtomicInteger downstreamConcurrency = new AtomicInteger();
+	private Semaphore bulkhead;
+	private AdaptiveConcurrencyLimiter limiter;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Outcomes {
+		public long succeeded;
+		public long rejected;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			succeeded = 0;
+			rejected = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		bulkhead = new Semaphore(10);
+		AdaptiveLimiterProperties.InstanceProperties config = new AdaptiveLimiterProperties.InstanceProperties();
+		config.setInitialLimit(10);
+		limiter = new AdaptiveConcurrencyLimiter("stub", config);
+	}
+
+	@Benchmark
+	public void staticBulkhead(Outcomes outcomes) {
+		if (!bulkhead.tryAcquire()) {
+			rejected(outcomes);
+			return;
+		}
+		try {
+			callDownstream();
+			outcomes.succeeded++;
+		} finally {
+			bulkhead.release();
+		}
+	}
+
+	@Benchmark
+	public void adaptiveLimiter(Outcomes outcomes) {
+		if (!limiter.tryAcquire()) {
+			rejected(outcomes);
+			return;
+		}
+		long start = System.nanoTime();
+		callDownstream();
+		limiter.onSuccess(System.nanoTime() - start);
+		outcomes.succeeded++;
+	}
+
+	/** A rejected caller is served by the fallback and comes back later rather than spinning. */
+	private static void rejected(Outcomes outcomes) {
+		outcomes.rejected++;
+		LockSupport.parkNanos(BASE_LATENCY_NANOS);
+	}
+
+	private void callDownstream() {
+		int concurrency = downstreamConcurrency.incrementAndGet();
+		try {
+			double overload = Math.max(1.0, (double) concurrency / downstreamCapacity);
+			LockSupport.parkNanos((long) (BASE_LATENCY_NANOS * overload * overload));
+		} finally {
+			downstreamConcurrency.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.amolina.benchmarks.resilience;
+
+import com.amolina.order.service.client.dto.PizzaDTO;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Overhead the Resilience4j decorators on {@code MenuServiceClient.fetchPizzas} add to a call that
+ * always succeeds, using the circuit breaker and retry settings from order-service.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class DecoratorOverheadBenchmark {
+
+	private Supplier<PizzaDTO> plain;
+	private Supplier<PizzaDTO> circuitBreaker;
+	private Supplier<PizzaDTO> circuitBreakerAndRetry;
+
+	@Setup
+	public void setUp() {
+		PizzaDTO pizza = new PizzaDTO(1L, "Margherita", "Fresh mozzarella, tomato sauce, and basil", new BigDecimal("12.99"), false);
+		plain = () -> pizza;
+
+		CircuitBreaker breaker = CircuitBreaker.of("menuService", CircuitBreakerConfig.custom()
+				.slidingWindowSize(10)
+				.minimumNumberOfCalls(5)
+				.permittedNumberOfCallsInHalfOpenState(3)
+				.waitDurationInOpenState(Duration.ofSeconds(10))
+				.failureRateThreshold(50)
+				.slowCallRateThreshold(100)
+				.slowCallDurationThreshold(Duration.ofSeconds(3))
+				.build());
+		Retry retry = Retry.of("menuService", RetryConfig.custom()
+				.maxAttempts(3)
+				.waitDuration(Duration.ofSeconds(2))
+				.build());
+
+		circuitBreaker = CircuitBreaker.decorateSupplier(breaker, plain);
+		circuitBreakerAndRetry = CircuitBreaker.decorateSupplier(breaker, Retry.decorateSupplier(retry, plain));
+	}
+
+	@Benchmark
+	public PizzaDTO plain() {
+		return plain.get();
+	}
+
+	@Benchmark
+	public PizzaDTO circuitBreaker() {
+		return circuitBreaker.get();
+	}
+
+	@Benchmark
+	public PizzaDTO circuitBreakerAndRetry() {
+		return circuitBreakerAndRetry.get();
+	}
+}
@@ -0,0 +1,35 @@
+package com.amolina.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the encoded size in bytes of each benchmark payload per format to
+ * {@code payload-sizes.json} (or the path given as the first argument).
+ */
+public final class PayloadSizeReport {
+
+	private PayloadSizeReport() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, Map<String, Integer>> sizes = new LinkedHashMap<>();
+		for (String format : new String[] {"json", "cbor"}) {
+			ObjectMapper mapper = SerializationBenchmark.mapper(format);
+			Map<String, Integer> byPayload = new LinkedHashMap<>();
+			byPayload.put("pizza", mapper.writeValueAsBytes(Payloads.pizza(1)).length);
+			byPayload.put("customer", mapper.writeValueAsBytes(Payloads.customer(1)).length);
+			byPayload.put("orderResponse", mapper.writeValueAsBytes(Payloads.order(1)).length);
+			byPayload.put("pizzaBatch", mapper.writeValueAsBytes(Payloads.pizzas()).length);
+			byPayload.put("customerBatch", mapper.writeValueAsBytes(Payloads.customers()).length);
+			sizes.put(format, byPayload);
+		}
+		File output = new File(args.length > 0 ? args[0] : "payload-sizes.json");
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, sizes);
+		System.out.println("Payload sizes written to " + output.getAbsolutePath());
+	}
+}
@@ -0,0 +1,62 @@
+package com.amolina.benchmarks.serialization;
+
+import com.amolina.customer.model.Customer;
+import com.amolina.menu.model.Pizza;
+import com.amolina.order.model.dto.OrderLineResponseDTO;
+import com.amolina.order.model.dto.OrderResponseDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representative payloads shared by the serialization benchmarks and the payload size report.
+ */
+final class Payloads {
+
+	static final int BATCH_SIZE = 100;
+
+	private Payloads() {
+	}
+
+	static Pizza pizza(long id) {
+		return new Pizza(id, "Veggie Supreme", "Mushrooms, bell peppers, onions, olives, and tomatoes", new BigDecimal("15.49"), 0L);
+	}
+
+	static Customer customer(long id) {
+		return new Customer(id, "Sarah", "Williams", "555-0104", "sarah.williams@email.com", 0L);
+	}
+
+	static OrderResponseDTO order(long id) {
+		OrderResponseDTO order = new OrderResponseDTO();
+		order.setOrderId(id);
+		order.setSubtotal(new BigDecimal("30.48"));
+		order.setTax(new BigDecimal("2.44"));
+		order.setTotal(new BigDecimal("32.92"));
+		order.setCustomerId(4L);
+		order.setCustomerFirstname("Sarah");
+		order.setCustomerLastname("Williams");
+		order.setCustomerEmail("sarah.williams@email.com");
+		order.setCustomerPhone("555-0104");
+		order.setLines(List.of(
+				new OrderLineResponseDTO(5L, "Veggie Supreme", 1, new BigDecimal("15.49"), new BigDecimal("15.49")),
+				new OrderLineResponseDTO(2L, "Pepperoni", 1, new BigDecimal("14.99"), new BigDecimal("14.99"))));
+		return order;
+	}
+
+	static List<Pizza> pizzas() {
+		List<Pizza> pizzas = new ArrayList<>(BATCH_SIZE);
+		for (long i = 1; i <= BATCH_SIZE; i++) {
+			pizzas.add(pizza(i));
+		}
+		return pizzas;
+	}
+
+	static List<Customer> customers() {
+		List<Customer> customers = new ArrayList<>(BATCH_SIZE);
+		for (long i = 1; i <= BATCH_SIZE; i++) {
+			customers.add(customer(i));
+		}
+		return customers;
+	}
+}
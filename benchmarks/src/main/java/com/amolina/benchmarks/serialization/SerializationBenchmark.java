@@ -0,0 +1,124 @@
+package com.amolina.benchmarks.serialization;
+
+import com.amolina.customer.model.Customer;
+import com.amolina.menu.model.Pizza;
+import com.amolina.order.model.dto.OrderResponseDTO;
+import com.amolina.order.service.client.dto.CustomerDTO;
+import com.amolina.order.service.client.dto.PizzaDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encode cost on the serving side ({@link Pizza}, {@link Customer}, {@link OrderResponseDTO})
+ * and decode cost on the order-service side ({@link PizzaDTO}, {@link CustomerDTO}), for JSON and
+ * CBOR, single entities and {@value Payloads#BATCH_SIZE}-entity lists.
+ * Payload sizes are written by {@link PayloadSizeReport}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({"json", "cbor"})
+	public String format;
+
+	private ObjectMapper mapper;
+	private Pizza pizza;
+	private Customer customer;
+	private OrderResponseDTO order;
+	private List<Pizza> pizzas;
+	private List<Customer> customers;
+	private byte[] pizzaBytes;
+	private byte[] customerBytes;
+	private byte[] pizzasBytes;
+	private byte[] customersBytes;
+	private CollectionType pizzaListType;
+	private CollectionType customerListType;
+
+	@Setup
+	public void setUp() throws Exception {
+		mapper = mapper(format);
+		pizza = Payloads.pizza(1);
+		customer = Payloads.customer(1);
+		order = Payloads.order(1);
+		pizzas = Payloads.pizzas();
+		customers = Payloads.customers();
+		pizzaBytes = mapper.writeValueAsBytes(pizza);
+		customerBytes = mapper.writeValueAsBytes(customer);
+		pizzasBytes = mapper.writeValueAsBytes(pizzas);
+		customersBytes = mapper.writeValueAsBytes(customers);
+		pizzaListType = mapper.getTypeFactory().constructCollectionType(List.class, PizzaDTO.class);
+		customerListType = mapper.getTypeFactory().constructCollectionType(List.class, CustomerDTO.class);
+	}
+
+	static ObjectMapper mapper(String format) {
+		ObjectMapper mapper = "cbor".equals(format) ? new CBORMapper() : new ObjectMapper();
+		// Matches the Spring Boot default used by the Feign decoders.
+		mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		return mapper;
+	}
+
+	@Benchmark
+	public byte[] encodePizza() throws Exception {
+		return mapper.writeValueAsBytes(pizza);
+	}
+
+	@Benchmark
+	public byte[] encodeCustomer() throws Exception {
+		return mapper.writeValueAsBytes(customer);
+	}
+
+	@Benchmark
+	public byte[] encodeOrderResponse() throws Exception {
+		return mapper.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] encodePizzaBatch() throws Exception {
+		return mapper.writeValueAsBytes(pizzas);
+	}
+
+	@Benchmark
+	public byte[] encodeCustomerBatch() throws Exception {
+		return mapper.writeValueAsBytes(customers);
+	}
+
+	@Benchmark
+	public PizzaDTO decodePizza() throws Exception {
+		return mapper.readValue(pizzaBytes, PizzaDTO.class);
+	}
+
+	@Benchmark
+	public CustomerDTO decodeCustomer() throws Exception {
+		return mapper.readValue(customerBytes, CustomerDTO.class);
+	}
+
+	@Benchmark
+	public List<PizzaDTO> decodePizzaBatch() throws Exception {
+		return mapper.readValue(pizzasBytes, pizzaListType);
+	}
+
+	@Benchmark
+	public List<CustomerDTO> decodeCustomerBatch() throws Exception {
+		return mapper.readValue(customersBytes, customerListType);
+	}
+}
@@ -0,0 +1,109 @@
+package com.amolina.benchmarks.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of Feign's default {@code HttpURLConnection} transport against the pooled Apache
+ * HttpClient transport order-service now uses, fetching a pizza from a local stub server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class FeignTransportBenchmark {
+
+	private static final byte[] PIZZA = ("{\"itemId\":1,\"name\":\"Margherita\","
+			+ "\"description\":\"Fresh mozzarella, tomato sauce, and basil\",\"price\":12.99}").getBytes(StandardCharsets.UTF_8);
+
+	private static final Request.Options OPTIONS = new Request.Options(2, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, true);
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private CloseableHttpClient httpClient;
+	private Client defaultClient;
+	private Client pooledClient;
+	private Request request;
+
+	@Setup
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+		server.createContext("/api/pizzas/1", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, PIZZA.length);
+			try (OutputStream body = exchange.getResponseBody()) {
+				body.write(PIZZA);
+			}
+		});
+		serverExecutor = Executors.newFixedThreadPool(32);
+		server.setExecutor(serverExecutor);
+		server.start();
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(900, TimeUnit.SECONDS);
+		connectionManager.setMaxTotal(200);
+		connectionManager.setDefaultMaxPerRoute(50);
+		httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+
+		defaultClient = new Client.Default(null, null);
+		pooledClient = new ApacheHttpClient(httpClient);
+		String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/pizzas/1";
+		request = Request.create(Request.HttpMethod.GET, url,
+				Collections.singletonMap("Accept", Collections.singletonList("application/json")),
+				null, StandardCharsets.UTF_8, null);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		httpClient.close();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public int defaultTransport() throws IOException {
+		return execute(defaultClient);
+	}
+
+	@Benchmark
+	public int pooledTransport() throws IOException {
+		return execute(pooledClient);
+	}
+
+	private int execute(Client client) throws IOException {
+		try (Response response = client.execute(request, OPTIONS);
+			 InputStream body = response.body().asInputStream()) {
+			return body.readAllBytes().length;
+		}
+	}
+}
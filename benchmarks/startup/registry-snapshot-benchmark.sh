@@ -0,0 +1,141 @@
+#!/usr/bin/env bash
+#
+# Time to the first successful downstream call of a restarted order-service while
+# eureka-server is unresponsive, with the local registry snapshot and without it.
+#
+# Each run pauses eureka-server for PAUSE_SECONDS, restarts order-service and polls
+# GET /order-service/api/orders/$ORDER_ID through the gateway until the response is not
+# marked stale, i.e. menu-service and customer-service were actually reached. Pausing
+# keeps the server's registry intact, so the gateway keeps routing to order-service.
+# Medians are printed and written to registry-snapshot-result.csv.
+#
+#   mvn clean package -DskipTests
+#   docker-compose up -d --build
+#   benchmarks/startup/registry-snapshot-benchmark.sh [RUNS]
+#
+set -euo pipefail
+
+RUNS="${1:-5}"
+ORDER_ID="${ORDER_ID:-1}"
+PAUSE_SECONDS="${PAUSE_SECONDS:-45}"
+TIMEOUT_SECONDS=300
+SNAPSHOT_FILE=/var/lib/registry-snapshot/order-service-registry.snapshot
+GATEWAY=http://localhost:8073
+TOKEN_URL=http://localhost:8080/auth/realms/pizza-store/protocol/openid-connect/token
+
+cd "$(dirname "$0")/../.."
+
+# The snapshot is switched off through the environment, which takes a recreated container
+NO_SNAPSHOT="$(mktemp)"
+trap 'rm -f "$NO_SNAPSHOT"' EXIT
+cat > "$NO_SNAPSHOT" <<'EOF'
+services:
+  order-service:
+    environment:
+      REGISTRY_SNAPSHOT_ENABLED: "false"
+EOF
+
+declare -A RESULTS
+
+compose() {
+  local mode="$1"
+  shift
+  if [ "$mode" = "none" ]; then
+    docker-compose -f docker-compose.yml -f "$NO_SNAPSHOT" "$@"
+  else
+    docker-compose -f docker-compose.yml "$@"
+  fi
+}
+
+token() {
+  curl -sf -X POST "$TOKEN_URL" \
+    -H 'Content-Type: application/x-www-form-urlencoded' \
+    -d 'grant_type=client_credentials' \
+    -d 'client_id=pizza-store-client' \
+    -d 'client_secret=4b1b5a01-9627-47cc-91fe-74bf42cc35c6' \
+    | sed -n 's/.*"access_token":"\([^"]*\)".*/\1/p'
+}
+
+# True when the order is served with fresh pizza and customer details
+downstream_ok() {
+  local body
+  body="$(curl -sf -m 5 -H "Authorization: Bearer $1" -H 'Accept: application/json' \
+    "$GATEWAY/order-service/api/orders/$ORDER_ID" || true)"
+  [[ "$body" == *'"stale":false'* ]]
+}
+
+# Seconds from $1 until a downstream call succeeds, or empty on timeout
+time_to_first_call() {
+  local start="$1" access_token
+  access_token="$(token)"
+  while [ "$(elapsed "$start" | cut -d. -f1)" -lt "$TIMEOUT_SECONDS" ]; do
+    if downstream_ok "$access_token"; then
+      elapsed "$start"
+      return
+    fi
+    sleep 0.5
+  done
+  return 1
+}
+
+elapsed() {
+  echo "$(date +%s.%N) $1" | awk '{ printf "%.1f\n", $1 - $2 }'
+}
+
+wait_for() {
+  local deadline=$((SECONDS + TIMEOUT_SECONDS))
+  until "$@"; do
+    if [ "$SECONDS" -ge "$deadline" ]; then
+      echo "   timed out waiting for: $*" >&2
+      exit 1
+    fi
+    sleep 2
+  done
+}
+
+snapshot_written() {
+  compose snapshot exec -T order-service test -s "$SNAPSHOT_FILE"
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "n/a"; else if (NR % 2) print v[(NR + 1) / 2]; else printf "%.1f\n", (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+for mode in snapshot none; do
+  echo "== $mode: recreating order-service"
+  compose "$mode" up -d --no-deps --force-recreate order-service > /dev/null
+  time_to_first_call "$(date +%s.%N)" > /dev/null
+  if [ "$mode" = "snapshot" ]; then
+    wait_for snapshot_written
+  fi
+
+  samples=()
+  for ((run = 1; run <= RUNS; run++)); do
+    compose "$mode" pause eureka-server > /dev/null
+    (sleep "$PAUSE_SECONDS"; compose "$mode" unpause eureka-server > /dev/null) &
+    unpause=$!
+    start="$(date +%s.%N)"
+    compose "$mode" restart order-service > /dev/null
+    value="$(time_to_first_call "$start" || true)"
+    wait "$unpause"
+    if [ -z "$value" ]; then
+      echo "   run $run: no successful downstream call after ${TIMEOUT_SECONDS}s" >&2
+    else
+      echo "   run $run: ${value}s"
+      samples+=("$value")
+    fi
+    # Let order-service heartbeat and fetch again before the next pause
+    sleep 35
+  done
+  RESULTS["$mode"]="$(printf '%s\n' ${samples[@]+"${samples[@]}"} | sed '/^$/d' | median)"
+done
+
+compose snapshot up -d --no-deps --force-recreate order-service > /dev/null
+
+echo
+echo "Time to first successful downstream call after restart, eureka-server paused for ${PAUSE_SECONDS}s"
+printf '%-22s %8s\n' "with snapshot (s)" "${RESULTS[snapshot]}"
+printf '%-22s %8s\n' "without snapshot (s)" "${RESULTS[none]}"
+echo "mode,seconds" > registry-snapshot-result.csv
+echo "snapshot,${RESULTS[snapshot]}" >> registry-snapshot-result.csv
+echo "none,${RESULTS[none]}" >> registry-snapshot-result.csv
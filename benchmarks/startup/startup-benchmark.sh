@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+#
+# Time-to-ready of every service, default images vs the fast-start build
+# (class data sharing archive + lazy initialization, see docker-compose.faststart.yml).
+#
+# Each service is restarted RUNS times against the running stack, and the
+# "JVM running for" figure Spring Boot logs when the application has started is
+# collected. Medians are printed and written to startup-result.csv.
+#
+#   mvn clean package -DskipTests
+#   benchmarks/startup/startup-benchmark.sh [RUNS]
+#
+set -euo pipefail
+
+RUNS="${1:-5}"
+TIMEOUT_SECONDS=300
+SERVICES=(config-server eureka-server gateway-server menu-service customer-service order-service)
+
+cd "$(dirname "$0")/../.."
+
+declare -A RESULTS
+
+compose() {
+  local mode="$1"
+  shift
+  if [ "$mode" = "faststart" ]; then
+    docker-compose -f docker-compose.yml -f docker-compose.faststart.yml "$@"
+  else
+    docker-compose -f docker-compose.yml "$@"
+  fi
+}
+
+# Seconds the JVM had been running when the service logged its startup (after $since, if given), or empty on timeout
+time_to_ready() {
+  local mode="$1" service="$2" since="${3:-}" deadline=$((SECONDS + TIMEOUT_SECONDS)) line
+  local args=(logs --no-color)
+  if [ -n "$since" ]; then
+    args+=(--since "$since")
+  fi
+  while [ "$SECONDS" -lt "$deadline" ]; do
+    line="$(compose "$mode" "${args[@]}" "$service" 2>/dev/null | grep -o 'JVM running for [0-9.]*' | tail -n 1 || true)"
+    if [ -n "$line" ]; then
+      echo "${line##* }"
+      return
+    fi
+    sleep 1
+  done
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "n/a"; else if (NR % 2) print v[(NR + 1) / 2]; else printf "%.3f\n", (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+for mode in default faststart; do
+  echo "== $mode: building and starting the stack"
+  compose "$mode" up -d --build
+  for service in "${SERVICES[@]}"; do
+    time_to_ready "$mode" "$service" > /dev/null
+  done
+
+  for service in "${SERVICES[@]}"; do
+    samples=()
+    for ((run = 1; run <= RUNS; run++)); do
+      since="$(date -u +%Y-%m-%dT%H:%M:%SZ)"
+      compose "$mode" restart "$service" > /dev/null
+      value="$(time_to_ready "$mode" "$service" "$since")"
+      if [ -z "$value" ]; then
+        echo "   $service run $run: not ready after ${TIMEOUT_SECONDS}s" >&2
+        continue
+      fi
+      echo "   $service run $run: ${value}s"
+      samples+=("$value")
+    done
+    RESULTS["$mode,$service"]="$(printf '%s\n' ${samples[@]+"${samples[@]}"} | sed '/^$/d' | median)"
+  done
+
+  compose "$mode" down
+done
+
+echo
+printf '%-18s %12s %12s\n' "Service" "default (s)" "faststart (s)"
+echo "service,default_seconds,faststart_seconds" > startup-result.csv
+for service in "${SERVICES[@]}"; do
+  printf '%-18s %12s %12s\n' "$service" "${RESULTS[default,$service]}" "${RESULTS[faststart,$service]}"
+  echo "$service,${RESULTS[default,$service]},${RESULTS[faststart,$service]}" >> startup-result.csv
+done
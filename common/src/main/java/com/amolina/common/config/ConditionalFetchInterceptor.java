@@ -0,0 +1,102 @@
+package com.amolina.common.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes config client fetches conditional. The last response per URL is revalidated with
+ * {@code If-None-Match}, and a {@code 304} from the config server is replayed as the remembered
+ * {@code 200}, so a refresh that finds nothing changed costs the server no rendering and no body.
+ */
+public class ConditionalFetchInterceptor implements ClientHttpRequestInterceptor {
+
+    /** Static because every refresh builds a new bootstrap context, and with it a new interceptor. */
+    private static final Map<String, CachedConfig> LAST_RESPONSES = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String key = request.getURI().toString();
+        CachedConfig cached = LAST_RESPONSES.get(key);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.etag);
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        if (response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            response.close();
+            return cached.replay();
+        }
+        String etag = response.getHeaders().getETag();
+        if (response.getRawStatusCode() != HttpStatus.OK.value() || etag == null) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        byte[] content;
+        try {
+            content = StreamUtils.copyToByteArray(response.getBody());
+        } finally {
+            response.close();
+        }
+        CachedConfig fresh = new CachedConfig(etag, HttpHeaders.readOnlyHttpHeaders(headers), content);
+        LAST_RESPONSES.put(key, fresh);
+        return fresh.replay();
+    }
+
+    private static final class CachedConfig {
+
+        private final String etag;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        CachedConfig(String etag, HttpHeaders headers, byte[] body) {
+            this.etag = etag;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        ClientHttpResponse replay() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatus getStatusCode() {
+                    return HttpStatus.OK;
+                }
+
+                @Override
+                public int getRawStatusCode() {
+                    return HttpStatus.OK.value();
+                }
+
+                @Override
+                public String getStatusText() {
+                    return HttpStatus.OK.getReasonPhrase();
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
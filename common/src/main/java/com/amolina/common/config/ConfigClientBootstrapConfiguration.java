@@ -0,0 +1,34 @@
+package com.amolina.common.config;
+
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigClientRequestTemplateFactory;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Bootstrap configuration, registered in {@code META-INF/spring.factories} and deliberately not a component,
+ * that adds {@link ConditionalFetchInterceptor} to the config client's RestTemplate. The template itself comes from
+ * Spring Cloud's {@link ConfigClientRequestTemplateFactory}, so timeouts, TLS, basic auth and
+ * {@code spring.cloud.config.headers} are set up exactly as without this configuration.
+ * Ordered ahead of Spring Cloud's own config client bootstrap, whose locator backs off when this one exists.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConfigClientBootstrapConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cloud.config.enabled", matchIfMissing = true)
+    public ConfigServicePropertySourceLocator configServicePropertySource(ConfigClientProperties properties) {
+        RestTemplate restTemplate = new ConfigClientRequestTemplateFactory(
+                LogFactory.getLog(ConfigServicePropertySourceLocator.class), properties).create();
+        restTemplate.getInterceptors().add(new ConditionalFetchInterceptor());
+
+        ConfigServicePropertySourceLocator locator = new ConfigServicePropertySourceLocator(properties);
+        locator.setRestTemplate(restTemplate);
+        return locator;
+    }
+}
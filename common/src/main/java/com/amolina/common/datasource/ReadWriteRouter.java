@@ -0,0 +1,151 @@
+package com.amolina.common.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides where each connection goes: read-only transactions to a healthy replica in turn, everything else,
+ * including work outside a transaction, to the primary.
+ * <p>
+ * Replicas are checked in the background for connectivity and replication lag. A replica that fails to hand
+ * out a connection leaves the rotation until its next successful check, and the read falls back to the
+ * primary. After a committed write, reads by the same principal stay on the primary for the
+ * read-your-writes window, so a client never reads back an older state than it just wrote.
+ */
+public class ReadWriteRouter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRouter.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesNanos;
+    private final Duration maxReplicationLag;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReadWriteRouter(DataSource primary, List<Replica> replicas, Duration readYourWritesWindow,
+                           Duration maxReplicationLag) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.maxReplicationLag = maxReplicationLag;
+    }
+
+    public void start(Duration healthCheckInterval) {
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return primary.getConnection();
+        }
+        String principal = currentPrincipal();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(principal);
+            return primary.getConnection();
+        }
+        Replica replica = recentlyWrote(principal) ? null : nextHealthyReplica();
+        if (replica != null) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+                logger.warn("Replica {} unavailable, reading from the primary: {}", replica.getName(), e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    void checkReplicas() {
+        replicas.forEach(replica -> replica.check(maxReplicationLag));
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesNanos);
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean recentlyWrote(String principal) {
+        Long writtenAt = lastWrites.get(principal);
+        return writtenAt != null && System.nanoTime() - writtenAt < readYourWritesNanos;
+    }
+
+    private void rememberWriteOnCommit(String principal) {
+        if (readYourWritesNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(principal, System.nanoTime());
+            }
+        });
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Read-only transactions served by the primary: inside a read-your-writes window, or with no healthy replica.
+     */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.getDataSource()));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                logger.debug("Error closing datasource", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.amolina.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource with read/write routing when {@code datasource.routing.enabled} is set.
+ * The primary pool is still configured from {@code spring.datasource.*}. The pools are not beans themselves, so
+ * the deadline query timeout wraps the routing datasource once rather than every pool behind it.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.routing.enabled")
+@EnableConfigurationProperties(ReadWriteRoutingProperties.class)
+public class ReadWriteRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRouter readWriteRouter(DataSourceProperties dataSourceProperties, ReadWriteRoutingProperties properties,
+                                           Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        List<HikariDataSource> pools = new ArrayList<>(List.of(primary));
+        List<Replica> replicas = new ArrayList<>();
+        for (ReadWriteRoutingProperties.ReplicaProperties replicaProperties : properties.getReplicas()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (replicas.size() + 1));
+            pool.setJdbcUrl(replicaProperties.getUrl());
+            pool.setUsername(replicaProperties.getUsername() != null
+                    ? replicaProperties.getUsername() : dataSourceProperties.determineUsername());
+            pool.setPassword(replicaProperties.getPassword() != null
+                    ? replicaProperties.getPassword() : dataSourceProperties.determinePassword());
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+            pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // A replica that is down at startup must not fail the application, only stay out of rotation
+            pool.setInitializationFailTimeout(-1);
+            pools.add(pool);
+            replicas.add(new Replica(pool.getPoolName(), pool));
+        }
+        meterRegistry.ifAvailable(registry -> pools.forEach(pool ->
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry))));
+
+        ReadWriteRouter router = new ReadWriteRouter(primary, replicas,
+                properties.getReadYourWritesWindow(), properties.getMaxReplicationLag());
+        router.start(properties.getHealthCheckInterval());
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRouter readWriteRouter) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(readWriteRouter));
+    }
+
+    /**
+     * Spring's default holds a session's connection until the session closes, which with open-in-view means the
+     * whole request: a write following a read would run on the replica connection. Releasing after each
+     * transaction routes every transaction on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReadWriteRoutingEndpoint readWriteRoutingEndpoint(ReadWriteRouter readWriteRouter) {
+        return new ReadWriteRoutingEndpoint(readWriteRouter);
+    }
+}
@@ -0,0 +1,32 @@
+package com.amolina.common.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * {@link javax.sql.DataSource} view of a {@link ReadWriteRouter}. Has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the JPA transaction manager
+ * asks for a connection before it marks the transaction read-only, so the physical connection must only be
+ * fetched at the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final ReadWriteRouter router;
+
+    public ReadWriteRoutingDataSource(ReadWriteRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return router.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+    }
+}
@@ -0,0 +1,37 @@
+package com.amolina.common.datasource;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes replica health and read routing counts at {@code /actuator/datasources}.
+ */
+@Endpoint(id = "datasources")
+public class ReadWriteRoutingEndpoint {
+
+    private final ReadWriteRouter router;
+
+    public ReadWriteRoutingEndpoint(ReadWriteRouter router) {
+        this.router = router;
+    }
+
+    @ReadOperation
+    public Map<String, Object> routing() {
+        Map<String, Object> replicas = new LinkedHashMap<>();
+        for (Replica replica : router.getReplicas()) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("healthy", replica.isHealthy());
+            values.put("lagMillis", replica.getLagMillis());
+            values.put("reads", replica.getReads());
+            values.put("lastError", replica.getLastError());
+            replicas.put(replica.getName(), values);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("primaryReads", router.getPrimaryReads());
+        result.put("replicas", replicas);
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.amolina.common.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.routing")
+public class ReadWriteRoutingProperties {
+
+    private boolean enabled = false;
+    private List<ReplicaProperties> replicas = new ArrayList<>();
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration maxReplicationLag = Duration.ofSeconds(10);
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+    private int maximumPoolSize = 10;
+
+    @Data
+    public static class ReplicaProperties {
+        private String url;
+        /** Defaults to the primary's. */
+        private String username;
+        /** Defaults to the primary's. */
+        private String password;
+    }
+}
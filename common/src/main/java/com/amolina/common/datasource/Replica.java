@@ -0,0 +1,101 @@
+package com.amolina.common.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read replica and what its last health check found. Starts out of rotation until the first check passes.
+ */
+public class Replica {
+
+    private static final Logger logger = LoggerFactory.getLogger(Replica.class);
+
+    /**
+     * Replay lag in milliseconds: 0 when everything received has been replayed, or when the server is not a standby.
+     */
+    static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() IS NULL"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    private final String name;
+    private final DataSource dataSource;
+    private final LongAdder reads = new LongAdder();
+    private volatile boolean healthy;
+    private volatile long lagMillis = -1;
+    private volatile String lastError;
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        reads.increment();
+        return connection;
+    }
+
+    void check(Duration maxReplicationLag) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            lagMillis = resultSet.getLong(1);
+            if (lagMillis > maxReplicationLag.toMillis()) {
+                markDown("replication lag " + lagMillis + "ms");
+            } else {
+                markUp();
+            }
+        } catch (SQLException e) {
+            markDown(e.getMessage());
+        }
+    }
+
+    void markDown(String reason) {
+        if (healthy) {
+            logger.warn("Replica {} taken out of rotation: {}", name, reason);
+        }
+        healthy = false;
+        lastError = reason;
+    }
+
+    private void markUp() {
+        if (!healthy) {
+            logger.info("Replica {} in rotation", name);
+        }
+        healthy = true;
+        lastError = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getReads() {
+        return reads.sum();
+    }
+}
@@ -0,0 +1,65 @@
+package com.amolina.common.deadline;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * Wraps the application {@link DataSource} so that every JDBC statement created while serving a
+ * request with a deadline gets a query timeout equal to the remaining budget.
+ * Statements issued after the deadline fail immediately with {@link SQLTimeoutException}.
+ */
+@Component
+public class DeadlineQueryTimeoutPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return proxy(ClassUtils.getAllInterfaces(bean), bean, (target, method, result) ->
+                    result instanceof Connection ? proxy(new Class<?>[] {Connection.class}, result, DeadlineQueryTimeoutPostProcessor::onConnection) : result);
+        }
+        return bean;
+    }
+
+    private static Object onConnection(Object target, Method method, Object result) throws SQLException {
+        if (result instanceof Statement && RequestDeadline.get() != null) {
+            Statement statement = (Statement) result;
+            long remainingMillis = RequestDeadline.remainingMillis();
+            if (remainingMillis <= 0) {
+                statement.close();
+                throw new SQLTimeoutException("Request deadline exceeded before executing statement");
+            }
+            // JDBC timeouts are whole seconds; round up so short budgets are not turned into "no timeout".
+            statement.setQueryTimeout((int) Math.max(1, (remainingMillis + 999) / 1000));
+        }
+        return result;
+    }
+
+    private static Object proxy(Class<?>[] interfaces, Object target, ResultHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return handler.handle(target, method, result);
+        };
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(Object target, Method method, Object result) throws Exception;
+    }
+}
@@ -0,0 +1,42 @@
+package com.amolina.common.deadline;
+
+/**
+ * Holds the absolute deadline (epoch millis) of the request being served on the current thread,
+ * as stamped by the gateway in the {@value #HEADER} header.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "tmx-request-deadline";
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void set(Long epochMillis) {
+        DEADLINE.set(epochMillis);
+    }
+
+    /**
+     * The current deadline, or {@code null} if the request carries none.
+     */
+    public static Long get() {
+        return DEADLINE.get();
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Milliseconds left before the deadline, or {@link Long#MAX_VALUE} if there is no deadline.
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+
+    public static boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.amolina.common.discovery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link RegistrySnapshot} for the reactive discovery path, which the load balancer prefers when Reactor is present.
+ * The reactive composite merges every client's instances, so the snapshot staying silent for
+ * services Eureka knows matters here.
+ */
+@Component
+@ConditionalOnProperty(name = {"eureka.client.enabled", "registry.snapshot.enabled"}, matchIfMissing = true)
+public class ReactiveRegistrySnapshot implements ReactiveDiscoveryClient {
+
+    @Autowired
+    private RegistrySnapshot registrySnapshot;
+
+    @Override
+    public String description() {
+        return registrySnapshot.description();
+    }
+
+    @Override
+    public Flux<ServiceInstance> getInstances(String serviceId) {
+        return Flux.defer(() -> Flux.fromIterable(registrySnapshot.getInstances(serviceId)));
+    }
+
+    @Override
+    public Flux<String> getServices() {
+        return Flux.defer(() -> Flux.fromIterable(registrySnapshot.getServices()));
+    }
+
+    @Override
+    public int getOrder() {
+        return registrySnapshot.getOrder();
+    }
+}
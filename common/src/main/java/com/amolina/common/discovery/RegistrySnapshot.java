@@ -0,0 +1,178 @@
+package com.amolina.common.discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the last Eureka registry fetched by this instance in a local file and serves it as a fallback
+ * discovery source after a restart, so downstream calls are routed before the first registry fetch succeeds.
+ * The file holds one tab-separated line per UP instance.
+ * <p>
+ * The snapshot answers for a service only while Eureka has no instance of it, and is retired a grace
+ * period after the first successful fetch, once live instances have had time to re-register with a
+ * restarted server.
+ */
+@Component
+@ConditionalOnProperty(name = {"eureka.client.enabled", "registry.snapshot.enabled"}, matchIfMissing = true)
+public class RegistrySnapshot implements DiscoveryClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrySnapshot.class);
+
+    @Autowired
+    private EurekaClient eurekaClient;
+
+    @Value("${registry.snapshot.file:${java.io.tmpdir}/${spring.application.name}-registry.snapshot}")
+    private String file;
+
+    @Value("${registry.snapshot.max-age:24h}")
+    private Duration maxAge;
+
+    @Value("${registry.snapshot.grace-period:90s}")
+    private Duration gracePeriod;
+
+    private volatile Map<String, List<ServiceInstance>> snapshot = Collections.emptyMap();
+    private volatile Instant firstFetch;
+    private String lastSaved;
+
+    @PostConstruct
+    public void load() {
+        Path path = Paths.get(file);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try {
+            Duration age = Duration.between(Files.getLastModifiedTime(path).toInstant(), Instant.now());
+            if (age.compareTo(maxAge) > 0) {
+                logger.info("Ignoring registry snapshot {}, written {} ago", path, age);
+                return;
+            }
+            Map<String, List<ServiceInstance>> loaded = new HashMap<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (fields.length != 5) {
+                    continue;
+                }
+                loaded.computeIfAbsent(fields[0], serviceId -> new ArrayList<>()).add(new DefaultServiceInstance(
+                        fields[1], fields[0], fields[2], Integer.parseInt(fields[3]), Boolean.parseBoolean(fields[4])));
+            }
+            snapshot = loaded;
+            logger.info("Loaded registry snapshot {} with {} services, written {} ago", path, loaded.size(), age);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read registry snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    /**
+     * Published by the Eureka client after every successful registry fetch.
+     */
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryFetched() {
+        Instant now = Instant.now();
+        if (firstFetch == null) {
+            firstFetch = now;
+        } else if (!snapshot.isEmpty() && Duration.between(firstFetch, now).compareTo(gracePeriod) >= 0) {
+            snapshot = Collections.emptyMap();
+            logger.info("Registry snapshot retired, serving the Eureka registry only");
+        }
+        save();
+    }
+
+    @PreDestroy
+    public synchronized void save() {
+        StringBuilder content = new StringBuilder();
+        for (Application application : eurekaClient.getApplications().getRegisteredApplications()) {
+            String serviceId = application.getName().toLowerCase(Locale.ROOT);
+            for (InstanceInfo instance : application.getInstances()) {
+                if (instance.getStatus() != InstanceInfo.InstanceStatus.UP) {
+                    continue;
+                }
+                boolean secure = instance.isPortEnabled(InstanceInfo.PortType.SECURE);
+                content.append(serviceId).append('\t')
+                        .append(instance.getId()).append('\t')
+                        .append(instance.getHostName()).append('\t')
+                        .append(secure ? instance.getSecurePort() : instance.getPort()).append('\t')
+                        .append(secure).append('\n');
+            }
+        }
+        // An empty registry is what a freshly restarted server returns, not worth keeping
+        String saved = content.toString();
+        if (saved.isEmpty() || saved.equals(lastSaved)) {
+            return;
+        }
+        Path path = Paths.get(file).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            Files.write(temp, saved.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSaved = saved;
+        } catch (IOException e) {
+            logger.warn("Could not write registry snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Local registry snapshot";
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        List<ServiceInstance> instances = snapshot.get(serviceId.toLowerCase(Locale.ROOT));
+        if (instances == null || knownToEureka(serviceId)) {
+            return Collections.emptyList();
+        }
+        return instances;
+    }
+
+    @Override
+    public List<String> getServices() {
+        return snapshot.keySet().stream()
+                .filter(serviceId -> !knownToEureka(serviceId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * After Eureka's own client, which is ordered at 0.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private boolean knownToEureka(String serviceId) {
+        Application application = eurekaClient.getApplication(serviceId);
+        return application != null && !application.getInstances().isEmpty();
+    }
+}
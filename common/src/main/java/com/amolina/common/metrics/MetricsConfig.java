@@ -0,0 +1,21 @@
+package com.amolina.common.metrics;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps meter tags bounded. Endpoint timers are already capped by Spring Boot
+ * ({@code management.metrics.web.server.max-uri-tags}); repository timers are tagged by method name,
+ * which is capped here so a misbehaving source cannot grow the registry without bound.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterFilter repositoryMethodTagLimit(@Value("${metrics.max-method-tags:100}") int maxMethodTags) {
+        return MeterFilter.maximumAllowableTags("spring.data.repository.invocations", "method", maxMethodTags,
+                MeterFilter.deny());
+    }
+}
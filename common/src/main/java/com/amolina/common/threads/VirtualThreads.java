@@ -0,0 +1,61 @@
+package com.amolina.common.threads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the Java 21 virtual-thread API from code compiled for Java 11.
+ * Spring Framework 5.3 cannot read Java 21 class files, so the services keep targeting 11 and
+ * reach {@code Thread.ofVirtual()} reflectively when they run on a Java 21 JVM.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Factory for virtual threads named {@code namePrefix0}, {@code namePrefix1}, ...
+     *
+     * @throws IllegalStateException when not running on Java 21 or later
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    /**
+     * Executor that starts a new virtual thread for every task.
+     *
+     * @throws IllegalStateException when not running on Java 21 or later
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = factory(namePrefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static IllegalStateException unsupported(Exception cause) {
+        return new IllegalStateException("threads.virtual.enabled requires a Java 21 runtime, running on "
+                + Runtime.version(), cause);
+    }
+}
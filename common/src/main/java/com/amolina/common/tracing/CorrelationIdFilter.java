@@ -0,0 +1,52 @@
+package com.amolina.common.tracing;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Picks up the correlation id stamped by the gateway, exposes it to logging through the MDC
+ * and records the time spent serving the request on this hop.
+ * Runs ahead of the Keycloak filter chain so rejected requests are traced as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String CORRELATION_ID = "tmx-correlation-id";
+    public static final String MDC_KEY = "correlationId";
+
+    @Autowired
+    private SpanRecorder spanRecorder;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String correlationId = request.getHeader(CORRELATION_ID);
+        if (correlationId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long startEpochMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        MDC.put(MDC_KEY, correlationId);
+        response.setHeader(CORRELATION_ID, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            spanRecorder.record(correlationId, request.getMethod() + " " + request.getRequestURI(),
+                    startEpochMillis, startNanos);
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
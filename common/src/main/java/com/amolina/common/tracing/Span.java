@@ -0,0 +1,41 @@
+package com.amolina.common.tracing;
+
+/**
+ * A single timed hop recorded against a correlation id.
+ */
+public class Span {
+
+    private final String correlationId;
+    private final String service;
+    private final String name;
+    private final long startEpochMillis;
+    private final long durationMicros;
+
+    public Span(String correlationId, String service, String name, long startEpochMillis, long durationMicros) {
+        this.correlationId = correlationId;
+        this.service = service;
+        this.name = name;
+        this.startEpochMillis = startEpochMillis;
+        this.durationMicros = durationMicros;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+}
@@ -0,0 +1,27 @@
+package com.amolina.common.tracing;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes recorded spans at {@code /actuator/spans/{correlationId}}.
+ */
+@Component
+@Endpoint(id = "spans")
+public class SpanEndpoint {
+
+    private final SpanRecorder spanRecorder;
+
+    public SpanEndpoint(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    @ReadOperation
+    public List<Span> spans(@Selector String correlationId) {
+        return spanRecorder.findByCorrelationId(correlationId);
+    }
+}
@@ -0,0 +1,50 @@
+package com.amolina.common.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed-size ring buffer of recently completed spans.
+ * Writers claim a slot with a single atomic increment and overwrite the oldest entry,
+ * so recording never blocks and memory stays bounded regardless of traffic.
+ */
+@Component
+public class SpanRecorder {
+
+    private final String service;
+    private final AtomicReferenceArray<Span> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SpanRecorder(@Value("${spring.application.name}") String service,
+            @Value("${tracing.span-buffer-size:1024}") int capacity) {
+        this.service = service;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void record(String correlationId, String name, long startEpochMillis, long startNanos) {
+        if (correlationId == null) {
+            return;
+        }
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        int slot = (int) (sequence.getAndIncrement() % buffer.length());
+        buffer.set(slot, new Span(correlationId, service, name, startEpochMillis, durationMicros));
+    }
+
+    public List<Span> findByCorrelationId(String correlationId) {
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < buffer.length(); i++) {
+            Span span = buffer.get(i);
+            if (span != null && span.getCorrelationId().equals(correlationId)) {
+                spans.add(span);
+            }
+        }
+        spans.sort((a, b) -> Long.compare(a.getStartEpochMillis(), b.getStartEpochMillis()));
+        return spans;
+    }
+}
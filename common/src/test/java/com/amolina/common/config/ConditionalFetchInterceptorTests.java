@@ -0,0 +1,41 @@
+package com.amolina.common.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ConditionalFetchInterceptorTests {
+
+	private static final String URL = "http://config-server/order-service/conditional-fetch-test";
+	private static final String BODY = "{\"name\":\"order-service\"}";
+
+	@Test
+	void notModifiedReplaysTheLastResponse() {
+		RestTemplate restTemplate = new RestTemplate();
+		restTemplate.getInterceptors().add(new ConditionalFetchInterceptor());
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+		HttpHeaders etag = new HttpHeaders();
+		etag.setETag("\"v1\"");
+		server.expect(once(), requestTo(URL))
+				.andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+				.andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(etag));
+		server.expect(once(), requestTo(URL))
+				.andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+				.andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(etag));
+
+		assertEquals(BODY, restTemplate.getForObject(URL, String.class));
+		assertEquals(BODY, restTemplate.getForObject(URL, String.class));
+		server.verify();
+	}
+}
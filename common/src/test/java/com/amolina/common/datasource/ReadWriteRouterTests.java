@@ -0,0 +1,125 @@
+package com.amolina.common.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRouterTests {
+
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection replicaConnection = mock(Connection.class);
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource replicaDataSource = mock(DataSource.class);
+	private final ResultSet lag = mock(ResultSet.class);
+
+	private Replica replica;
+	private ReadWriteRouter router;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		Statement statement = mock(Statement.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+		when(replicaConnection.createStatement()).thenReturn(statement);
+		when(statement.executeQuery(anyString())).thenReturn(lag);
+		when(lag.next()).thenReturn(true);
+		when(lag.getLong(1)).thenReturn(0L);
+
+		replica = new Replica("replica-1", replicaDataSource);
+		router = new ReadWriteRouter(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofSeconds(10));
+		router.checkReplicas();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clear();
+	}
+
+	private void beginTransaction(boolean readOnly) {
+		TransactionSynchronizationManager.clear();
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+	}
+
+	private void commit() {
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clear();
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() throws SQLException {
+		beginTransaction(true);
+		assertSame(replicaConnection, router.getConnection());
+		assertEquals(1, replica.getReads());
+	}
+
+	@Test
+	void writesAndNonTransactionalWorkGoToThePrimary() throws SQLException {
+		assertSame(primaryConnection, router.getConnection());
+		beginTransaction(false);
+		assertSame(primaryConnection, router.getConnection());
+		assertEquals(0, replica.getReads());
+	}
+
+	@Test
+	void readsStayOnThePrimaryAfterACommittedWrite() throws SQLException {
+		beginTransaction(false);
+		router.getConnection();
+		commit();
+
+		beginTransaction(true);
+		assertSame(primaryConnection, router.getConnection());
+		assertEquals(1, router.getPrimaryReads());
+	}
+
+	@Test
+	void rolledBackWriteDoesNotPinReads() throws SQLException {
+		beginTransaction(false);
+		router.getConnection();
+		TransactionSynchronizationManager.clear();
+
+		beginTransaction(true);
+		assertSame(replicaConnection, router.getConnection());
+	}
+
+	@Test
+	void fallsBackToThePrimaryWhenTheReplicaFails() throws SQLException {
+		when(replicaDataSource.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+		beginTransaction(true);
+		assertSame(primaryConnection, router.getConnection());
+		assertFalse(replica.isHealthy());
+	}
+
+	@Test
+	void laggingReplicaLeavesTheRotationUntilItCatchesUp() throws SQLException {
+		when(lag.getLong(1)).thenReturn(60_000L);
+		router.checkReplicas();
+		beginTransaction(true);
+		assertSame(primaryConnection, router.getConnection());
+
+		when(lag.getLong(1)).thenReturn(100L);
+		router.checkReplicas();
+		assertTrue(replica.isHealthy());
+		assertSame(replicaConnection, router.getConnection());
+	}
+}
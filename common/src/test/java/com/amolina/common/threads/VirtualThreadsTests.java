@@ -0,0 +1,32 @@
+package com.amolina.common.threads;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsTests {
+
+	@Test
+	void runsTasksOnVirtualThreads() throws Exception {
+		assumeTrue(VirtualThreads.isSupported());
+		ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+		try {
+			Future<Object> virtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+			assertTrue((Boolean) virtual.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void failsFastBeforeJava21() {
+		assumeFalse(VirtualThreads.isSupported());
+		assertThrows(IllegalStateException.class, () -> VirtualThreads.factory("test-"));
+	}
+}
@@ -1,11 +1,14 @@
 package com.amolina.configserver;
 
+import com.amolina.common.startup.TrainingRunExit;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.config.server.EnableConfigServer;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
 @EnableConfigServer
+@Import(TrainingRunExit.class)
 public class ConfigurationServerApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(ConfigurationServerApplication.class, args);
@@ -0,0 +1,51 @@
+package com.amolina.configserver.cache;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * A rendered config server response: the serialized, decrypted property sources for one
+ * application/profile/label and media type, with the entity tag clients revalidate against.
+ */
+public class CachedResponse {
+
+	private final String contentType;
+	private final byte[] body;
+	private final String etag;
+
+	public CachedResponse(String contentType, byte[] body) {
+		this.contentType = contentType;
+		this.body = body;
+		this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * Whether an {@code If-None-Match} header names this response's entity tag.
+	 */
+	public boolean matches(String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,33 @@
+package com.amolina.configserver.cache;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/configcache} shows cache statistics, {@code DELETE} forces an invalidation.
+ */
+@Component
+@Endpoint(id = "configcache")
+public class ConfigCacheEndpoint {
+
+	private final ConfigResponseCache cache;
+
+	public ConfigCacheEndpoint(ConfigResponseCache cache) {
+		this.cache = cache;
+	}
+
+	@ReadOperation
+	public Map<String, Object> stats() {
+		return cache.stats();
+	}
+
+	@DeleteOperation
+	public Map<String, Object> invalidate() {
+		cache.invalidate();
+		return cache.stats();
+	}
+}
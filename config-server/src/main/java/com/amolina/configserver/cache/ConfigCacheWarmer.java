@@ -0,0 +1,123 @@
+package com.amolina.configserver.cache;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Precomputes the responses clients will ask for: every application and profile found in the native
+ * search locations is requested once through this server at startup and again after each invalidation,
+ * with the media type the config client sends, so client fetches are served from the cache.
+ */
+@Component
+@ConditionalOnProperty(name = "config.cache.enabled", matchIfMissing = true)
+public class ConfigCacheWarmer {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConfigCacheWarmer.class);
+
+	/** Default of {@code spring.cloud.config.media-type} on the client side. */
+	private static final MediaType CLIENT_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.spring-cloud.config-server.v2+json");
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	@Autowired
+	ConfigResponseCache cache;
+
+	@Autowired
+	ResourcePatternResolver resourcePatternResolver;
+
+	@Value("${spring.cloud.config.server.native.search-locations:classpath:/config}")
+	String[] searchLocations;
+
+	private volatile int port;
+
+	@EventListener
+	public void onReady(ApplicationReadyEvent event) {
+		if (!(event.getApplicationContext() instanceof WebServerApplicationContext)) {
+			return;
+		}
+		port = ((WebServerApplicationContext) event.getApplicationContext()).getWebServer().getPort();
+		cache.onInvalidate(this::warm);
+		warm();
+	}
+
+	void warm() {
+		TreeMap<String, Set<String>> profilesByApplication = discover();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(CLIENT_MEDIA_TYPE));
+		int warmed = 0;
+		for (String application : profilesByApplication.keySet()) {
+			for (String profile : profilesByApplication.get(application)) {
+				try {
+					restTemplate.exchange("http://localhost:{port}/{application}/{profile}", HttpMethod.GET,
+							new HttpEntity<>(headers), byte[].class, port, application, profile);
+					warmed++;
+				} catch (RestClientException e) {
+					logger.warn("Could not warm config for {}/{}: {}", application, profile, e.getMessage());
+				}
+			}
+		}
+		logger.info("Warmed config cache with {} application/profile combinations", warmed);
+	}
+
+	/**
+	 * Applications are the file names that are not another application's name plus a {@code -profile} suffix;
+	 * each gets its own profiles and {@code default}. Shared {@code application-*} files are not applications.
+	 */
+	private TreeMap<String, Set<String>> discover() {
+		TreeSet<String> names = new TreeSet<>((a, b) -> a.length() != b.length() ? a.length() - b.length() : a.compareTo(b));
+		for (String location : searchLocations) {
+			if (location.contains("{")) {
+				continue;
+			}
+			try {
+				for (Resource resource : resourcePatternResolver.getResources(location.trim() + "/*.*")) {
+					String filename = resource.getFilename();
+					if (filename == null || !filename.matches(".+\\.(properties|ya?ml)")) {
+						continue;
+					}
+					names.add(filename.substring(0, filename.lastIndexOf('.')));
+				}
+			} catch (IOException e) {
+				logger.warn("Could not list {}: {}", location, e.getMessage());
+			}
+		}
+
+		TreeMap<String, Set<String>> profilesByApplication = new TreeMap<>();
+		for (String name : names) {
+			if (name.equals("application") || name.startsWith("application-")) {
+				continue;
+			}
+			String owner = profilesByApplication.keySet().stream()
+					.filter(application -> name.startsWith(application + "-"))
+					.findFirst()
+					.orElse(null);
+			if (owner == null) {
+				profilesByApplication.computeIfAbsent(name, key -> new TreeSet<>()).add("default");
+			} else {
+				profilesByApplication.get(owner).add(name.substring(owner.length() + 1));
+			}
+		}
+		return profilesByApplication;
+	}
+}
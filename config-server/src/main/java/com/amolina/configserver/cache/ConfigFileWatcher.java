@@ -0,0 +1,150 @@
+package com.amolina.configserver.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates {@link ConfigResponseCache} when a file under the native search locations changes.
+ * <p>
+ * Only locations that resolve to a directory on the file system can be watched. The default
+ * {@code classpath:/config} is such a directory when run from an IDE or {@code target/classes}, but inside the
+ * packaged jar it is not, and neither are templated locations such as {@code file:/config/{application}}.
+ * When any location cannot be watched, the whole cache is also invalidated every {@code config.cache.unwatched-ttl}
+ * (5 minutes by default, 0 to disable), so edits there show up within that time instead of only after a restart
+ * or {@code DELETE /actuator/configcache}.
+ */
+@Component
+public class ConfigFileWatcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConfigFileWatcher.class);
+
+	/** Editors write a file in several steps; changes within this window cause a single invalidation. */
+	private static final long DEBOUNCE_MILLIS = 250;
+
+	@Autowired
+	ConfigResponseCache cache;
+
+	@Autowired
+	ResourceLoader resourceLoader;
+
+	@Value("${spring.cloud.config.server.native.search-locations:classpath:/config}")
+	String[] searchLocations;
+
+	@Value("${config.cache.unwatched-ttl:5m}")
+	Duration unwatchedTtl;
+
+	private WatchService watchService;
+	private Thread thread;
+	private ScheduledExecutorService expiry;
+
+	@PostConstruct
+	public void start() throws IOException {
+		watchService = FileSystems.getDefault().newWatchService();
+		int watched = 0;
+		int unwatched = 0;
+		for (String location : searchLocations) {
+			File directory = directory(location);
+			if (directory != null) {
+				watched += register(directory.toPath());
+			} else {
+				unwatched++;
+			}
+		}
+		if (unwatched > 0 && !unwatchedTtl.isZero()) {
+			expire(unwatchedTtl);
+		}
+		if (watched == 0) {
+			watchService.close();
+			return;
+		}
+		thread = new Thread(this::watch, "config-file-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@PreDestroy
+	public void stop() throws IOException {
+		watchService.close();
+		if (expiry != null) {
+			expiry.shutdownNow();
+		}
+	}
+
+	private void expire(Duration ttl) {
+		logger.info("Some search locations cannot be watched, cached config expires every {}", ttl);
+		expiry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread expiryThread = new Thread(runnable, "config-cache-expiry");
+			expiryThread.setDaemon(true);
+			return expiryThread;
+		});
+		expiry.scheduleWithFixedDelay(cache::invalidate, ttl.toMillis(), ttl.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private File directory(String location) {
+		if (location.contains("{")) {
+			logger.info("Not watching templated search location {}", location);
+			return null;
+		}
+		Resource resource = resourceLoader.getResource(location.trim());
+		try {
+			File file = resource.getFile();
+			return file.isDirectory() ? file : null;
+		} catch (IOException e) {
+			logger.info("Search location {} is not on the file system and is not watched", location);
+			return null;
+		}
+	}
+
+	private int register(Path root) throws IOException {
+		int count = 0;
+		try (Stream<Path> directories = Files.walk(root).filter(Files::isDirectory)) {
+			for (Path directory : (Iterable<Path>) directories::iterator) {
+				directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+						StandardWatchEventKinds.ENTRY_DELETE);
+				count++;
+			}
+		}
+		logger.info("Watching {} for config changes", root);
+		return count;
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				do {
+					key.pollEvents();
+					key.reset();
+				} while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+				cache.invalidate();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			logger.debug("Config file watcher stopped");
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.amolina.configserver.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rendered responses keyed by request URI and media type.
+ * Entries never expire on their own: the cache is versioned by a generation counter that
+ * {@link #invalidate()} bumps whenever the config files change, so a response rendered from
+ * files read before a change is never stored after it.
+ */
+@Component
+public class ConfigResponseCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConfigResponseCache.class);
+
+	private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+	private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+	private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+	private final AtomicLong generation = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder notModified = new LongAdder();
+	private final int maxEntries;
+
+	public ConfigResponseCache(@Value("${config.cache.max-entries:1024}") int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public CachedResponse get(String key) {
+		CachedResponse response = entries.get(key);
+		if (response != null) {
+			hits.increment();
+		}
+		return response;
+	}
+
+	/**
+	 * Registers the caller as the one rendering {@code key}.
+	 *
+	 * @return {@code null} if the caller should render, otherwise the pending render to wait for
+	 */
+	public CompletableFuture<CachedResponse> beginRender(String key, CompletableFuture<CachedResponse> render) {
+		CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(key, render);
+		if (existing == null) {
+			misses.increment();
+		}
+		return existing;
+	}
+
+	public void endRender(String key, CompletableFuture<CachedResponse> render) {
+		inFlight.remove(key, render);
+	}
+
+	public long generation() {
+		return generation.get();
+	}
+
+	/**
+	 * Stores a response rendered while {@code renderGeneration} was current; dropped if the files changed since.
+	 */
+	public void put(String key, CachedResponse response, long renderGeneration) {
+		if (renderGeneration != generation.get()) {
+			return;
+		}
+		if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+			logger.warn("Config response cache is full ({} entries), not caching {}", maxEntries, key);
+			return;
+		}
+		entries.put(key, response);
+	}
+
+	public void recordNotModified() {
+		notModified.increment();
+	}
+
+	public void invalidate() {
+		generation.incrementAndGet();
+		entries.clear();
+		logger.info("Config response cache invalidated, generation {}", generation.get());
+		invalidationListeners.forEach(Runnable::run);
+	}
+
+	public void onInvalidate(Runnable listener) {
+		invalidationListeners.add(listener);
+	}
+
+	public Map<String, Object> stats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("generation", generation.get());
+		stats.put("entries", entries.size());
+		stats.put("hits", hits.sum());
+		stats.put("misses", misses.sum());
+		stats.put("notModified", notModified.sum());
+		return stats;
+	}
+}
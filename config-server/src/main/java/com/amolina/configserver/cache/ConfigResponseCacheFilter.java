@@ -0,0 +1,124 @@
+package com.amolina.configserver.cache;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Serves config reads from {@link ConfigResponseCache} instead of re-reading, re-parsing and decrypting
+ * the native repository on every request, and answers {@code If-None-Match} revalidation with {@code 304}.
+ * Concurrent misses for the same key wait for a single render, so a fleet restart costs one render per key.
+ */
+@Component
+@ConditionalOnProperty(name = "config.cache.enabled", matchIfMissing = true)
+public class ConfigResponseCacheFilter extends OncePerRequestFilter {
+
+	private static final long RENDER_WAIT_SECONDS = 10;
+
+	@Autowired
+	ConfigResponseCache cache;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (!HttpMethod.GET.matches(request.getMethod())) {
+			return true;
+		}
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		return path.startsWith("/actuator") || path.startsWith("/encrypt") || path.startsWith("/decrypt")
+				|| path.startsWith("/key");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String key = key(request);
+		CachedResponse cached = cache.get(key);
+		if (cached == null) {
+			CompletableFuture<CachedResponse> render = new CompletableFuture<>();
+			CompletableFuture<CachedResponse> pending = cache.beginRender(key, render);
+			if (pending == null) {
+				try {
+					cached = render(key, request, response, filterChain);
+					render.complete(cached);
+				} finally {
+					render.complete(null);
+					cache.endRender(key, render);
+				}
+				if (cached != null) {
+					write(cached, request, response);
+				}
+				return;
+			}
+			cached = await(pending);
+			if (cached == null) {
+				filterChain.doFilter(request, response);
+				return;
+			}
+		}
+		write(cached, request, response);
+	}
+
+	/**
+	 * Runs the request through the config server and caches a successful response.
+	 *
+	 * @return the cached response, or {@code null} if the response was not cacheable and has already been sent
+	 */
+	private CachedResponse render(String key, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long generation = cache.generation();
+		ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		filterChain.doFilter(request, wrapper);
+		if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+			wrapper.copyBodyToResponse();
+			return null;
+		}
+		CachedResponse rendered = new CachedResponse(wrapper.getContentType(), wrapper.getContentAsByteArray());
+		cache.put(key, rendered, generation);
+		return rendered;
+	}
+
+	private CachedResponse await(CompletableFuture<CachedResponse> pending) throws ServletException {
+		try {
+			return pending.get(RENDER_WAIT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServletException("Interrupted waiting for config render", e);
+		} catch (ExecutionException | TimeoutException e) {
+			return null;
+		}
+	}
+
+	private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setHeader(HttpHeaders.ETAG, cached.getEtag());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+		if (cached.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			cache.recordNotModified();
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType(cached.getContentType());
+		response.setContentLength(cached.getBody().length);
+		response.getOutputStream().write(cached.getBody());
+	}
+
+	private static String key(HttpServletRequest request) {
+		String query = request.getQueryString();
+		return request.getRequestURI() + (query == null ? "" : "?" + query) + "|" + request.getHeader(HttpHeaders.ACCEPT);
+	}
+}
@@ -0,0 +1,120 @@
+package com.amolina.configserver.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigResponseCacheFilterTests {
+
+	private static final String BODY = "{\"name\":\"order-service\",\"propertySources\":[]}";
+
+	private final ConfigResponseCache cache = new ConfigResponseCache(16);
+	private final ConfigResponseCacheFilter filter = new ConfigResponseCacheFilter();
+	private final AtomicInteger renders = new AtomicInteger();
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private CountDownLatch renderGate = new CountDownLatch(0);
+
+	private final FilterChain configServer = (request, response) -> {
+		renders.incrementAndGet();
+		try {
+			renderGate.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		response.setContentType("application/json");
+		response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+	};
+
+	@BeforeEach
+	void setUp() {
+		filter.cache = cache;
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private static MockHttpServletRequest get(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/order-service/default");
+		request.addHeader(HttpHeaders.ACCEPT, "application/json");
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return request;
+	}
+
+	private MockHttpServletResponse fetch(String ifNoneMatch) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(get(ifNoneMatch), response, configServer);
+		return response;
+	}
+
+	@Test
+	void revalidationWithTheEtagIsAnsweredWithNotModified() throws Exception {
+		MockHttpServletResponse first = fetch(null);
+		assertEquals(200, first.getStatus());
+		assertEquals(BODY, first.getContentAsString());
+		String etag = first.getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag);
+
+		MockHttpServletResponse revalidated = fetch(etag);
+		assertEquals(304, revalidated.getStatus());
+		assertEquals(0, revalidated.getContentAsByteArray().length);
+		assertEquals(etag, revalidated.getHeader(HttpHeaders.ETAG));
+
+		MockHttpServletResponse changed = fetch("\"something-else\"");
+		assertEquals(200, changed.getStatus());
+		assertEquals(BODY, changed.getContentAsString());
+		assertEquals(1, renders.get());
+		assertEquals(1L, cache.stats().get("notModified"));
+	}
+
+	@Test
+	void invalidationRendersAgain() throws Exception {
+		String etag = fetch(null).getHeader(HttpHeaders.ETAG);
+		cache.invalidate();
+		// Same files, same body, so the old tag still validates once re-rendered
+		assertEquals(304, fetch(etag).getStatus());
+		assertEquals(2, renders.get());
+	}
+
+	@Test
+	void concurrentMissesShareOneRender() throws Exception {
+		renderGate = new CountDownLatch(1);
+		Future<MockHttpServletResponse> first = executor.submit(() -> fetch(null));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (renders.get() == 0) {
+			assertTrue(System.nanoTime() < deadline, "render never started");
+			Thread.sleep(10);
+		}
+		Future<MockHttpServletResponse> second = executor.submit(() -> fetch(null));
+		Future<MockHttpServletResponse> third = executor.submit(() -> fetch(null));
+		Thread.sleep(100);
+		renderGate.countDown();
+
+		for (Future<MockHttpServletResponse> response : new Future[] { first, second, third }) {
+			assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatus());
+			assertEquals(BODY, response.get().getContentAsString());
+		}
+		assertEquals(1, renders.get());
+		assertEquals(1L, cache.stats().get("misses"));
+	}
+}
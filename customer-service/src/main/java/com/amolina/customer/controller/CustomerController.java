@@ -2,7 +2,10 @@ package com.amolina.customer.controller;
 
 import com.amolina.customer.model.Customer;
 import com.amolina.customer.service.CustomerService;
+import com.amolina.customer.service.VersionConflictException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,23 +20,27 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    /**
+     * All customers, or with {@code ids} only those customers, so a caller can resolve several customers in one
+     * request. Unknown ids are left out of the result.
+     */
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        List<Customer> customers = customerService.getAllCustomers();
+    public ResponseEntity<List<Customer>> getAllCustomers(@RequestParam(required = false) List<Long> ids) {
+        List<Customer> customers = ids != null ? customerService.getCustomersByIds(ids) : customerService.getAllCustomers();
         return ResponseEntity.ok(customers);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
         return customerService.getCustomerById(id)
-                .map(ResponseEntity::ok)
+                .map(customer -> ResponseEntity.ok().eTag(String.valueOf(customer.getVersion())).body(customer))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/email/{email}")
     public ResponseEntity<Customer> getCustomerByEmail(@PathVariable String email) {
         return customerService.getCustomerByEmail(email)
-                .map(ResponseEntity::ok)
+                .map(customer -> ResponseEntity.ok().eTag(String.valueOf(customer.getVersion())).body(customer))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -44,12 +51,56 @@ public class CustomerController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCustomer);
     }
 
+    /**
+     * Replaces the customer. With {@code If-Match} (the ETag of a previous read) only while it is still at that
+     * version, answering 409 otherwise; without it, or with {@code *}, whatever version is current.
+     */
     @RolesAllowed("ADMIN")
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
+    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestBody Customer customer) {
+        Long version;
         try {
-            Customer updatedCustomer = customerService.updateCustomer(id, customer);
-            return ResponseEntity.ok(updatedCustomer);
+            version = ifMatch != null ? parseVersion(ifMatch) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Customer updatedCustomer = customerService.updateCustomer(id, version, customer);
+            return ResponseEntity.ok().eTag(String.valueOf(updatedCustomer.getVersion())).body(updatedCustomer);
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Changes only the fields present in the body, provided the customer is still at the version in
+     * {@code If-Match} (the ETag of a previous read). Answers 204 with the new ETag, 409 if the customer changed
+     * in between and 428 without {@code If-Match}.
+     */
+    @RolesAllowed("ADMIN")
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchCustomer(@PathVariable Long id,
+                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody Customer changes) {
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        try {
+            Long expected = parseVersion(ifMatch);
+            if (expected == null) {
+                // The UPDATE is conditional on a version, so "any version" is no precondition for it
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            long version = customerService.patchCustomer(id, expected, changes);
+            return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -65,5 +116,23 @@ public class CustomerController {
             return ResponseEntity.notFound().build();
         }
     }
-}
 
+    /**
+     * The version in an ETag such as {@code "3"} or {@code W/"3"}, or null for {@code *} (any version).
+     *
+     * @throws NumberFormatException if it is not one of ours
+     */
+    private static Long parseVersion(String etag) {
+        String value = etag.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return Long.parseLong(value);
+    }
+}
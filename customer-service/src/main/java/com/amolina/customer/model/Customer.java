@@ -29,5 +29,12 @@ public class Customer {
 
     @Column(name = "email")
     private String email;
+
+    /**
+     * Bumped by every update; sent as the ETag and checked against {@code If-Match} by PUT and PATCH.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
 
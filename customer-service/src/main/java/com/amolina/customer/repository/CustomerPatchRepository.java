@@ -0,0 +1,17 @@
+package com.amolina.customer.repository;
+
+import java.util.Map;
+
+/**
+ * Partial updates written without reading the customer first.
+ */
+public interface CustomerPatchRepository {
+
+    /**
+     * Sets {@code changes} (attribute name to value) on customer {@code id} and bumps its version, with one
+     * UPDATE that only matches while the customer is still at {@code version}.
+     *
+     * @return 1 if the customer was updated, 0 if it does not exist or is at another version
+     */
+    int patch(Long id, long version, Map<String, Object> changes);
+}
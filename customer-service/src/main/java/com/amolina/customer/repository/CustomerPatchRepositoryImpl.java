@@ -0,0 +1,28 @@
+package com.amolina.customer.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.Map;
+
+public class CustomerPatchRepositoryImpl implements CustomerPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Only the supplied attributes appear in the statement, so no parameter is ever bound to null.
+     */
+    @Override
+    @Transactional
+    public int patch(Long id, long version, Map<String, Object> changes) {
+        StringBuilder jpql = new StringBuilder("update Customer c set c.version = c.version + 1");
+        changes.keySet().forEach(attribute -> jpql.append(", c.").append(attribute).append(" = :").append(attribute));
+        jpql.append(" where c.customerId = :id and c.version = :version");
+        Query query = entityManager.createQuery(jpql.toString());
+        changes.forEach(query::setParameter);
+        return query.setParameter("id", id).setParameter("version", version).executeUpdate();
+    }
+}
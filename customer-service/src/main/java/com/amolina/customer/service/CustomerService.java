@@ -5,7 +5,9 @@ import com.amolina.customer.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,6 +20,10 @@ public class CustomerService {
         return customerRepository.findAll();
     }
 
+    public List<Customer> getCustomersByIds(List<Long> ids) {
+        return customerRepository.findAllById(ids);
+    }
+
     public Optional<Customer> getCustomerById(Long id) {
         return customerRepository.findById(id);
     }
@@ -30,9 +36,18 @@ public class CustomerService {
         return customerRepository.save(customer);
     }
 
-    public Customer updateCustomer(Long id, Customer customerDetails) {
+    /**
+     * Replaces the fields of customer {@code id}. With a {@code version} it only does so while the customer is
+     * at that version; the version check on save catches a change between the read and the write.
+     *
+     * @throws VersionConflictException if the customer is at another version than {@code version}
+     */
+    public Customer updateCustomer(Long id, Long version, Customer customerDetails) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
+        if (version != null && !version.equals(customer.getVersion())) {
+            throw new VersionConflictException(id, version);
+        }
         
         customer.setFirstname(customerDetails.getFirstname());
         customer.setLastname(customerDetails.getLastname());
@@ -42,6 +57,40 @@ public class CustomerService {
         return customerRepository.save(customer);
     }
 
+    /**
+     * Applies the non-null fields of {@code changes} to customer {@code id} with a single conditional UPDATE,
+     * without reading the customer first.
+     *
+     * @return the customer's new version
+     * @throws VersionConflictException if the customer is no longer at {@code version}
+     */
+    public long patchCustomer(Long id, long version, Customer changes) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (changes.getFirstname() != null) {
+            fields.put("firstname", changes.getFirstname());
+        }
+        if (changes.getLastname() != null) {
+            fields.put("lastname", changes.getLastname());
+        }
+        if (changes.getPhone() != null) {
+            fields.put("phone", changes.getPhone());
+        }
+        if (changes.getEmail() != null) {
+            fields.put("email", changes.getEmail());
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        if (customerRepository.patch(id, version, fields) == 0) {
+            // Only a failed update pays for the second round trip that tells the two cases apart
+            if (!customerRepository.existsById(id)) {
+                throw new RuntimeException("Customer not found with id: " + id);
+            }
+            throw new VersionConflictException(id, version);
+        }
+        return version + 1;
+    }
+
     public void deleteCustomer(Long id) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
@@ -0,0 +1,11 @@
+package com.amolina.customer.service;
+
+/**
+ * Thrown when a conditional update finds the customer at another version than the caller read.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(Long id, long version) {
+        super("Customer " + id + " is no longer at version " + version);
+    }
+}
@@ -0,0 +1,19 @@
+-- Customer table and sample customers.
+-- Idempotent so that databases created by the former database/init.sql are baselined without changes.
+CREATE TABLE IF NOT EXISTS customer (
+    customer_id BIGSERIAL PRIMARY KEY,
+    firstname VARCHAR(100) NOT NULL,
+    lastname VARCHAR(100) NOT NULL,
+    phone VARCHAR(20),
+    email VARCHAR(100)
+);
+
+INSERT INTO customer (firstname, lastname, phone, email)
+SELECT firstname, lastname, phone, email FROM (VALUES
+    ('John', 'Doe', '555-0101', 'john.doe@email.com'),
+    ('Jane', 'Smith', '555-0102', 'jane.smith@email.com'),
+    ('Mike', 'Johnson', '555-0103', 'mike.johnson@email.com'),
+    ('Sarah', 'Williams', '555-0104', 'sarah.williams@email.com'),
+    ('David', 'Brown', '555-0105', 'david.brown@email.com')
+) AS sample (firstname, lastname, phone, email)
+WHERE NOT EXISTS (SELECT 1 FROM customer);
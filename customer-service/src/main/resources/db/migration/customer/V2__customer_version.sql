@@ -0,0 +1,4 @@
+-- Version counter for optimistic locking. Every update bumps it, and an update made against an older
+-- version matches no row, so concurrent edits fail with 409 instead of overwriting each other.
+
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+#!/bin/bash
+# Runs once when the primary's data directory is initialized (docker-compose.replicas.yml):
+# lets the streaming replica connect with the same password authentication as applications.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,21 @@
+package com.amolina.eurekaserver.startup;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ends the class data sharing training run of the fast-start image build once the application is ready.
+ * The JVM has then loaded every class a real startup needs, and the Dockerfile dumps that list into the archive.
+ */
+@Component
+@Profile("cds-training")
+public class TrainingRunExit implements ApplicationListener<ApplicationReadyEvent> {
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		System.exit(SpringApplication.exit(event.getApplicationContext()));
+	}
+}
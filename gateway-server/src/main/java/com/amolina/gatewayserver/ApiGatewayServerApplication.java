@@ -1,11 +1,20 @@
 package com.amolina.gatewayserver;
 
+import com.amolina.common.discovery.ReactiveRegistrySnapshot;
+import com.amolina.common.discovery.RegistrySnapshot;
+import com.amolina.common.startup.TrainingRunExit;
+import com.amolina.common.tracing.SpanEndpoint;
+import com.amolina.common.tracing.SpanRecorder;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
 @EnableEurekaClient
+// The servlet filters in common do not apply to the reactive gateway, so only these are picked
+@Import({ SpanRecorder.class, SpanEndpoint.class, RegistrySnapshot.class, ReactiveRegistrySnapshot.class,
+		TrainingRunExit.class })
 public class ApiGatewayServerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,328 @@
+package com.amolina.gatewayserver.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Decides which requests the gateway forwards when the services behind it are saturated.
+ * <p>
+ * At most {@code gateway.admission.max-concurrent} requests are forwarded at once. Beyond that a request waits
+ * in its tier's queue, and a finishing request hands its slot to the oldest waiter of the highest tier. Two
+ * signals shed a tier before it queues at all: the queueing delay, i.e. how long the oldest waiter has been
+ * waiting, and upstream saturation, the share of recent upstream responses that were 429, 502, 503, 504 or
+ * errors. Each tier has its own thresholds, so as either signal rises {@link Priority#BATCH} is shed first,
+ * then {@link Priority#NORMAL}, while {@link Priority#CRITICAL} requests are only turned away when their
+ * queue is full or their wait runs out.
+ */
+@Component
+public class AdmissionController {
+
+	private final AdmissionProperties properties;
+	private final Object lock = new Object();
+	private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+	private final Map<Priority, Counter> admitted = new EnumMap<>(Priority.class);
+	private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+	private final Map<Priority, Timer> queueDelays = new EnumMap<>(Priority.class);
+	private final long[] slotSeconds;
+	private final long[] slotResponses;
+	private final long[] slotSaturated;
+	private int inFlight;
+
+	public AdmissionController(AdmissionProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		int slots = (int) Math.max(1, properties.getSaturationWindow().getSeconds());
+		this.slotSeconds = new long[slots];
+		this.slotResponses = new long[slots];
+		this.slotSaturated = new long[slots];
+		for (Priority priority : Priority.values()) {
+			String tier = priority.name().toLowerCase(Locale.ROOT);
+			ArrayDeque<Waiter> queue = new ArrayDeque<>();
+			queues.put(priority, queue);
+			admitted.put(priority, Counter.builder("gateway.admission.requests")
+					.description("Requests admitted or shed by the gateway, per tier")
+					.tag("tier", tier).tag("outcome", "admitted")
+					.register(meterRegistry));
+			shed.put(priority, Counter.builder("gateway.admission.requests")
+					.description("Requests admitted or shed by the gateway, per tier")
+					.tag("tier", tier).tag("outcome", "shed")
+					.register(meterRegistry));
+			queueDelays.put(priority, Timer.builder("gateway.admission.queue.delay")
+					.description("Time admitted requests waited for a slot")
+					.tag("tier", tier)
+					.register(meterRegistry));
+			Gauge.builder("gateway.admission.queued", queue, this::size)
+					.description("Requests waiting for a slot")
+					.tag("tier", tier)
+					.register(meterRegistry);
+		}
+		Gauge.builder("gateway.admission.in-flight", this, AdmissionController::inFlight)
+				.description("Requests forwarded and not yet answered")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Emits a permit once the request may be forwarded, to be released when it finishes, or
+	 * {@link Permit#SHED} when it is turned away. The request waits at most its tier's {@code max-wait} and
+	 * never past {@code deadline} (epoch millis, or null).
+	 */
+	public Mono<Permit> admit(Priority priority, Long deadline) {
+		AdmissionProperties.Tier tier = properties.tier(priority);
+		long waitMillis = tier.getMaxWait().toMillis();
+		if (deadline != null) {
+			waitMillis = Math.min(waitMillis, deadline - System.currentTimeMillis());
+		}
+		long maxWaitMillis = waitMillis;
+		return Mono.create(sink -> {
+			Waiter waiter = null;
+			boolean admit = false;
+			synchronized (lock) {
+				if (!shouldShed(tier)) {
+					if (inFlight < properties.getMaxConcurrent()) {
+						inFlight++;
+						admit = true;
+					} else if (maxWaitMillis > 0 && queues.get(priority).size() < properties.getMaxQueue()) {
+						waiter = new Waiter(priority, sink);
+						queues.get(priority).addLast(waiter);
+					}
+				}
+			}
+			if (admit) {
+				admitted.get(priority).increment();
+				queueDelays.get(priority).record(0, TimeUnit.NANOSECONDS);
+				sink.success(new Permit(this));
+			} else if (waiter == null) {
+				shed.get(priority).increment();
+				sink.success(Permit.SHED);
+			} else {
+				Waiter queued = waiter;
+				queued.timeout = Schedulers.parallel().schedule(() -> expire(queued), maxWaitMillis, TimeUnit.MILLISECONDS);
+				sink.onCancel(() -> cancel(queued));
+			}
+		});
+	}
+
+	/**
+	 * Frees the slot of a finished request, handing it to the next waiter if there is one, and records whether
+	 * the upstream response showed saturation.
+	 */
+	private void release(boolean saturated) {
+		Waiter next;
+		synchronized (lock) {
+			recordResponse(saturated);
+			next = pollHighest();
+			if (next == null) {
+				inFlight--;
+			}
+		}
+		if (next != null) {
+			next.grant();
+		}
+	}
+
+	public Duration retryAfter(Priority priority) {
+		return properties.tier(priority).getRetryAfter();
+	}
+
+	/**
+	 * Current state for the {@code admission} actuator endpoint.
+	 */
+	public Map<String, Object> snapshot() {
+		Map<String, Object> snapshot = new LinkedHashMap<>();
+		Map<String, Object> tiers = new LinkedHashMap<>();
+		synchronized (lock) {
+			snapshot.put("inFlight", inFlight);
+			snapshot.put("maxConcurrent", properties.getMaxConcurrent());
+			snapshot.put("queueDelayMillis", TimeUnit.NANOSECONDS.toMillis(queueDelayNanos()));
+			snapshot.put("saturation", saturation());
+			for (Priority priority : Priority.values()) {
+				Map<String, Object> tier = new LinkedHashMap<>();
+				tier.put("admitted", (long) admitted.get(priority).count());
+				tier.put("shed", (long) shed.get(priority).count());
+				tier.put("queued", queues.get(priority).size());
+				tier.put("shedding", shouldShed(properties.tier(priority)));
+				tiers.put(priority.name().toLowerCase(Locale.ROOT), tier);
+			}
+		}
+		snapshot.put("tiers", tiers);
+		return snapshot;
+	}
+
+	private boolean shouldShed(AdmissionProperties.Tier tier) {
+		if (tier.getShedQueueDelay() != null && queueDelayNanos() > tier.getShedQueueDelay().toNanos()) {
+			return true;
+		}
+		return tier.getShedSaturation() != null && saturation() > tier.getShedSaturation();
+	}
+
+	/**
+	 * How long the oldest waiting request has been waiting; zero when none is.
+	 */
+	private long queueDelayNanos() {
+		long now = System.nanoTime();
+		long delay = 0;
+		for (ArrayDeque<Waiter> queue : queues.values()) {
+			Waiter oldest = queue.peekFirst();
+			if (oldest != null) {
+				delay = Math.max(delay, now - oldest.enqueuedNanos);
+			}
+		}
+		return delay;
+	}
+
+	/**
+	 * Share of upstream responses in the window that showed saturation, or 0 below the minimum sample.
+	 */
+	private double saturation() {
+		long second = currentSecond();
+		long responses = 0;
+		long saturated = 0;
+		for (int slot = 0; slot < slotSeconds.length; slot++) {
+			if (slotSeconds[slot] > second - slotSeconds.length) {
+				responses += slotResponses[slot];
+				saturated += slotSaturated[slot];
+			}
+		}
+		return responses < properties.getSaturationMinResponses() ? 0 : (double) saturated / responses;
+	}
+
+	private void recordResponse(boolean saturated) {
+		long second = currentSecond();
+		int slot = slot(second, slotSeconds.length);
+		if (slotSeconds[slot] != second) {
+			slotSeconds[slot] = second;
+			slotResponses[slot] = 0;
+			slotSaturated[slot] = 0;
+		}
+		slotResponses[slot]++;
+		if (saturated) {
+			slotSaturated[slot]++;
+		}
+	}
+
+	private Waiter pollHighest() {
+		for (Priority priority : Priority.values()) {
+			Waiter waiter = queues.get(priority).pollFirst();
+			if (waiter != null) {
+				waiter.granted = true;
+				return waiter;
+			}
+		}
+		return null;
+	}
+
+	private void expire(Waiter waiter) {
+		boolean removed;
+		synchronized (lock) {
+			removed = queues.get(waiter.priority).remove(waiter);
+		}
+		if (removed) {
+			shed.get(waiter.priority).increment();
+			waiter.sink.success(Permit.SHED);
+		}
+	}
+
+	/**
+	 * The client went away while waiting. If the slot was handed over at the same moment, it is given back.
+	 */
+	private void cancel(Waiter waiter) {
+		boolean granted;
+		synchronized (lock) {
+			queues.get(waiter.priority).remove(waiter);
+			granted = waiter.granted;
+		}
+		waiter.timeout.dispose();
+		if (granted) {
+			waiter.permit.release(false);
+		}
+	}
+
+	private int size(ArrayDeque<Waiter> queue) {
+		synchronized (lock) {
+			return queue.size();
+		}
+	}
+
+	private int inFlight() {
+		synchronized (lock) {
+			return inFlight;
+		}
+	}
+
+	private static long currentSecond() {
+		return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+	}
+
+	/**
+	 * The window slot of {@code second}. {@link System#nanoTime()} may be negative, so {@code %} could be too.
+	 */
+	static int slot(long second, int slots) {
+		return Math.floorMod(second, slots);
+	}
+
+	private final class Waiter {
+
+		private final Priority priority;
+		private final MonoSink<Permit> sink;
+		private final long enqueuedNanos = System.nanoTime();
+		private final Permit permit = new Permit(AdmissionController.this);
+		private volatile Disposable timeout;
+		/** Set under the lock when the waiter is handed a slot. */
+		private boolean granted;
+
+		Waiter(Priority priority, MonoSink<Permit> sink) {
+			this.priority = priority;
+			this.sink = sink;
+		}
+
+		void grant() {
+			if (timeout != null) {
+				timeout.dispose();
+			}
+			admitted.get(priority).increment();
+			queueDelays.get(priority).record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+			sink.success(permit);
+		}
+	}
+
+	/**
+	 * A forwarding slot, or {@link #SHED}. Releasing a slot more than once has no further effect.
+	 */
+	public static final class Permit {
+
+		public static final Permit SHED = new Permit(null);
+
+		private final AdmissionController controller;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Permit(AdmissionController controller) {
+			this.controller = controller;
+		}
+
+		public boolean isAdmitted() {
+			return controller != null;
+		}
+
+		public void release(boolean saturated) {
+			if (controller != null && released.compareAndSet(false, true)) {
+				controller.release(saturated);
+			}
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.amolina.gatewayserver.admission;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes admission control at {@code /actuator/admission}: slots in use, queueing delay, upstream
+ * saturation and, per tier, requests admitted, shed and waiting.
+ */
+@Component
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+
+	private final AdmissionController admissionController;
+
+	public AdmissionEndpoint(AdmissionController admissionController) {
+		this.admissionController = admissionController;
+	}
+
+	@ReadOperation
+	public Map<String, Object> admission() {
+		return admissionController.snapshot();
+	}
+}
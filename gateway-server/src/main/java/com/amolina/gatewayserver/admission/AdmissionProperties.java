@@ -0,0 +1,220 @@
+package com.amolina.gatewayserver.admission;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "gateway.admission")
+public class AdmissionProperties {
+
+	private boolean enabled = true;
+	/** Requests forwarded at once; the rest wait in their tier's queue. */
+	private int maxConcurrent = 256;
+	/** Requests waiting per tier before new ones are shed. */
+	private int maxQueue = 1024;
+	/** Span over which the share of saturated upstream responses is measured. */
+	private Duration saturationWindow = Duration.ofSeconds(10);
+	/** Upstream responses needed in the window before saturation sheds anything. */
+	private int saturationMinResponses = 20;
+	/** Long-lived requests, such as the order stream, that never take a slot. */
+	private List<String> exemptPaths = new ArrayList<>();
+	/** Checked in order; the first match sets the tier, otherwise it is {@code normal}. */
+	private List<Rule> rules = new ArrayList<>();
+	private Tier critical = new Tier(Duration.ofSeconds(2), null, null, Duration.ofSeconds(1));
+	private Tier normal = new Tier(Duration.ofMillis(500), Duration.ofMillis(200), 0.5, Duration.ofSeconds(2));
+	private Tier batch = new Tier(Duration.ofMillis(100), Duration.ofMillis(20), 0.1, Duration.ofSeconds(10));
+
+	public Tier tier(Priority priority) {
+		switch (priority) {
+			case CRITICAL:
+				return critical;
+			case BATCH:
+				return batch;
+			default:
+				return normal;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public void setMaxConcurrent(int maxConcurrent) {
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	public int getMaxQueue() {
+		return maxQueue;
+	}
+
+	public void setMaxQueue(int maxQueue) {
+		this.maxQueue = maxQueue;
+	}
+
+	public Duration getSaturationWindow() {
+		return saturationWindow;
+	}
+
+	public void setSaturationWindow(Duration saturationWindow) {
+		this.saturationWindow = saturationWindow;
+	}
+
+	public int getSaturationMinResponses() {
+		return saturationMinResponses;
+	}
+
+	public void setSaturationMinResponses(int saturationMinResponses) {
+		this.saturationMinResponses = saturationMinResponses;
+	}
+
+	public List<String> getExemptPaths() {
+		return exemptPaths;
+	}
+
+	public void setExemptPaths(List<String> exemptPaths) {
+		this.exemptPaths = exemptPaths;
+	}
+
+	public List<Rule> getRules() {
+		return rules;
+	}
+
+	public void setRules(List<Rule> rules) {
+		this.rules = rules;
+	}
+
+	public Tier getCritical() {
+		return critical;
+	}
+
+	public void setCritical(Tier critical) {
+		this.critical = critical;
+	}
+
+	public Tier getNormal() {
+		return normal;
+	}
+
+	public void setNormal(Tier normal) {
+		this.normal = normal;
+	}
+
+	public Tier getBatch() {
+		return batch;
+	}
+
+	public void setBatch(Tier batch) {
+		this.batch = batch;
+	}
+
+	/**
+	 * Matches requests by path pattern, method and role; an empty list matches anything.
+	 */
+	public static class Rule {
+
+		private List<String> paths = new ArrayList<>();
+		private List<String> methods = new ArrayList<>();
+		private List<String> roles = new ArrayList<>();
+		private Priority priority = Priority.NORMAL;
+
+		public List<String> getPaths() {
+			return paths;
+		}
+
+		public void setPaths(List<String> paths) {
+			this.paths = paths;
+		}
+
+		public List<String> getMethods() {
+			return methods;
+		}
+
+		public void setMethods(List<String> methods) {
+			this.methods = methods;
+		}
+
+		public List<String> getRoles() {
+			return roles;
+		}
+
+		public void setRoles(List<String> roles) {
+			this.roles = roles;
+		}
+
+		public Priority getPriority() {
+			return priority;
+		}
+
+		public void setPriority(Priority priority) {
+			this.priority = priority;
+		}
+	}
+
+	/**
+	 * How long a tier's requests may wait for a slot, when the tier is shed without waiting, and the
+	 * {@code Retry-After} it is sent. A null threshold never sheds.
+	 */
+	public static class Tier {
+
+		private Duration maxWait;
+		/** Shed while the oldest waiting request has waited longer than this. */
+		private Duration shedQueueDelay;
+		/** Shed while more than this share of upstream responses show saturation (429, 502, 503, 504, errors). */
+		private Double shedSaturation;
+		private Duration retryAfter;
+
+		public Tier() {
+		}
+
+		Tier(Duration maxWait, Duration shedQueueDelay, Double shedSaturation, Duration retryAfter) {
+			this.maxWait = maxWait;
+			this.shedQueueDelay = shedQueueDelay;
+			this.shedSaturation = shedSaturation;
+			this.retryAfter = retryAfter;
+		}
+
+		public Duration getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		public Duration getShedQueueDelay() {
+			return shedQueueDelay;
+		}
+
+		public void setShedQueueDelay(Duration shedQueueDelay) {
+			this.shedQueueDelay = shedQueueDelay;
+		}
+
+		public Double getShedSaturation() {
+			return shedSaturation;
+		}
+
+		public void setShedSaturation(Double shedSaturation) {
+			this.shedSaturation = shedSaturation;
+		}
+
+		public Duration getRetryAfter() {
+			return retryAfter;
+		}
+
+		public void setRetryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.amolina.gatewayserver.admission;
+
+/**
+ * Admission tiers, most important first. Under overload {@link #BATCH} is shed first and {@link #CRITICAL} last.
+ */
+public enum Priority {
+
+	/** Order placement: the requests the business depends on. */
+	CRITICAL,
+	/** Interactive reads, such as a kiosk browsing the menu. */
+	NORMAL,
+	/** Back-office reports and full listings that can be retried later. */
+	BATCH
+}
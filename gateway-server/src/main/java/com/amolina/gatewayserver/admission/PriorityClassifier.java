@@ -0,0 +1,134 @@
+package com.amolina.gatewayserver.admission;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.binary.Base64;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.amolina.gatewayserver.filters.FilterUtils;
+
+/**
+ * Assigns each request a {@link Priority} from the first matching {@code gateway.admission.rules} entry.
+ * <p>
+ * Roles are read from the bearer token's {@code realm_access} and {@code resource_access} claims without
+ * checking its signature, which is left to the services. A forged token can therefore claim any role, so
+ * rules should only use roles to lower a request's tier, never to raise it.
+ */
+@Component
+public class PriorityClassifier {
+
+	private final List<CompiledRule> rules;
+	private final List<PathPattern> exemptPaths;
+
+	public PriorityClassifier(AdmissionProperties properties) {
+		this.rules = properties.getRules().stream().map(CompiledRule::new).collect(Collectors.toList());
+		this.exemptPaths = properties.getExemptPaths().stream()
+				.map(PathPatternParser.defaultInstance::parse)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Whether a request for {@code path}, as the client sent it, bypasses admission control altogether.
+	 */
+	public boolean isExempt(String path) {
+		PathContainer container = PathContainer.parsePath(path);
+		return exemptPaths.stream().anyMatch(pattern -> pattern.matches(container));
+	}
+
+	/**
+	 * The tier of a request for {@code path}, as the client sent it, before any route rewrote it.
+	 */
+	public Priority classify(String path, String method, HttpHeaders headers) {
+		PathContainer container = PathContainer.parsePath(path);
+		Set<String> roles = null;
+		for (CompiledRule rule : rules) {
+			if (!rule.matchesPath(container) || !rule.matchesMethod(method)) {
+				continue;
+			}
+			if (!rule.roles.isEmpty()) {
+				if (roles == null) {
+					roles = roles(headers.getFirst(FilterUtils.AUTH_TOKEN));
+				}
+				if (rule.roles.stream().noneMatch(roles::contains)) {
+					continue;
+				}
+			}
+			return rule.priority;
+		}
+		return Priority.NORMAL;
+	}
+
+	static Set<String> roles(String authorization) {
+		Set<String> roles = new HashSet<>();
+		if (authorization == null || !authorization.startsWith("Bearer ")) {
+			return roles;
+		}
+		String[] parts = authorization.substring("Bearer ".length()).split("\\.");
+		if (parts.length < 2) {
+			return roles;
+		}
+		try {
+			JSONObject claims = new JSONObject(new String(new Base64(true).decode(parts[1]), StandardCharsets.UTF_8));
+			JSONObject realmAccess = claims.optJSONObject("realm_access");
+			if (realmAccess != null) {
+				addRoles(roles, realmAccess.optJSONArray("roles"));
+			}
+			JSONObject resourceAccess = claims.optJSONObject("resource_access");
+			if (resourceAccess != null) {
+				for (String client : resourceAccess.keySet()) {
+					JSONObject access = resourceAccess.optJSONObject(client);
+					if (access != null) {
+						addRoles(roles, access.optJSONArray("roles"));
+					}
+				}
+			}
+		} catch (JSONException e) {
+			// Not a JWT; the request is classified without roles
+		}
+		return roles;
+	}
+
+	private static void addRoles(Set<String> roles, JSONArray names) {
+		if (names != null) {
+			for (int i = 0; i < names.length(); i++) {
+				roles.add(names.optString(i));
+			}
+		}
+	}
+
+	private static final class CompiledRule {
+
+		private final List<PathPattern> paths = new ArrayList<>();
+		private final Set<String> methods = new HashSet<>();
+		private final Set<String> roles;
+		private final Priority priority;
+
+		CompiledRule(AdmissionProperties.Rule rule) {
+			rule.getPaths().forEach(path -> paths.add(PathPatternParser.defaultInstance.parse(path)));
+			rule.getMethods().forEach(method -> methods.add(method.toUpperCase(Locale.ROOT)));
+			this.roles = new HashSet<>(rule.getRoles());
+			this.priority = rule.getPriority();
+		}
+
+		boolean matchesPath(PathContainer path) {
+			return paths.isEmpty() || paths.stream().anyMatch(pattern -> pattern.matches(path));
+		}
+
+		boolean matchesMethod(String method) {
+			return methods.isEmpty() || methods.contains(method);
+		}
+	}
+}
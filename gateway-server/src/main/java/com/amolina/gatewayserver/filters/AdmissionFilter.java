@@ -0,0 +1,91 @@
+package com.amolina.gatewayserver.filters;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.amolina.gatewayserver.admission.AdmissionController;
+import com.amolina.gatewayserver.admission.AdmissionProperties;
+import com.amolina.gatewayserver.admission.Priority;
+import com.amolina.gatewayserver.admission.PriorityClassifier;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Holds every routed request until {@link AdmissionController} gives it a slot, and answers the ones it sheds
+ * with {@code 503} and a {@code Retry-After} for their tier. Runs after {@link DeadlineFilter}, so time spent
+ * waiting counts against the request's deadline.
+ */
+@Order(3)
+@Component
+public class AdmissionFilter implements GlobalFilter {
+
+	private static final Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+
+	@Autowired
+	FilterUtils filterUtils;
+
+	@Autowired
+	AdmissionProperties properties;
+
+	@Autowired
+	PriorityClassifier classifier;
+
+	@Autowired
+	AdmissionController admissionController;
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		String path = originalPath(exchange);
+		if (!properties.isEnabled() || classifier.isExempt(path)) {
+			return chain.filter(exchange);
+		}
+		Priority priority = classifier.classify(path, request.getMethodValue(), request.getHeaders());
+		Long deadline = filterUtils.getRequestDeadline(request.getHeaders());
+		return admissionController.admit(priority, deadline).flatMap(permit -> {
+			if (!permit.isAdmitted()) {
+				return shed(exchange, priority, path);
+			}
+			return chain.filter(exchange).doFinally(signal -> permit.release(signal == SignalType.ON_ERROR
+					|| isSaturated(exchange.getResponse().getRawStatusCode())));
+		});
+	}
+
+	private Mono<Void> shed(ServerWebExchange exchange, Priority priority, String path) {
+		logger.debug("Shedding {} {} ({} tier).", exchange.getRequest().getMethodValue(), path, priority);
+		Duration retryAfter = admissionController.retryAfter(priority);
+		exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+		exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+				Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+		return exchange.getResponse().setComplete();
+	}
+
+	/**
+	 * The path the client asked for; route filters such as {@code RewritePath} may already have changed it.
+	 */
+	private static String originalPath(ServerWebExchange exchange) {
+		Set<URI> originals = exchange.getAttributeOrDefault(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR,
+				Collections.emptySet());
+		return originals.isEmpty() ? exchange.getRequest().getURI().getRawPath() : originals.iterator().next().getRawPath();
+	}
+
+	private static boolean isSaturated(Integer status) {
+		return status != null && (status == 429 || status == 502 || status == 503 || status == 504);
+	}
+}
@@ -0,0 +1,50 @@
+package com.amolina.gatewayserver.filters;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stamps every routed request with an absolute deadline (epoch millis) so downstream services
+ * can size their own timeouts from the time the caller is still willing to wait.
+ * A deadline sent by the client is kept when it is tighter than the gateway's own budget.
+ */
+@Order(2)
+@Component
+public class DeadlineFilter implements GlobalFilter {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+	@Autowired
+	FilterUtils filterUtils;
+
+	@Value("${gateway.request-timeout:10s}")
+	Duration requestTimeout;
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		long now = System.currentTimeMillis();
+		long deadline = now + requestTimeout.toMillis();
+		Long requested = filterUtils.getRequestDeadline(exchange.getRequest().getHeaders());
+		if (requested != null && requested < deadline) {
+			deadline = requested;
+		}
+		if (deadline <= now) {
+			logger.debug("Rejecting {}: deadline already expired.", exchange.getRequest().getURI());
+			exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+			return exchange.getResponse().setComplete();
+		}
+		return chain.filter(filterUtils.setRequestHeader(exchange, FilterUtils.REQUEST_DEADLINE, Long.toString(deadline)));
+	}
+}
@@ -12,6 +12,7 @@ public class FilterUtils {
 
 	public static final String CORRELATION_ID = "tmx-correlation-id";
 	public static final String AUTH_TOKEN     = "Authorization";
+	public static final String REQUEST_DEADLINE = "tmx-request-deadline";
 	public static final String PRE_FILTER_TYPE = "pre";
 	public static final String POST_FILTER_TYPE = "post";
 	public static final String ROUTE_FILTER_TYPE = "route";
@@ -37,6 +38,18 @@ public class FilterUtils {
 		}
 	}
 
+	public Long getRequestDeadline(HttpHeaders requestHeaders){
+		String header = requestHeaders.getFirst(REQUEST_DEADLINE);
+		if (header == null) {
+			return null;
+		}
+		try {
+			return Long.parseLong(header.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
 	public ServerWebExchange setRequestHeader(ServerWebExchange exchange, String name, String value) {
 		return exchange.mutate().request(
 							exchange.getRequest().mutate()
@@ -12,6 +12,9 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.amolina.common.tracing.SpanRecorder;
+import com.amolina.gatewayserver.tracing.CorrelationIdGenerator;
+
 import reactor.core.publisher.Mono;
 
 @Order(1)
@@ -23,23 +26,29 @@ public class TrackingFilter implements GlobalFilter {
 	@Autowired
 	FilterUtils filterUtils;
 
+	@Autowired
+	SpanRecorder spanRecorder;
+
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		long startEpochMillis = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 		HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+		String correlationId;
 		if (isCorrelationIdPresent(requestHeaders)) {
-			logger.debug("tmx-correlation-id found in tracking filter: {}. ", 
-					filterUtils.getCorrelationId(requestHeaders));
+			correlationId = filterUtils.getCorrelationId(requestHeaders);
+			logger.debug("tmx-correlation-id found in tracking filter: {}. ", correlationId);
 		} else {
-			String correlationID = generateCorrelationId();
-			exchange = filterUtils.setCorrelationId(exchange, correlationID);
-			logger.debug("tmx-correlation-id generated in tracking filter: {}.", correlationID);
+			correlationId = generateCorrelationId();
+			exchange = filterUtils.setCorrelationId(exchange, correlationId);
+			logger.debug("tmx-correlation-id generated in tracking filter: {}.", correlationId);
 		}
 		
-		System.out.println("The authentication name from the token is : " + getUsername(requestHeaders));
-		
-		
-		
-		return chain.filter(exchange);
+		logger.debug("The authentication name from the token is : {}", getUsername(requestHeaders));
+
+		String spanName = exchange.getRequest().getMethodValue() + " " + exchange.getRequest().getPath().value();
+		return chain.filter(exchange)
+				.doFinally(signal -> spanRecorder.record(correlationId, spanName, startEpochMillis, startNanos));
 	}
 
 
@@ -52,7 +61,7 @@ public class TrackingFilter implements GlobalFilter {
 	}
 
 	private String generateCorrelationId() {
-		return java.util.UUID.randomUUID().toString();
+		return CorrelationIdGenerator.generate();
 	}
 
 	private String getUsername(HttpHeaders requestHeaders){
@@ -0,0 +1,23 @@
+package com.amolina.gatewayserver.tracing;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates correlation ids for requests entering the gateway.
+ * Correlation ids only need to be unique, not unpredictable, so they are drawn from
+ * {@link ThreadLocalRandom} instead of the {@code SecureRandom} behind {@link UUID#randomUUID()}.
+ * The result is still formatted as a version 4 UUID so downstream log parsing is unchanged.
+ */
+public final class CorrelationIdGenerator {
+
+	private CorrelationIdGenerator() {
+	}
+
+	public static String generate() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long mostSigBits = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+		long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+		return new UUID(mostSigBits, leastSigBits).toString();
+	}
+}
@@ -0,0 +1,155 @@
+package com.amolina.gatewayserver.admission;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.BaseSubscriber;
+
+import com.amolina.gatewayserver.admission.AdmissionController.Permit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private static AdmissionProperties properties(int maxConcurrent) {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setMaxConcurrent(maxConcurrent);
+		properties.setSaturationMinResponses(1);
+		// No queueing-delay shedding unless a test sets it, so waiters stay queued
+		properties.setCritical(new AdmissionProperties.Tier(Duration.ofSeconds(10), null, null, Duration.ofSeconds(1)));
+		properties.setNormal(new AdmissionProperties.Tier(Duration.ofSeconds(10), null, 0.5, Duration.ofSeconds(2)));
+		properties.setBatch(new AdmissionProperties.Tier(Duration.ofSeconds(10), null, 0.1, Duration.ofSeconds(10)));
+		return properties;
+	}
+
+	private static Permit admitted(AdmissionController controller, Priority priority) throws Exception {
+		Permit permit = controller.admit(priority, null).toFuture().get(1, TimeUnit.SECONDS);
+		assertTrue(permit.isAdmitted(), priority + " should be admitted");
+		return permit;
+	}
+
+	private static Map<?, ?> tier(AdmissionController controller, String tier) {
+		return (Map<?, ?>) ((Map<?, ?>) controller.snapshot().get("tiers")).get(tier);
+	}
+
+	@Test
+	void queuesPastMaxConcurrentAndHandsSlotsToTheHighestTierFirst() throws Exception {
+		AdmissionController controller = new AdmissionController(properties(1), meterRegistry);
+		Permit holder = admitted(controller, Priority.NORMAL);
+		CompletableFuture<Permit> batch = controller.admit(Priority.BATCH, null).toFuture();
+		CompletableFuture<Permit> normal = controller.admit(Priority.NORMAL, null).toFuture();
+		CompletableFuture<Permit> critical = controller.admit(Priority.CRITICAL, null).toFuture();
+		assertFalse(batch.isDone() || normal.isDone() || critical.isDone());
+
+		holder.release(false);
+		assertTrue(critical.get(1, TimeUnit.SECONDS).isAdmitted());
+		assertFalse(normal.isDone() || batch.isDone());
+		critical.get().release(false);
+		assertTrue(normal.get(1, TimeUnit.SECONDS).isAdmitted());
+		assertFalse(batch.isDone());
+		normal.get().release(false);
+		assertTrue(batch.get(1, TimeUnit.SECONDS).isAdmitted());
+		batch.get().release(false);
+		batch.get().release(false);
+		assertEquals(0, controller.snapshot().get("inFlight"));
+	}
+
+	@Test
+	void shedsBatchThenNormalAsSaturationRises() throws Exception {
+		AdmissionController controller = new AdmissionController(properties(10), meterRegistry);
+		for (int i = 0; i < 10; i++) {
+			admitted(controller, Priority.CRITICAL).release(i < 3);
+		}
+		assertSame(Permit.SHED, controller.admit(Priority.BATCH, null).block());
+		admitted(controller, Priority.NORMAL).release(false);
+
+		for (int i = 0; i < 10; i++) {
+			admitted(controller, Priority.CRITICAL).release(true);
+		}
+		assertSame(Permit.SHED, controller.admit(Priority.NORMAL, null).block());
+		admitted(controller, Priority.CRITICAL).release(false);
+		assertEquals(1L, tier(controller, "batch").get("shed"));
+		assertEquals(1L, tier(controller, "normal").get("shed"));
+		assertEquals(0L, tier(controller, "critical").get("shed"));
+	}
+
+	@Test
+	void shedsTiersWhoseQueueingDelayIsExceeded() throws Exception {
+		AdmissionProperties properties = properties(1);
+		properties.getBatch().setShedQueueDelay(Duration.ofMillis(20));
+		properties.getNormal().setShedQueueDelay(Duration.ofSeconds(5));
+		AdmissionController controller = new AdmissionController(properties, meterRegistry);
+		Permit holder = admitted(controller, Priority.CRITICAL);
+		CompletableFuture<Permit> waiting = controller.admit(Priority.CRITICAL, null).toFuture();
+		Thread.sleep(50);
+
+		assertSame(Permit.SHED, controller.admit(Priority.BATCH, null).block());
+		CompletableFuture<Permit> normal = controller.admit(Priority.NORMAL, null).toFuture();
+		assertFalse(normal.isDone());
+		holder.release(false);
+		waiting.get(1, TimeUnit.SECONDS).release(false);
+		assertTrue(normal.get(1, TimeUnit.SECONDS).isAdmitted());
+	}
+
+	@Test
+	void waiterIsShedWhenItsWaitRunsOut() throws Exception {
+		AdmissionController controller = new AdmissionController(properties(1), meterRegistry);
+		admitted(controller, Priority.CRITICAL);
+		long deadline = System.currentTimeMillis() + 50;
+
+		assertSame(Permit.SHED, controller.admit(Priority.NORMAL, deadline).toFuture().get(1, TimeUnit.SECONDS));
+		assertEquals(0, tier(controller, "normal").get("queued"));
+		assertEquals(1L, tier(controller, "normal").get("shed"));
+		assertSame(Permit.SHED, controller.admit(Priority.NORMAL, System.currentTimeMillis() - 1).block());
+	}
+
+	@Test
+	void cancelledWaiterLeavesTheQueue() throws Exception {
+		AdmissionController controller = new AdmissionController(properties(1), meterRegistry);
+		Permit holder = admitted(controller, Priority.CRITICAL);
+		controller.admit(Priority.NORMAL, null).subscribe().dispose();
+		assertEquals(0, tier(controller, "normal").get("queued"));
+
+		holder.release(false);
+		assertEquals(0, controller.snapshot().get("inFlight"));
+	}
+
+	@Test
+	void slotGrantedToAWaiterThatCancelsIsGivenBack() throws Exception {
+		AdmissionController controller = new AdmissionController(properties(1), meterRegistry);
+		Permit holder = admitted(controller, Priority.CRITICAL);
+		// Requests nothing, so the granted permit is held by the sink when the waiter cancels
+		BaseSubscriber<Permit> waiter = new BaseSubscriber<Permit>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+			}
+		};
+		controller.admit(Priority.NORMAL, null).subscribe(waiter);
+
+		holder.release(false);
+		assertEquals(1, controller.snapshot().get("inFlight"));
+		waiter.cancel();
+		assertEquals(0, controller.snapshot().get("inFlight"));
+		admitted(controller, Priority.BATCH);
+	}
+
+	@Test
+	void slotIsNeverNegative() {
+		assertEquals(9, AdmissionController.slot(-1, 10));
+		assertEquals(0, AdmissionController.slot(-10, 10));
+		assertEquals(7, AdmissionController.slot(-13, 10));
+		assertEquals(3, AdmissionController.slot(13, 10));
+	}
+}
@@ -0,0 +1,83 @@
+package com.amolina.gatewayserver.admission;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import com.amolina.gatewayserver.filters.FilterUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityClassifierTests {
+
+	private static AdmissionProperties.Rule rule(String paths, String methods, String roles, Priority priority) {
+		AdmissionProperties.Rule rule = new AdmissionProperties.Rule();
+		rule.setPaths(paths.isEmpty() ? List.of() : List.of(paths.split(",")));
+		rule.setMethods(methods.isEmpty() ? List.of() : List.of(methods.split(",")));
+		rule.setRoles(roles.isEmpty() ? List.of() : List.of(roles.split(",")));
+		rule.setPriority(priority);
+		return rule;
+	}
+
+	private static PriorityClassifier classifier() {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setExemptPaths(List.of("/order-service/api/orders/stream"));
+		properties.setRules(List.of(
+				rule("/order-service/api/orders", "post", "", Priority.CRITICAL),
+				rule("/order-service/api/orders/stats/**", "", "", Priority.BATCH),
+				rule("", "GET", "reporting", Priority.BATCH)));
+		return new PriorityClassifier(properties);
+	}
+
+	private static HttpHeaders bearer(String claims) {
+		String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(FilterUtils.AUTH_TOKEN, "Bearer eyJhbGciOiJSUzI1NiJ9." + payload + ".signature");
+		return headers;
+	}
+
+	@Test
+	void firstMatchingRuleSetsTheTier() {
+		PriorityClassifier classifier = classifier();
+		HttpHeaders none = new HttpHeaders();
+		assertEquals(Priority.CRITICAL, classifier.classify("/order-service/api/orders", "POST", none));
+		assertEquals(Priority.NORMAL, classifier.classify("/order-service/api/orders", "GET", none));
+		assertEquals(Priority.BATCH, classifier.classify("/order-service/api/orders/stats/items", "GET", none));
+		assertEquals(Priority.NORMAL, classifier.classify("/menu-service/api/pizzas", "GET", none));
+	}
+
+	@Test
+	void rolesComeFromTheBearerToken() {
+		PriorityClassifier classifier = classifier();
+		HttpHeaders realmRole = bearer("{\"realm_access\":{\"roles\":[\"reporting\"]}}");
+		HttpHeaders clientRole = bearer("{\"resource_access\":{\"pizza-store\":{\"roles\":[\"reporting\"]}}}");
+		HttpHeaders otherRole = bearer("{\"realm_access\":{\"roles\":[\"ADMIN\"]}}");
+
+		assertEquals(Priority.BATCH, classifier.classify("/menu-service/api/pizzas", "GET", realmRole));
+		assertEquals(Priority.BATCH, classifier.classify("/menu-service/api/pizzas", "GET", clientRole));
+		assertEquals(Priority.NORMAL, classifier.classify("/menu-service/api/pizzas", "GET", otherRole));
+		// An earlier rule wins over a role rule
+		assertEquals(Priority.CRITICAL, classifier.classify("/order-service/api/orders", "POST", realmRole));
+	}
+
+	@Test
+	void malformedTokensHaveNoRoles() {
+		assertEquals(Set.of(), PriorityClassifier.roles(null));
+		assertEquals(Set.of(), PriorityClassifier.roles("Basic dXNlcjpwYXNz"));
+		assertEquals(Set.of(), PriorityClassifier.roles("Bearer not-a-jwt"));
+		assertEquals(Set.of(), PriorityClassifier.roles("Bearer a.bm90IGpzb24.c"));
+	}
+
+	@Test
+	void exemptPathsBypassAdmission() {
+		PriorityClassifier classifier = classifier();
+		assertTrue(classifier.isExempt("/order-service/api/orders/stream"));
+		assertFalse(classifier.isExempt("/order-service/api/orders"));
+	}
+}
@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+#
+# Platform vs virtual threads for menu, customer and order services under the same open-model
+# workload. Downstream latency is injected so requests spend most of their time blocked, which is
+# where thread-per-request runs out of Tomcat workers. Needs a Java 21 JDK.
+#
+#   load-test/compare-virtual-threads.sh [key=value ...]     e.g. loadtest.rate=3000 loadtest.duration=120s
+#
+# Reports: loadtest-report-platform.json and loadtest-report-virtual.json (throughput, latency
+# percentiles, peak platform threads, heap and RSS).
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+ARGS=(loadtest.rate=2000 loadtest.menu.latency=100ms loadtest.customer.latency=100ms "$@")
+
+# Byte Buddy (Hibernate proxies) only accepts Java 21 in experimental mode
+export MAVEN_OPTS="${MAVEN_OPTS:-} -Dnet.bytebuddy.experimental=true"
+
+mvn -q -B -Pjava21,loadtest install -DskipTests
+
+for mode in platform virtual; do
+  virtual=false
+  if [ "$mode" = "virtual" ]; then
+    virtual=true
+  fi
+  echo "== $mode threads"
+  mvn -q -B -Pjava21,loadtest -pl load-test exec:java \
+    -Dexec.args="${ARGS[*]} loadtest.virtual-threads=$virtual loadtest.report=loadtest-report-$mode.json"
+done
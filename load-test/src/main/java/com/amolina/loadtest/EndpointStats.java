@@ -0,0 +1,87 @@
+package com.amolina.loadtest;
+
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles of one endpoint over the measured window.
+ * Latencies are in milliseconds and include the time a request waited past its scheduled send time.
+ */
+public class EndpointStats {
+
+	private final String endpoint;
+	private final int requests;
+	private final int errors;
+	private final int dropped;
+	private final double throughput;
+	private final double p50;
+	private final double p90;
+	private final double p99;
+	private final double p999;
+	private final double max;
+	private final Map<Integer, Integer> statuses;
+
+	EndpointStats(String endpoint, int requests, int errors, int dropped, double throughput,
+			double p50, double p90, double p99, double p999, double max, Map<Integer, Integer> statuses) {
+		this.endpoint = endpoint;
+		this.requests = requests;
+		this.errors = errors;
+		this.dropped = dropped;
+		this.throughput = throughput;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.p999 = p999;
+		this.max = max;
+		this.statuses = statuses;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	public int getRequests() {
+		return requests;
+	}
+
+	/**
+	 * Responses outside 2xx/3xx plus requests that got no response at all.
+	 */
+	public int getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Arrivals that were never sent because {@code loadtest.max-in-flight} was reached.
+	 */
+	public int getDropped() {
+		return dropped;
+	}
+
+	public double getThroughput() {
+		return throughput;
+	}
+
+	public double getP50() {
+		return p50;
+	}
+
+	public double getP90() {
+		return p90;
+	}
+
+	public double getP99() {
+		return p99;
+	}
+
+	public double getP999() {
+		return p999;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	public Map<Integer, Integer> getStatuses() {
+		return statuses;
+	}
+}
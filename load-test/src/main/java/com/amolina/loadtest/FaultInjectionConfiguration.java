@@ -0,0 +1,31 @@
+package com.amolina.loadtest;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Added as an extra source to the downstream service contexts so the harness can shape their latency and error rate.
+ */
+@Configuration
+public class FaultInjectionConfiguration {
+
+	@Bean
+	public FaultInjectionFilter faultInjectionFilter(
+			@Value("${loadtest.fault.latency:0ms}") Duration latency,
+			@Value("${loadtest.fault.jitter:0ms}") Duration jitter,
+			@Value("${loadtest.fault.error-rate:0}") double errorRate) {
+		return new FaultInjectionFilter(latency, jitter, errorRate);
+	}
+
+	@Bean
+	public FilterRegistrationBean<FaultInjectionFilter> faultInjectionFilterRegistration(FaultInjectionFilter filter) {
+		FilterRegistrationBean<FaultInjectionFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+		return registration;
+	}
+}
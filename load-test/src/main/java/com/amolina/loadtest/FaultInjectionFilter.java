@@ -0,0 +1,61 @@
+package com.amolina.loadtest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Injects latency and server errors in front of a service's {@code /api} endpoints.
+ * Disabled until {@link #setEnabled(boolean)} so seeding runs against a healthy cluster.
+ */
+public class FaultInjectionFilter extends OncePerRequestFilter {
+
+	private final long latencyMillis;
+	private final long jitterMillis;
+	private final double errorRate;
+
+	private volatile boolean enabled;
+
+	public FaultInjectionFilter(Duration latency, Duration jitter, double errorRate) {
+		this.latencyMillis = latency.toMillis();
+		this.jitterMillis = jitter.toMillis();
+		this.errorRate = errorRate;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || !request.getRequestURI().startsWith("/api/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+		if (delay > 0) {
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if (errorRate > 0 && random.nextDouble() < errorRate) {
+			response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Injected fault");
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+}
@@ -0,0 +1,200 @@
+package com.amolina.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+
+import com.amolina.customer.CustomerServiceApplication;
+import com.amolina.gatewayserver.ApiGatewayServerApplication;
+import com.amolina.menu.MenuServiceApplication;
+import com.amolina.order.OrderServiceApplication;
+
+/**
+ * Boots menu, customer and order services and the gateway as separate Spring contexts in this JVM.
+ * <ul>
+ * <li>Configuration is read from the config server's native repository instead of a running config server.</li>
+ * <li>Eureka is replaced by the simple discovery client, listing every service at its local port.</li>
+ * <li>Postgres is replaced by one in-memory H2 database per service, with the schema created by Hibernate.</li>
+ * <li>Keycloak is replaced by {@link KeycloakStub}'s realm key.</li>
+ * </ul>
+ */
+public class InProcessCluster implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(InProcessCluster.class);
+
+	private static final String MENU = "menu-service";
+	private static final String CUSTOMER = "customer-service";
+	private static final String ORDER = "order-service";
+	private static final String GATEWAY = "gateway-server";
+
+	/** The gateway needs neither a database nor servlet security, which the shared classpath would otherwise switch on. */
+	private static final String GATEWAY_EXCLUDES = String.join(",",
+			"org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+			"org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+			"org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration",
+			"org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration",
+			"org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration",
+			"org.keycloak.adapters.springboot.KeycloakAutoConfiguration");
+
+	/** The gateway's "Spring MVC found on classpath" guard would fail every servlet context. */
+	private static final String SERVICE_EXCLUDES = "org.springframework.cloud.gateway.config.GatewayClassPathWarningAutoConfiguration";
+
+	private final WorkloadProfile profile;
+	private final KeycloakStub keycloak;
+	private final Map<String, Integer> ports = new LinkedHashMap<>();
+	private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+	public InProcessCluster(WorkloadProfile profile, KeycloakStub keycloak) {
+		this.profile = profile;
+		this.keycloak = keycloak;
+	}
+
+	public void start() throws IOException {
+		for (String service : new String[] { MENU, CUSTOMER, ORDER, GATEWAY }) {
+			ports.put(service, freePort());
+		}
+		startService(MENU, profile.getFaults("menu"), MenuServiceApplication.class, FaultInjectionConfiguration.class);
+		startService(CUSTOMER, profile.getFaults("customer"), CustomerServiceApplication.class, FaultInjectionConfiguration.class);
+		startService(ORDER, new Properties(), OrderServiceApplication.class);
+		startGateway();
+		logger.info("Cluster up: {}", ports);
+	}
+
+	public URI getGatewayUri() {
+		return URI.create("http://localhost:" + ports.get(GATEWAY));
+	}
+
+	/**
+	 * Turns on the latency and error injection configured for menu and customer services.
+	 */
+	public void enableFaults() {
+		for (ConfigurableApplicationContext context : contexts) {
+			context.getBeanProvider(FaultInjectionFilter.class).ifAvailable(filter -> filter.setEnabled(true));
+		}
+	}
+
+	@Override
+	public void close() {
+		for (int i = contexts.size() - 1; i >= 0; i--) {
+			contexts.get(i).close();
+		}
+		contexts.clear();
+	}
+
+	private void startService(String name, Properties extra, Class<?>... sources) throws IOException {
+		Map<String, Object> overrides = commonOverrides(name);
+		overrides.put("spring.autoconfigure.exclude", SERVICE_EXCLUDES);
+		overrides.put("spring.cloud.gateway.enabled", "false");
+		overrides.put("spring.datasource.url", "jdbc:h2:mem:" + name.replace("-", "_") + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+		overrides.put("spring.datasource.driver-class-name", "org.h2.Driver");
+		overrides.put("spring.datasource.username", "sa");
+		overrides.put("spring.datasource.password", "");
+		overrides.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+		// The migrations are PostgreSQL-specific (partitioning, PL/pgSQL); H2 gets the schema from the entities
+		overrides.put("spring.flyway.enabled", "false");
+		overrides.put("order.partitions.enabled", "false");
+		overrides.put("spring.jpa.show-sql", "false");
+		overrides.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		overrides.putAll(keycloak.adapterProperties());
+		overrides.put("threads.virtual.enabled", profile.isVirtualThreads());
+		extra.forEach((key, value) -> overrides.put((String) key, value));
+
+		Properties base = loadProperties(name + ".properties");
+		base.putAll(loadProperties(name + "-dev.properties"));
+		if (profile.isVirtualThreads()) {
+			base.putAll(loadProperties("application-virtualthreads.properties"));
+		}
+		start(name, WebApplicationType.SERVLET, base, overrides, sources);
+	}
+
+	private void startGateway() throws IOException {
+		Map<String, Object> overrides = commonOverrides(GATEWAY);
+		overrides.put("spring.autoconfigure.exclude", GATEWAY_EXCLUDES);
+		overrides.put("keycloak.enabled", "false");
+		start(GATEWAY, WebApplicationType.REACTIVE, loadYaml(GATEWAY + ".yml"), overrides, ApiGatewayServerApplication.class);
+	}
+
+	private Map<String, Object> commonOverrides(String name) {
+		Map<String, Object> overrides = new LinkedHashMap<>();
+		overrides.put("spring.application.name", name);
+		overrides.put("spring.profiles.active", "loadtest");
+		overrides.put("server.port", ports.get(name));
+		overrides.put("spring.main.banner-mode", "off");
+		overrides.put("spring.cloud.config.enabled", "false");
+		overrides.put("spring.cloud.config.import-check.enabled", "false");
+		overrides.put("eureka.client.enabled", "false");
+		overrides.put("spring.cloud.service-registry.auto-registration.enabled", "false");
+		for (String service : new String[] { MENU, CUSTOMER, ORDER }) {
+			overrides.put("spring.cloud.discovery.client.simple.instances." + service + "[0].uri",
+					"http://localhost:" + ports.get(service));
+		}
+		overrides.put("logging.level.root", "WARN");
+		overrides.put("logging.level.com.amolina", "WARN");
+		overrides.put("logging.level.com.amolina.loadtest", "INFO");
+		return overrides;
+	}
+
+	/**
+	 * Config repository values become default properties, and the harness overrides are passed as command line
+	 * arguments so they win over both those defaults and whatever bootstrap.yml the shared classpath resolves first.
+	 */
+	private void start(String name, WebApplicationType type, Properties base, Map<String, Object> overrides, Class<?>... sources) {
+		Map<String, Object> defaults = new LinkedHashMap<>();
+		base.forEach((key, value) -> defaults.put((String) key, value));
+		String[] args = overrides.entrySet().stream()
+				.map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+				.toArray(String[]::new);
+		logger.info("Starting {} on port {}", name, ports.get(name));
+		contexts.add(new SpringApplicationBuilder(sources)
+				.web(type)
+				.properties(defaults)
+				.run(args));
+	}
+
+	private Properties loadProperties(String file) throws IOException {
+		Properties properties = new Properties();
+		Path path = profile.getConfigDir().resolve(file);
+		if (Files.exists(path)) {
+			try (Reader reader = Files.newBufferedReader(path)) {
+				properties.load(reader);
+			}
+		} else {
+			logger.warn("{} not found, starting with harness defaults only", path);
+		}
+		return properties;
+	}
+
+	private Properties loadYaml(String file) {
+		Path path = profile.getConfigDir().resolve(file);
+		if (!Files.exists(path)) {
+			logger.warn("{} not found, starting with harness defaults only", path);
+			return new Properties();
+		}
+		YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+		yaml.setResources(new FileSystemResource(path));
+		return yaml.getObject();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			socket.setReuseAddress(true);
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.amolina.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples memory and thread usage of this JVM, which hosts every service, over the measured window.
+ * Resident set size is included where {@code /proc} is available, since platform thread stacks
+ * live outside the heap and are where a thread-per-request model spends its memory.
+ */
+class JvmSampler {
+
+	private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+	private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "jvm-sampler");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile long maxHeapUsed;
+	private volatile long maxNonHeapCommitted;
+	private volatile long maxRss = -1;
+
+	void start(Duration initialDelay) {
+		scheduler.schedule(threads::resetPeakThreadCount, initialDelay.toMillis(), TimeUnit.MILLISECONDS);
+		scheduler.scheduleAtFixedRate(this::sample, initialDelay.toMillis(), 500, TimeUnit.MILLISECONDS);
+	}
+
+	JvmStats stop() {
+		scheduler.shutdownNow();
+		return new JvmStats(threads.getPeakThreadCount(), megabytes(maxHeapUsed), megabytes(maxNonHeapCommitted),
+				maxRss < 0 ? -1 : megabytes(maxRss), Runtime.version().toString());
+	}
+
+	private void sample() {
+		maxHeapUsed = Math.max(maxHeapUsed, memory.getHeapMemoryUsage().getUsed());
+		maxNonHeapCommitted = Math.max(maxNonHeapCommitted, memory.getNonHeapMemoryUsage().getCommitted());
+		long rss = readRss();
+		if (rss >= 0) {
+			maxRss = Math.max(maxRss, rss);
+		}
+	}
+
+	private static long readRss() {
+		if (!Files.isReadable(PROC_STATUS)) {
+			return -1;
+		}
+		try {
+			for (String line : Files.readAllLines(PROC_STATUS)) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			return -1;
+		}
+		return -1;
+	}
+
+	private static long megabytes(long bytes) {
+		return bytes / (1024 * 1024);
+	}
+}
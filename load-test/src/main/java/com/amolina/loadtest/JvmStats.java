@@ -0,0 +1,47 @@
+package com.amolina.loadtest;
+
+/**
+ * Peak resource usage of the JVM hosting the cluster during the measured window.
+ */
+public class JvmStats {
+
+	private final int peakPlatformThreads;
+	private final long maxHeapUsedMb;
+	private final long maxNonHeapCommittedMb;
+	private final long maxRssMb;
+	private final String javaVersion;
+
+	JvmStats(int peakPlatformThreads, long maxHeapUsedMb, long maxNonHeapCommittedMb, long maxRssMb, String javaVersion) {
+		this.peakPlatformThreads = peakPlatformThreads;
+		this.maxHeapUsedMb = maxHeapUsedMb;
+		this.maxNonHeapCommittedMb = maxNonHeapCommittedMb;
+		this.maxRssMb = maxRssMb;
+		this.javaVersion = javaVersion;
+	}
+
+	/**
+	 * Virtual threads are not counted, so this shows how many carrier and pool threads the run needed.
+	 */
+	public int getPeakPlatformThreads() {
+		return peakPlatformThreads;
+	}
+
+	public long getMaxHeapUsedMb() {
+		return maxHeapUsedMb;
+	}
+
+	public long getMaxNonHeapCommittedMb() {
+		return maxNonHeapCommittedMb;
+	}
+
+	/**
+	 * Peak resident set size, or {@code -1} where it cannot be read.
+	 */
+	public long getMaxRssMb() {
+		return maxRssMb;
+	}
+
+	public String getJavaVersion() {
+		return javaVersion;
+	}
+}
@@ -0,0 +1,73 @@
+package com.amolina.loadtest;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.keycloak.common.util.Time;
+import org.keycloak.jose.jws.JWSBuilder;
+import org.keycloak.representations.AccessToken;
+
+/**
+ * Stands in for the Keycloak server.
+ * The adapters are configured with {@code keycloak.realm-public-key}, so they validate tokens locally
+ * against a key pair generated here and never call the auth server; tokens are minted with the same
+ * realm, issuer and client roles the real realm would hand out.
+ */
+public class KeycloakStub {
+
+	static final String REALM = "pizza-store";
+	static final String CLIENT = "pizza-store-client";
+	static final String AUTH_SERVER_URL = "http://keycloak-stub/auth";
+
+	private final KeyPair keyPair;
+
+	public KeycloakStub() {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			this.keyPair = generator.generateKeyPair();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("RSA is not available", e);
+		}
+	}
+
+	/**
+	 * Adapter settings for a servlet service, replacing the {@code keycloak.*} block from the config server.
+	 */
+	public Map<String, Object> adapterProperties() {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("keycloak.realm", REALM);
+		properties.put("keycloak.auth-server-url", AUTH_SERVER_URL);
+		properties.put("keycloak.ssl-required", "none");
+		properties.put("keycloak.resource", CLIENT);
+		properties.put("keycloak.use-resource-role-mappings", "true");
+		properties.put("keycloak.bearer-only", "true");
+		properties.put("keycloak.realm-public-key", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+		return properties;
+	}
+
+	/**
+	 * Mints a signed bearer token carrying the given client roles, valid for {@code ttlSeconds}.
+	 */
+	public String mintToken(String username, int ttlSeconds, String... roles) {
+		AccessToken token = new AccessToken();
+		token.id(UUID.randomUUID().toString());
+		token.issuer(AUTH_SERVER_URL + "/realms/" + REALM);
+		token.subject(UUID.nameUUIDFromBytes(username.getBytes()).toString());
+		token.type("Bearer");
+		token.issuedFor(CLIENT);
+		token.issuedNow();
+		token.expiration(Time.currentTime() + ttlSeconds);
+		token.setPreferredUsername(username);
+		AccessToken.Access access = token.addAccess(CLIENT);
+		for (String role : roles) {
+			access.addRole(role);
+		}
+		return new JWSBuilder().type("JWT").jsonContent(token).rsa256(keyPair.getPrivate());
+	}
+}
@@ -0,0 +1,90 @@
+package com.amolina.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects every measured response per operation.
+ * Runs are minutes long at a few thousand requests per second, so keeping raw samples is cheap
+ * and gives exact percentiles instead of bucketed ones.
+ */
+class LatencyRecorder {
+
+	private final Map<Operation, Series> series = new EnumMap<>(Operation.class);
+
+	LatencyRecorder() {
+		for (Operation operation : Operation.values()) {
+			series.put(operation, new Series());
+		}
+	}
+
+	/**
+	 * @param status HTTP status, or {@code -1} when the request failed without a response (timeout, connection error)
+	 */
+	void record(Operation operation, long latencyNanos, int status) {
+		series.get(operation).add(latencyNanos, status);
+	}
+
+	void dropped(Operation operation) {
+		series.get(operation).dropped();
+	}
+
+	List<EndpointStats> snapshot(Duration measured) {
+		double seconds = measured.toNanos() / 1e9;
+		List<EndpointStats> stats = new ArrayList<>();
+		for (Map.Entry<Operation, Series> entry : series.entrySet()) {
+			stats.add(entry.getValue().toStats(entry.getKey(), seconds));
+		}
+		return stats;
+	}
+
+	private static final class Series {
+
+		private long[] latencies = new long[1024];
+		private int count;
+		private int errors;
+		private int dropped;
+		private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+		synchronized void add(long latencyNanos, int status) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latencyNanos;
+			if (status < 200 || status >= 400) {
+				errors++;
+			}
+			statuses.merge(status, 1, Integer::sum);
+		}
+
+		synchronized void dropped() {
+			dropped++;
+		}
+
+		synchronized EndpointStats toStats(Operation operation, double seconds) {
+			long[] sorted = Arrays.copyOf(latencies, count);
+			Arrays.sort(sorted);
+			return new EndpointStats(operation.getEndpoint(), count, errors, dropped, count / seconds,
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)), millis(percentile(sorted, 0.99)),
+					millis(percentile(sorted, 0.999)), millis(count == 0 ? 0 : sorted[count - 1]), new TreeMap<>(statuses));
+		}
+
+		private static long percentile(long[] sorted, double quantile) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(quantile * sorted.length) - 1;
+			return sorted[Math.max(0, index)];
+		}
+
+		private static double millis(long nanos) {
+			return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+	}
+}
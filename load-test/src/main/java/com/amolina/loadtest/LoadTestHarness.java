@@ -0,0 +1,48 @@
+package com.amolina.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entry point: boots the cluster, seeds it through the gateway, switches on fault injection,
+ * drives the configured workload and prints and writes the report.
+ */
+public final class LoadTestHarness {
+
+	private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+
+	private LoadTestHarness() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		WorkloadProfile profile = WorkloadProfile.load(args);
+		KeycloakStub keycloak = new KeycloakStub();
+		String token = keycloak.mintToken("load-test", 24 * 60 * 60, "ADMIN", "USER");
+
+		ExecutorService clientExecutor = Executors.newFixedThreadPool(profile.getClientThreads());
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(profile.getRequestTimeout())
+				.executor(clientExecutor)
+				.build();
+
+		try (InProcessCluster cluster = new InProcessCluster(profile, keycloak)) {
+			cluster.start();
+			SeedData seed = SeedData.create(client, cluster.getGatewayUri(), token, profile);
+			logger.info("Seeded {} pizzas, {} customers, {} orders", profile.getSeedPizzas(), profile.getSeedCustomers(),
+					profile.getSeedOrders());
+
+			cluster.enableFaults();
+			LoadTestReport report = new OpenModelDriver(client, cluster.getGatewayUri(), token, seed, profile).run();
+			report.print(System.out);
+			report.write(profile.getReportFile());
+			logger.info("Report written to {}", profile.getReportFile().toAbsolutePath());
+		} finally {
+			clientExecutor.shutdownNow();
+		}
+	}
+}
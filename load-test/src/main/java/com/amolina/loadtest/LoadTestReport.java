@@ -0,0 +1,57 @@
+package com.amolina.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Result of a run: the settings it ran with and per-endpoint statistics.
+ */
+public class LoadTestReport {
+
+	private final Map<String, String> settings;
+	private final List<EndpointStats> endpoints;
+	private final JvmStats jvm;
+
+	LoadTestReport(WorkloadProfile profile, List<EndpointStats> endpoints, JvmStats jvm) {
+		this.settings = new TreeMap<>();
+		profile.asProperties().forEach((key, value) -> settings.put((String) key, (String) value));
+		this.endpoints = endpoints;
+		this.jvm = jvm;
+	}
+
+	public Map<String, String> getSettings() {
+		return settings;
+	}
+
+	public List<EndpointStats> getEndpoints() {
+		return endpoints;
+	}
+
+	public JvmStats getJvm() {
+		return jvm;
+	}
+
+	public void print(PrintStream out) {
+		out.printf("%-40s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+				"Endpoint", "Requests", "Errors", "Dropped", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+		for (EndpointStats stats : endpoints) {
+			out.printf("%-40s %9d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+					stats.getEndpoint(), stats.getRequests(), stats.getErrors(), stats.getDropped(), stats.getThroughput(),
+					stats.getP50(), stats.getP90(), stats.getP99(), stats.getP999(), stats.getMax());
+		}
+		out.printf("%nJava %s: peak platform threads %d, max heap used %d MB, max non-heap committed %d MB, max RSS %s%n",
+				jvm.getJavaVersion(), jvm.getPeakPlatformThreads(), jvm.getMaxHeapUsedMb(), jvm.getMaxNonHeapCommittedMb(),
+				jvm.getMaxRssMb() < 0 ? "n/a" : jvm.getMaxRssMb() + " MB");
+	}
+
+	public void write(Path file) throws IOException {
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+	}
+}
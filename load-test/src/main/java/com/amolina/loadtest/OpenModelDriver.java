@@ -0,0 +1,88 @@
+package com.amolina.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Open-model load generator.
+ * Requests are scheduled on a Poisson arrival process and sent whether or not earlier ones have completed,
+ * so a slow system sees a growing queue instead of a slower client. Latency is taken from the scheduled
+ * send time, which keeps a stalled sender from hiding the delay (coordinated omission).
+ */
+public class OpenModelDriver {
+
+	private static final Logger logger = LoggerFactory.getLogger(OpenModelDriver.class);
+
+	private final HttpClient client;
+	private final URI gateway;
+	private final String bearerToken;
+	private final SeedData seed;
+	private final WorkloadProfile profile;
+
+	public OpenModelDriver(HttpClient client, URI gateway, String bearerToken, SeedData seed, WorkloadProfile profile) {
+		this.client = client;
+		this.gateway = gateway;
+		this.bearerToken = bearerToken;
+		this.seed = seed;
+		this.profile = profile;
+	}
+
+	public LoadTestReport run() throws InterruptedException {
+		LatencyRecorder recorder = new LatencyRecorder();
+		int maxInFlight = profile.getMaxInFlight();
+		Semaphore inFlight = new Semaphore(maxInFlight);
+		Duration requestTimeout = profile.getRequestTimeout();
+		double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / profile.getRate();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		JvmSampler sampler = new JvmSampler();
+		sampler.start(profile.getWarmup());
+		long start = System.nanoTime();
+		long measureFrom = start + profile.getWarmup().toNanos();
+		long end = measureFrom + profile.getDuration().toNanos();
+		logger.info("Driving {} req/s for {} after {} warmup", profile.getRate(), profile.getDuration(), profile.getWarmup());
+
+		long scheduled = start;
+		while (true) {
+			scheduled += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+			if (scheduled >= end) {
+				break;
+			}
+			long wait;
+			while ((wait = scheduled - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Operation operation = profile.pick(random);
+			boolean measured = scheduled >= measureFrom;
+			if (!inFlight.tryAcquire()) {
+				if (measured) {
+					recorder.dropped(operation);
+				}
+				continue;
+			}
+			long sendAt = scheduled;
+			client.sendAsync(operation.build(gateway, seed, bearerToken, requestTimeout), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						long latency = System.nanoTime() - sendAt;
+						inFlight.release();
+						if (measured) {
+							recorder.record(operation, latency, response == null ? -1 : response.statusCode());
+						}
+					});
+		}
+
+		if (!inFlight.tryAcquire(maxInFlight, requestTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+			logger.warn("{} requests still in flight after the run", maxInFlight - inFlight.availablePermits());
+		}
+		return new LoadTestReport(profile, recorder.snapshot(profile.getDuration()), sampler.stop());
+	}
+}
@@ -0,0 +1,80 @@
+package com.amolina.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests the driver mixes, each addressed through the gateway the way an external client would.
+ */
+public enum Operation {
+
+	ORDER_BY_ID("order-by-id", "GET /api/orders/{id}") {
+		@Override
+		HttpRequest.Builder request(URI gateway, SeedData seed, ThreadLocalRandom random) {
+			return HttpRequest.newBuilder(gateway.resolve("/order-service/api/orders/" + seed.randomOrderId(random))).GET();
+		}
+	},
+
+	ORDERS_BY_CUSTOMER("orders-by-customer", "GET /api/orders/customer/{customerId}") {
+		@Override
+		HttpRequest.Builder request(URI gateway, SeedData seed, ThreadLocalRandom random) {
+			return HttpRequest.newBuilder(gateway.resolve("/order-service/api/orders/customer/" + seed.randomCustomerId(random))).GET();
+		}
+	},
+
+	PIZZA_BY_ID("pizza-by-id", "GET /api/pizzas/{id}") {
+		@Override
+		HttpRequest.Builder request(URI gateway, SeedData seed, ThreadLocalRandom random) {
+			return HttpRequest.newBuilder(gateway.resolve("/menu-service/api/pizzas/" + seed.randomPizzaId(random))).GET();
+		}
+	},
+
+	CUSTOMER_BY_ID("customer-by-id", "GET /api/customers/{id}") {
+		@Override
+		HttpRequest.Builder request(URI gateway, SeedData seed, ThreadLocalRandom random) {
+			return HttpRequest.newBuilder(gateway.resolve("/customer-service/api/customers/" + seed.randomCustomerId(random))).GET();
+		}
+	},
+
+	CREATE_ORDER("create-order", "POST /api/orders") {
+		@Override
+		HttpRequest.Builder request(URI gateway, SeedData seed, ThreadLocalRandom random) {
+			return HttpRequest.newBuilder(gateway.resolve("/order-service/api/orders"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(seed.randomOrderJson(random)));
+		}
+	};
+
+	private final String key;
+	private final String endpoint;
+
+	Operation(String key, String endpoint) {
+		this.key = key;
+		this.endpoint = endpoint;
+	}
+
+	/**
+	 * Name used for the {@code loadtest.mix.*} weight.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Endpoint template the results are reported under.
+	 */
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	abstract HttpRequest.Builder request(URI gateway, SeedData seed, ThreadLocalRandom random);
+
+	HttpRequest build(URI gateway, SeedData seed, String bearerToken, Duration timeout) {
+		return request(gateway, seed, ThreadLocalRandom.current())
+				.header("Authorization", "Bearer " + bearerToken)
+				.timeout(timeout)
+				.build();
+	}
+}
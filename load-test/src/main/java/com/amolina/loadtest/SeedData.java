@@ -0,0 +1,97 @@
+package com.amolina.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Ids of the pizzas, customers and orders created through the gateway before the run starts.
+ */
+public class SeedData {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final long[] pizzaIds;
+	private final long[] customerIds;
+	private final long[] orderIds;
+
+	private SeedData(long[] pizzaIds, long[] customerIds, long[] orderIds) {
+		this.pizzaIds = pizzaIds;
+		this.customerIds = customerIds;
+		this.orderIds = orderIds;
+	}
+
+	public static SeedData create(HttpClient client, URI gateway, String bearerToken, WorkloadProfile profile)
+			throws IOException, InterruptedException {
+		long[] pizzaIds = new long[profile.getSeedPizzas()];
+		for (int i = 0; i < pizzaIds.length; i++) {
+			String body = "{\"name\":\"Load Test Pizza " + i + "\",\"description\":\"Seeded by the load test harness\",\"price\":"
+					+ price(i) + "}";
+			pizzaIds[i] = post(client, gateway.resolve("/menu-service/api/pizzas"), bearerToken, body).get("itemId").asLong();
+		}
+		long[] customerIds = new long[profile.getSeedCustomers()];
+		for (int i = 0; i < customerIds.length; i++) {
+			String body = "{\"firstname\":\"Load\",\"lastname\":\"Tester " + i + "\",\"phone\":\"555-" + (1000 + i)
+					+ "\",\"email\":\"load.tester" + i + "@example.com\"}";
+			customerIds[i] = post(client, gateway.resolve("/customer-service/api/customers"), bearerToken, body).get("customerId").asLong();
+		}
+		SeedData partial = new SeedData(pizzaIds, customerIds, new long[0]);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long[] orderIds = new long[profile.getSeedOrders()];
+		for (int i = 0; i < orderIds.length; i++) {
+			String body = partial.randomOrderJson(random);
+			orderIds[i] = post(client, gateway.resolve("/order-service/api/orders"), bearerToken, body).get("orderId").asLong();
+		}
+		return new SeedData(pizzaIds, customerIds, orderIds);
+	}
+
+	/**
+	 * An order for a random customer with one to three lines of random pizzas; order-service prices it.
+	 */
+	String randomOrderJson(ThreadLocalRandom random) {
+		StringBuilder lines = new StringBuilder();
+		int lineCount = 1 + random.nextInt(3);
+		for (int i = 0; i < lineCount; i++) {
+			if (i > 0) {
+				lines.append(',');
+			}
+			lines.append("{\"itemId\":").append(randomPizzaId(random)).append(",\"quantity\":").append(1 + random.nextInt(2)).append('}');
+		}
+		return "{\"customerId\":" + randomCustomerId(random) + ",\"lines\":[" + lines + "]}";
+	}
+
+	private static String price(int i) {
+		return (8 + i % 10) + ".99";
+	}
+
+	private static JsonNode post(HttpClient client, URI uri, String bearerToken, String body) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(uri)
+				.header("Authorization", "Bearer " + bearerToken)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 201) {
+			throw new IllegalStateException("Seeding " + uri + " failed with " + response.statusCode() + ": " + response.body());
+		}
+		return MAPPER.readTree(response.body());
+	}
+
+	long randomPizzaId(ThreadLocalRandom random) {
+		return pizzaIds[random.nextInt(pizzaIds.length)];
+	}
+
+	long randomCustomerId(ThreadLocalRandom random) {
+		return customerIds[random.nextInt(customerIds.length)];
+	}
+
+	long randomOrderId(ThreadLocalRandom random) {
+		return orderIds[random.nextInt(orderIds.length)];
+	}
+}
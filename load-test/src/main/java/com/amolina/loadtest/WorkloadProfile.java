@@ -0,0 +1,171 @@
+package com.amolina.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Workload and fault settings for a run.
+ * Defaults come from {@code loadtest.properties} on the classpath, then an optional properties file given as
+ * the first argument, then {@code key=value} arguments and {@code -Dloadtest.*} system properties.
+ */
+public class WorkloadProfile {
+
+	private final Properties properties;
+	private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+	private final int totalWeight;
+
+	private WorkloadProfile(Properties properties) {
+		this.properties = properties;
+		int total = 0;
+		for (Operation operation : Operation.values()) {
+			int weight = getInt("loadtest.mix." + operation.getKey());
+			if (weight < 0) {
+				throw new IllegalArgumentException("loadtest.mix." + operation.getKey() + " must not be negative");
+			}
+			mix.put(operation, weight);
+			total += weight;
+		}
+		if (total == 0) {
+			throw new IllegalArgumentException("At least one loadtest.mix.* weight must be positive");
+		}
+		this.totalWeight = total;
+	}
+
+	public static WorkloadProfile load(String... args) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream defaults = WorkloadProfile.class.getResourceAsStream("/loadtest.properties")) {
+			properties.load(defaults);
+		}
+		for (String arg : args) {
+			String option = arg.startsWith("--") ? arg.substring(2) : arg;
+			int separator = option.indexOf('=');
+			if (separator > 0) {
+				properties.setProperty(option.substring(0, separator), option.substring(separator + 1));
+			} else {
+				try (Reader reader = Files.newBufferedReader(Paths.get(option))) {
+					properties.load(reader);
+				}
+			}
+		}
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (name.startsWith("loadtest.")) {
+				properties.setProperty(name, System.getProperty(name));
+			}
+		}
+		return new WorkloadProfile(properties);
+	}
+
+	/**
+	 * Picks the next operation according to the configured mix.
+	 */
+	public Operation pick(ThreadLocalRandom random) {
+		int ticket = random.nextInt(totalWeight);
+		for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			ticket -= entry.getValue();
+			if (ticket < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("Mix weights changed while picking");
+	}
+
+	public Map<Operation, Integer> getMix() {
+		return mix;
+	}
+
+	public double getRate() {
+		return Double.parseDouble(get("loadtest.rate"));
+	}
+
+	public Duration getWarmup() {
+		return getDuration("loadtest.warmup");
+	}
+
+	public Duration getDuration() {
+		return getDuration("loadtest.duration");
+	}
+
+	public Duration getRequestTimeout() {
+		return getDuration("loadtest.request-timeout");
+	}
+
+	public int getMaxInFlight() {
+		return getInt("loadtest.max-in-flight");
+	}
+
+	public int getClientThreads() {
+		return getInt("loadtest.client-threads");
+	}
+
+	/**
+	 * Runs menu, customer and order services with {@code threads.virtual.enabled} (needs a Java 21 JVM).
+	 */
+	public boolean isVirtualThreads() {
+		return Boolean.parseBoolean(get("loadtest.virtual-threads"));
+	}
+
+	public int getSeedPizzas() {
+		return getInt("loadtest.seed.pizzas");
+	}
+
+	public int getSeedCustomers() {
+		return getInt("loadtest.seed.customers");
+	}
+
+	public int getSeedOrders() {
+		return getInt("loadtest.seed.orders");
+	}
+
+	public Path getConfigDir() {
+		return Paths.get(get("loadtest.config-dir"));
+	}
+
+	public Path getReportFile() {
+		return Paths.get(get("loadtest.report"));
+	}
+
+	/**
+	 * Fault injection settings for a downstream service ({@code menu} or {@code customer}),
+	 * as {@code loadtest.fault.*} properties for that service's context.
+	 */
+	public Properties getFaults(String service) {
+		Properties faults = new Properties();
+		faults.setProperty("loadtest.fault.latency", get("loadtest." + service + ".latency"));
+		faults.setProperty("loadtest.fault.jitter", get("loadtest." + service + ".jitter"));
+		faults.setProperty("loadtest.fault.error-rate", get("loadtest." + service + ".error-rate"));
+		return faults;
+	}
+
+	public Properties asProperties() {
+		Properties copy = new Properties();
+		copy.putAll(properties);
+		return copy;
+	}
+
+	private String get(String key) {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing load test property " + key);
+		}
+		return value.trim();
+	}
+
+	private int getInt(String key) {
+		return Integer.parseInt(get(key));
+	}
+
+	private Duration getDuration(String key) {
+		return DurationStyle.detectAndParse(get(key));
+	}
+}
@@ -2,7 +2,10 @@ package com.amolina.menu.controller;
 
 import com.amolina.menu.model.Pizza;
 import com.amolina.menu.service.PizzaService;
+import com.amolina.menu.service.VersionConflictException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,16 +20,20 @@ public class PizzaController {
     @Autowired
     private PizzaService pizzaService;
 
+    /**
+     * All pizzas, or with {@code ids} only those pizzas, so a caller can resolve several items in one request.
+     * Unknown ids are left out of the result.
+     */
     @GetMapping
-    public ResponseEntity<List<Pizza>> getAllPizzas() {
-        List<Pizza> pizzas = pizzaService.getAllPizzas();
+    public ResponseEntity<List<Pizza>> getAllPizzas(@RequestParam(required = false) List<Long> ids) {
+        List<Pizza> pizzas = ids != null ? pizzaService.getPizzasByIds(ids) : pizzaService.getAllPizzas();
         return ResponseEntity.ok(pizzas);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Pizza> getPizzaById(@PathVariable Long id) {
         return pizzaService.getPizzaById(id)
-                .map(ResponseEntity::ok)
+                .map(pizza -> ResponseEntity.ok().eTag(String.valueOf(pizza.getVersion())).body(pizza))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -37,12 +44,56 @@ public class PizzaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdPizza);
     }
 
+    /**
+     * Replaces the pizza. With {@code If-Match} (the ETag of a previous read) only while it is still at that
+     * version, answering 409 otherwise; without it, or with {@code *}, whatever version is current.
+     */
     @RolesAllowed("ADMIN")
     @PutMapping("/{id}")
-    public ResponseEntity<Pizza> updatePizza(@PathVariable Long id, @RequestBody Pizza pizza) {
+    public ResponseEntity<Pizza> updatePizza(@PathVariable Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody Pizza pizza) {
+        Long version;
         try {
-            Pizza updatedPizza = pizzaService.updatePizza(id, pizza);
-            return ResponseEntity.ok(updatedPizza);
+            version = ifMatch != null ? parseVersion(ifMatch) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Pizza updatedPizza = pizzaService.updatePizza(id, version, pizza);
+            return ResponseEntity.ok().eTag(String.valueOf(updatedPizza.getVersion())).body(updatedPizza);
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Changes only the fields present in the body, provided the pizza is still at the version in {@code If-Match}
+     * (the ETag of a previous read). Answers 204 with the new ETag, 409 if the pizza changed in between and 428
+     * without {@code If-Match}.
+     */
+    @RolesAllowed("ADMIN")
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchPizza(@PathVariable Long id,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody Pizza changes) {
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        try {
+            Long expected = parseVersion(ifMatch);
+            if (expected == null) {
+                // The UPDATE is conditional on a version, so "any version" is no precondition for it
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            long version = pizzaService.patchPizza(id, expected, changes);
+            return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -58,5 +109,23 @@ public class PizzaController {
             return ResponseEntity.notFound().build();
         }
     }
-}
 
+    /**
+     * The version in an ETag such as {@code "3"} or {@code W/"3"}, or null for {@code *} (any version).
+     *
+     * @throws NumberFormatException if it is not one of ours
+     */
+    private static Long parseVersion(String etag) {
+        String value = etag.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return Long.parseLong(value);
+    }
+}
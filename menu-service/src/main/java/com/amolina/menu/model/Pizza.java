@@ -27,5 +27,12 @@ public class Pizza {
 
     @Column(name = "price", nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
+
+    /**
+     * Bumped by every update; sent as the ETag and checked against {@code If-Match} by PUT and PATCH.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
 
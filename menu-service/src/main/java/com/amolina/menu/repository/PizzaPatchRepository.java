@@ -0,0 +1,17 @@
+package com.amolina.menu.repository;
+
+import java.util.Map;
+
+/**
+ * Partial updates written without reading the pizza first.
+ */
+public interface PizzaPatchRepository {
+
+    /**
+     * Sets {@code changes} (attribute name to value) on pizza {@code id} and bumps its version, with one UPDATE
+     * that only matches while the pizza is still at {@code version}.
+     *
+     * @return 1 if the pizza was updated, 0 if it does not exist or is at another version
+     */
+    int patch(Long id, long version, Map<String, Object> changes);
+}
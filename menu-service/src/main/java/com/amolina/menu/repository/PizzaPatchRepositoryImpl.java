@@ -0,0 +1,28 @@
+package com.amolina.menu.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.Map;
+
+public class PizzaPatchRepositoryImpl implements PizzaPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Only the supplied attributes appear in the statement, so no parameter is ever bound to null.
+     */
+    @Override
+    @Transactional
+    public int patch(Long id, long version, Map<String, Object> changes) {
+        StringBuilder jpql = new StringBuilder("update Pizza p set p.version = p.version + 1");
+        changes.keySet().forEach(attribute -> jpql.append(", p.").append(attribute).append(" = :").append(attribute));
+        jpql.append(" where p.itemId = :id and p.version = :version");
+        Query query = entityManager.createQuery(jpql.toString());
+        changes.forEach(query::setParameter);
+        return query.setParameter("id", id).setParameter("version", version).executeUpdate();
+    }
+}
@@ -5,7 +5,9 @@ import com.amolina.menu.repository.PizzaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,6 +20,10 @@ public class PizzaService {
         return pizzaRepository.findAll();
     }
 
+    public List<Pizza> getPizzasByIds(List<Long> ids) {
+        return pizzaRepository.findAllById(ids);
+    }
+
     public Optional<Pizza> getPizzaById(Long id) {
         return pizzaRepository.findById(id);
     }
@@ -26,9 +32,18 @@ public class PizzaService {
         return pizzaRepository.save(pizza);
     }
 
-    public Pizza updatePizza(Long id, Pizza pizzaDetails) {
+    /**
+     * Replaces the fields of pizza {@code id}. With a {@code version} it only does so while the pizza is at that
+     * version; the version check on save catches a change between the read and the write.
+     *
+     * @throws VersionConflictException if the pizza is at another version than {@code version}
+     */
+    public Pizza updatePizza(Long id, Long version, Pizza pizzaDetails) {
         Pizza pizza = pizzaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pizza not found with id: " + id));
+        if (version != null && !version.equals(pizza.getVersion())) {
+            throw new VersionConflictException(id, version);
+        }
         
         pizza.setName(pizzaDetails.getName());
         pizza.setDescription(pizzaDetails.getDescription());
@@ -37,6 +52,37 @@ public class PizzaService {
         return pizzaRepository.save(pizza);
     }
 
+    /**
+     * Applies the non-null fields of {@code changes} to pizza {@code id} with a single conditional UPDATE,
+     * without reading the pizza first.
+     *
+     * @return the pizza's new version
+     * @throws VersionConflictException if the pizza is no longer at {@code version}
+     */
+    public long patchPizza(Long id, long version, Pizza changes) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (changes.getName() != null) {
+            fields.put("name", changes.getName());
+        }
+        if (changes.getDescription() != null) {
+            fields.put("description", changes.getDescription());
+        }
+        if (changes.getPrice() != null) {
+            fields.put("price", changes.getPrice());
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        if (pizzaRepository.patch(id, version, fields) == 0) {
+            // Only a failed update pays for the second round trip that tells the two cases apart
+            if (!pizzaRepository.existsById(id)) {
+                throw new RuntimeException("Pizza not found with id: " + id);
+            }
+            throw new VersionConflictException(id, version);
+        }
+        return version + 1;
+    }
+
     public void deletePizza(Long id) {
         Pizza pizza = pizzaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pizza not found with id: " + id));
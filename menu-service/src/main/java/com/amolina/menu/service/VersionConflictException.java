@@ -0,0 +1,11 @@
+package com.amolina.menu.service;
+
+/**
+ * Thrown when a conditional update finds the pizza at another version than the caller read.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(Long id, long version) {
+        super("Pizza " + id + " is no longer at version " + version);
+    }
+}
@@ -0,0 +1,21 @@
+-- Pizza table and sample menu.
+-- Idempotent so that databases created by the former database/init.sql are baselined without changes.
+CREATE TABLE IF NOT EXISTS pizza (
+    item_id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    price NUMERIC(10, 2) NOT NULL
+);
+
+INSERT INTO pizza (name, description, price)
+SELECT name, description, price FROM (VALUES
+    ('Margherita', 'Fresh mozzarella, tomato sauce, and basil', 12.99),
+    ('Pepperoni', 'Classic pepperoni with mozzarella cheese', 14.99),
+    ('Hawaiian', 'Ham, pineapple, and mozzarella', 15.99),
+    ('BBQ Chicken', 'BBQ sauce, grilled chicken, red onions, and cilantro', 16.99),
+    ('Veggie Supreme', 'Mushrooms, bell peppers, onions, olives, and tomatoes', 15.49),
+    ('Meat Lovers', 'Pepperoni, sausage, bacon, and ham', 17.99),
+    ('Four Cheese', 'Mozzarella, parmesan, gorgonzola, and ricotta', 16.49),
+    ('Buffalo Chicken', 'Spicy buffalo sauce, chicken, and ranch drizzle', 16.99)
+) AS sample (name, description, price)
+WHERE NOT EXISTS (SELECT 1 FROM pizza);
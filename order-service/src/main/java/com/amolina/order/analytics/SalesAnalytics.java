@@ -0,0 +1,242 @@
+package com.amolina.order.analytics;
+
+import com.amolina.order.archive.OrderArchive;
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.amolina.order.model.dto.ItemSalesDTO;
+import com.amolina.order.model.dto.RevenueBucketDTO;
+import com.amolina.order.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Live sales figures per item, kept in memory so dashboards never scan the order table.
+ * <p>
+ * All-time totals and a ring of hourly buckets covering the last {@code analytics.window-hours} are
+ * {@link LongAdder}s, which spread concurrent updates over striped cells instead of contending on one value.
+ * Revenue is the lines' total before tax, attributed to the hour the order was created, so updates and deletes
+ * correct the bucket the order was counted in. Figures are rebuilt from the database and the order archive at
+ * startup and afterwards follow the writes made through this instance.
+ */
+@Component
+public class SalesAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    private static final long HOUR_SECONDS = 3600;
+
+    private final Map<Long, Counter> totals = new ConcurrentHashMap<>();
+    private AtomicReferenceArray<Bucket> buckets;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Value("${analytics.window-hours:48}")
+    private int windowHours;
+
+    @PostConstruct
+    public void rebuild() {
+        buckets = new AtomicReferenceArray<>(windowHours);
+        try {
+            for (OrderRepository.ItemSales sales : orderRepository.summarizeByItem()) {
+                counter(totals, sales.getItemId()).add(sales.getOrders(), sales.getQuantity(), toCents(sales.getRevenue()));
+            }
+            orderArchive.forEach(order -> count(totals, order, 1));
+            Instant windowStart = Instant.ofEpochSecond((currentHour() - windowHours + 1) * HOUR_SECONDS);
+            Instant windowEnd = Instant.ofEpochSecond((currentHour() + 1) * HOUR_SECONDS);
+            List<Order> recent = new ArrayList<>(orderRepository.findCreatedBetween(windowStart, windowEnd));
+            recent.addAll(orderArchive.findCreatedBetween(windowStart, windowEnd));
+            for (Order order : recent) {
+                Bucket bucket = bucket(hourOf(order));
+                if (bucket != null) {
+                    count(bucket.items, order, 1);
+                }
+            }
+            logger.info("Sales analytics rebuilt for {} items", totals.size());
+        } catch (DataAccessException e) {
+            logger.warn("Could not rebuild sales analytics, starting from zero: {}", e.getMessage());
+        }
+    }
+
+    public void onCreated(Order order) {
+        record(order, 1);
+    }
+
+    public void onUpdated(Order before, Order after) {
+        record(before, -1);
+        record(after, 1);
+    }
+
+    public void onDeleted(Order order) {
+        record(order, -1);
+    }
+
+    /**
+     * Items with at least one order, best first by the given ranking.
+     */
+    public List<ItemSalesDTO> topItems(int limit, Ranking ranking) {
+        return totals.entrySet().stream()
+                .map(entry -> new ItemSalesDTO(entry.getKey(), entry.getValue().orders.sum(),
+                        entry.getValue().quantity.sum(), toAmount(entry.getValue().revenueCents.sum())))
+                .filter(sales -> sales.getOrders() > 0)
+                .sorted(ranking.comparator.reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Revenue per item in buckets of {@code bucketHours} hours over the window, oldest first.
+     * Buckets are aligned to UTC, so 24-hour buckets are calendar days and the first one may be partial.
+     */
+    public List<RevenueBucketDTO> revenue(int bucketHours) {
+        long current = currentHour();
+        long first = current - windowHours + 1;
+        first -= Math.floorMod(first, bucketHours);
+        List<RevenueBucketDTO> result = new ArrayList<>();
+        for (long start = first; start <= current; start += bucketHours) {
+            Map<Long, Long> cents = new TreeMap<>();
+            for (long hour = start; hour < start + bucketHours && hour <= current; hour++) {
+                Bucket bucket = existingBucket(hour);
+                if (bucket != null) {
+                    bucket.items.forEach((itemId, counter) -> cents.merge(itemId, counter.revenueCents.sum(), Long::sum));
+                }
+            }
+            Map<Long, BigDecimal> items = new TreeMap<>();
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : cents.entrySet()) {
+                if (entry.getValue() != 0) {
+                    items.put(entry.getKey(), toAmount(entry.getValue()));
+                    total += entry.getValue();
+                }
+            }
+            result.add(new RevenueBucketDTO(Instant.ofEpochSecond(start * HOUR_SECONDS), toAmount(total), items));
+        }
+        return result;
+    }
+
+    private void record(Order order, int sign) {
+        count(totals, order, sign);
+        Bucket bucket = bucket(hourOf(order));
+        if (bucket != null) {
+            count(bucket.items, order, sign);
+        }
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) an order's lines. An item on several lines is still one order.
+     */
+    private static void count(Map<Long, Counter> counters, Order order, int sign) {
+        Map<Long, long[]> sales = new TreeMap<>();
+        for (OrderLine line : order.getLines()) {
+            long[] itemSales = sales.computeIfAbsent(line.getItemId(), id -> new long[2]);
+            itemSales[0] += line.getQuantity();
+            itemSales[1] += toCents(line.getLineTotal());
+        }
+        sales.forEach((itemId, itemSales) -> counter(counters, itemId).add(sign, sign * itemSales[0], sign * itemSales[1]));
+    }
+
+    /**
+     * The bucket for an hour inside the window, taking over the ring slot from the hour it held
+     * {@code windowHours} ago. Null for hours outside the window.
+     */
+    private Bucket bucket(long hour) {
+        long current = currentHour();
+        if (hour > current || hour <= current - windowHours) {
+            return null;
+        }
+        int index = (int) Math.floorMod(hour, (long) windowHours);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.hour >= hour) {
+                return bucket.hour == hour ? bucket : null;
+            }
+            Bucket fresh = new Bucket(hour);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private Bucket existingBucket(long hour) {
+        Bucket bucket = buckets.get((int) Math.floorMod(hour, (long) windowHours));
+        return bucket != null && bucket.hour == hour ? bucket : null;
+    }
+
+    private static long currentHour() {
+        return Math.floorDiv(Instant.now().getEpochSecond(), HOUR_SECONDS);
+    }
+
+    private static long hourOf(Order order) {
+        return order.getCreatedAt() != null
+                ? Math.floorDiv(order.getCreatedAt().getEpochSecond(), HOUR_SECONDS)
+                : currentHour();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static Counter counter(Map<Long, Counter> counters, Long itemId) {
+        return counters.computeIfAbsent(itemId, id -> new Counter());
+    }
+
+    public enum Ranking {
+        ORDERS(Comparator.comparingLong(ItemSalesDTO::getOrders)),
+        QUANTITY(Comparator.comparingLong(ItemSalesDTO::getQuantity)),
+        REVENUE(Comparator.comparing(ItemSalesDTO::getRevenue));
+
+        private final Comparator<ItemSalesDTO> comparator;
+
+        Ranking(Comparator<ItemSalesDTO> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    private static final class Counter {
+
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder quantity = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+
+        void add(long count, long units, long cents) {
+            orders.add(count);
+            quantity.add(units);
+            revenueCents.add(cents);
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long hour;
+        private final Map<Long, Counter> items = new ConcurrentHashMap<>();
+
+        Bucket(long hour) {
+            this.hour = hour;
+        }
+    }
+}
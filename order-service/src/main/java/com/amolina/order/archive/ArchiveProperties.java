@@ -0,0 +1,26 @@
+package com.amolina.order.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "order.archive")
+public class ArchiveProperties {
+
+    /** Runs the archiver; segments already on disk are read either way. */
+    private boolean enabled = false;
+    private String directory = "data/order-archive";
+    /** Orders created longer ago than this are moved out of the database. */
+    private Duration age = Duration.ofDays(365);
+    private Duration interval = Duration.ofDays(1);
+    /** How often segments written by other instances sharing the directory are picked up. */
+    private Duration rescanInterval = Duration.ofMinutes(1);
+    /** Orders per segment file, and per archiving transaction. */
+    private int segmentSize = 30000;
+    /** Size of each segment's customer-id bloom filter; 10 bits give about 1% false positives. */
+    private int bloomBitsPerKey = 10;
+}
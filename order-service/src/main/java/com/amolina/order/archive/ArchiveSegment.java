@@ -0,0 +1,368 @@
+package com.amolina.order.archive;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable file of archived orders, stored by column and read through a memory mapping.
+ * <p>
+ * The header holds the row and line counts, the min/max order id, creation time and customer id, a bloom
+ * filter of the customer ids and the size of each column. Each column is its values in order-id order,
+ * delta-encoded as zig-zag varints and deflated, so sorted ids and timestamps shrink to a byte or two per row.
+ * A lookup first checks the header, then inflates only the column it filters on, and the other columns only
+ * when a row matches. Only the header is kept on the heap.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x4f415243; // "OARC"
+    private static final int VERSION = 1;
+
+    private static final int ORDER_ID = 0;
+    private static final int CUSTOMER_ID = 1;
+    private static final int CREATED_AT = 2;
+    private static final int SUBTOTAL = 3;
+    private static final int TAX = 4;
+    private static final int TOTAL = 5;
+    private static final int LINE_COUNT = 6;
+    private static final int ITEM_ID = 7;
+    private static final int QUANTITY = 8;
+    private static final int UNIT_PRICE = 9;
+    private static final int COLUMNS = 10;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final int lines;
+    private final long minOrderId;
+    private final long maxOrderId;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+    private final long minCustomerId;
+    private final long maxCustomerId;
+    private final BloomFilter customers;
+    private final int[] offsets = new int[COLUMNS];
+    private final int[] compressedLengths = new int[COLUMNS];
+    private final int[] rawLengths = new int[COLUMNS];
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        ByteBuffer header = buffer.duplicate();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not an order archive segment: " + path);
+        }
+        rows = header.getInt();
+        lines = header.getInt();
+        minOrderId = header.getLong();
+        maxOrderId = header.getLong();
+        minCreatedAt = header.getLong();
+        maxCreatedAt = header.getLong();
+        minCustomerId = header.getLong();
+        maxCustomerId = header.getLong();
+        customers = BloomFilter.read(header);
+        for (int column = 0; column < COLUMNS; column++) {
+            compressedLengths[column] = header.getInt();
+            rawLengths[column] = header.getInt();
+        }
+        int offset = header.position();
+        for (int column = 0; column < COLUMNS; column++) {
+            offsets[column] = offset;
+            offset += compressedLengths[column];
+        }
+        if (offset != buffer.capacity()) {
+            throw new IOException("Truncated order archive segment: " + path);
+        }
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated order archive segment: " + path, e);
+        }
+    }
+
+    /**
+     * Writes {@code orders} (with their lines) to a new segment file and forces it to disk.
+     */
+    static void write(Path path, List<Order> orders, int bloomBitsPerKey) throws IOException {
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(Order::getOrderId));
+
+        ColumnWriter[] columns = new ColumnWriter[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = new ColumnWriter();
+        }
+        Set<Long> customerIds = new HashSet<>();
+        long minCreatedAt = Long.MAX_VALUE;
+        long maxCreatedAt = Long.MIN_VALUE;
+        long minCustomerId = Long.MAX_VALUE;
+        long maxCustomerId = Long.MIN_VALUE;
+        int lines = 0;
+        for (Order order : sorted) {
+            long createdAt = toMicros(order.getCreatedAt());
+            columns[ORDER_ID].add(order.getOrderId());
+            columns[CUSTOMER_ID].add(order.getCustomerId());
+            columns[CREATED_AT].add(createdAt);
+            columns[SUBTOTAL].add(toCents(order.getSubtotal()));
+            columns[TAX].add(toCents(order.getTax()));
+            columns[TOTAL].add(toCents(order.getTotal()));
+            columns[LINE_COUNT].add(order.getLines().size());
+            for (OrderLine line : order.getLines()) {
+                columns[ITEM_ID].add(line.getItemId());
+                columns[QUANTITY].add(line.getQuantity());
+                columns[UNIT_PRICE].add(toCents(line.getUnitPrice()));
+            }
+            lines += order.getLines().size();
+            customerIds.add(order.getCustomerId());
+            minCreatedAt = Math.min(minCreatedAt, createdAt);
+            maxCreatedAt = Math.max(maxCreatedAt, createdAt);
+            minCustomerId = Math.min(minCustomerId, order.getCustomerId());
+            maxCustomerId = Math.max(maxCustomerId, order.getCustomerId());
+        }
+        BloomFilter bloom = BloomFilter.create(customerIds.size(), bloomBitsPerKey);
+        customerIds.forEach(bloom::add);
+
+        byte[][] compressed = new byte[COLUMNS][];
+        int size = 4 * 4 + 6 * 8 + bloom.serializedSize() + COLUMNS * 8;
+        for (int column = 0; column < COLUMNS; column++) {
+            compressed[column] = columns[column].compress();
+            size += compressed[column].length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(lines);
+        out.putLong(sorted.get(0).getOrderId()).putLong(sorted.get(sorted.size() - 1).getOrderId());
+        out.putLong(minCreatedAt).putLong(maxCreatedAt).putLong(minCustomerId).putLong(maxCustomerId);
+        bloom.write(out);
+        for (int column = 0; column < COLUMNS; column++) {
+            out.putInt(compressed[column].length).putInt(columns[column].size());
+        }
+        for (byte[] column : compressed) {
+            out.put(column);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+    }
+
+    int size() {
+        return rows;
+    }
+
+    boolean mayContainOrder(long orderId) {
+        return orderId >= minOrderId && orderId <= maxOrderId;
+    }
+
+    boolean mayContainCustomer(long customerId) {
+        return customerId >= minCustomerId && customerId <= maxCustomerId && customers.mightContain(customerId);
+    }
+
+    /**
+     * Whether the segment may hold orders created in [from, to).
+     */
+    boolean mayContainCreatedBetween(Instant from, Instant to) {
+        return maxCreatedAt >= toMicros(from) && minCreatedAt < toMicros(to);
+    }
+
+    List<Order> findById(long orderId) {
+        return mayContainOrder(orderId) ? find(ORDER_ID, id -> id == orderId) : List.of();
+    }
+
+    List<Order> findByCustomerId(long customerId) {
+        return mayContainCustomer(customerId) ? find(CUSTOMER_ID, id -> id == customerId) : List.of();
+    }
+
+    List<Order> findCreatedBetween(Instant from, Instant to) {
+        if (!mayContainCreatedBetween(from, to)) {
+            return List.of();
+        }
+        long fromMicros = toMicros(from);
+        long untilMicros = toMicros(to);
+        return find(CREATED_AT, createdAt -> createdAt >= fromMicros && createdAt < untilMicros);
+    }
+
+    long minOrderId() {
+        return minOrderId;
+    }
+
+    /**
+     * Orders with ids above {@code afterId}.
+     */
+    List<Order> findAfter(long afterId) {
+        return maxOrderId > afterId ? find(ORDER_ID, id -> id > afterId) : List.of();
+    }
+
+    List<Order> findAll() {
+        return find(ORDER_ID, id -> true);
+    }
+
+    /**
+     * Orders whose value in {@code column} passes {@code filter}, in order-id order.
+     */
+    private List<Order> find(int column, LongPredicate filter) {
+        long[] values = read(column, rows);
+        List<Integer> matches = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            if (filter.test(values[row])) {
+                matches.add(row);
+            }
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        long[] orderIds = column == ORDER_ID ? values : read(ORDER_ID, rows);
+        long[] customerIds = column == CUSTOMER_ID ? values : read(CUSTOMER_ID, rows);
+        long[] createdAts = column == CREATED_AT ? values : read(CREATED_AT, rows);
+        long[] subtotals = read(SUBTOTAL, rows);
+        long[] taxes = read(TAX, rows);
+        long[] totals = read(TOTAL, rows);
+        long[] lineCounts = read(LINE_COUNT, rows);
+        long[] itemIds = read(ITEM_ID, lines);
+        long[] quantities = read(QUANTITY, lines);
+        long[] unitPrices = read(UNIT_PRICE, lines);
+
+        int[] firstLines = new int[rows];
+        for (int row = 1; row < rows; row++) {
+            firstLines[row] = firstLines[row - 1] + (int) lineCounts[row - 1];
+        }
+        List<Order> orders = new ArrayList<>(matches.size());
+        for (int row : matches) {
+            Order order = new Order();
+            order.setOrderId(orderIds[row]);
+            order.setCustomerId(customerIds[row]);
+            order.setCreatedAt(Instant.EPOCH.plus(createdAts[row], ChronoUnit.MICROS));
+            order.setSubtotal(toAmount(subtotals[row]));
+            order.setTax(toAmount(taxes[row]));
+            order.setTotal(toAmount(totals[row]));
+            for (int line = firstLines[row]; line < firstLines[row] + lineCounts[row]; line++) {
+                order.getLines().add(new OrderLine(itemIds[line], (int) quantities[line], toAmount(unitPrices[line])));
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private long[] read(int column, int count) {
+        ByteBuffer input = buffer.duplicate();
+        input.position(offsets[column]).limit(offsets[column] + compressedLengths[column]);
+        byte[] raw = new byte[rawLengths[column]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != raw.length) {
+                throw new IllegalStateException("Corrupt column " + column + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt column " + column + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+
+        long[] values = new long[count];
+        long previous = 0;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = raw[position++];
+                zigzag |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    /**
+     * Creation times are kept at the database's microsecond precision.
+     */
+    private static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Collects one column as zig-zag varint deltas.
+     */
+    private static final class ColumnWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private long previous;
+
+        void add(long value) {
+            long delta = value - previous;
+            previous = value;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7fL) != 0) {
+                bytes.write((int) ((zigzag & 0x7f) | 0x80));
+                zigzag >>>= 7;
+            }
+            bytes.write((int) zigzag);
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        byte[] compress() {
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setInput(bytes.toByteArray());
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.size() / 4));
+                byte[] chunk = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(chunk, 0, deflater.deflate(chunk));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.amolina.order.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Set membership for long keys with no false negatives. Positions come from double hashing one 64-bit mix of
+ * the key, so adding and testing cost a single hash however many probes there are.
+ */
+final class BloomFilter {
+
+    private final long[] words;
+    private final int hashes;
+
+    private BloomFilter(long[] words, int hashes) {
+        this.words = words;
+        this.hashes = hashes;
+    }
+
+    /**
+     * An empty filter sized for {@code keys} keys at {@code bitsPerKey} bits each (10 bits give about 1%
+     * false positives).
+     */
+    static BloomFilter create(int keys, int bitsPerKey) {
+        long bits = Math.max(64L, (long) keys * bitsPerKey);
+        int hashes = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+        return new BloomFilter(new long[(int) ((bits + 63) / 64)], hashes);
+    }
+
+    static BloomFilter read(ByteBuffer buffer) {
+        int hashes = buffer.getInt();
+        long[] words = new long[buffer.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return new BloomFilter(words, hashes);
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.putInt(hashes);
+        buffer.putInt(words.length);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+    }
+
+    int serializedSize() {
+        return 8 + words.length * 8;
+    }
+
+    void add(long key) {
+        long hash = mix(key);
+        long bits = words.length * 64L;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod((int) hash + i * (int) (hash >>> 32), bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long key) {
+        long hash = mix(key);
+        long bits = words.length * 64L;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod((int) hash + i * (int) (hash >>> 32), bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer; consecutive ids end up far apart.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
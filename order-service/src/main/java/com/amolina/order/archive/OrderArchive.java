@@ -0,0 +1,226 @@
+package com.amolina.order.archive;
+
+import com.amolina.order.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Orders moved out of the database by {@link OrderArchiver}, held in {@link ArchiveSegment} files under
+ * {@code order.archive.directory}. Archived orders are read-only.
+ * <p>
+ * A segment is written as {@code .pending} before its orders are deleted from the database and renamed to
+ * {@code .seg} after the delete commits; only {@code .seg} files are read. Instances sharing the directory
+ * pick up each other's new segments every {@code order.archive.rescan-interval}.
+ */
+@Component
+public class OrderArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchive.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final Set<Path> opened = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService rescan = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-archive-rescan");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Path directory;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @PostConstruct
+    public void load() {
+        directory = Paths.get(properties.getDirectory());
+        try {
+            refresh();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the order archive in " + directory, e);
+        }
+        logger.info("Order archive opened with {} segments ({} orders)", segments.size(),
+                segments.stream().mapToLong(ArchiveSegment::size).sum());
+        long interval = properties.getRescanInterval().toMillis();
+        rescan.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not rescan the order archive: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rescan.shutdownNow();
+    }
+
+    public Optional<Order> findById(Long orderId) {
+        for (ArchiveSegment segment : segments) {
+            List<Order> orders = segment.findById(orderId);
+            if (!orders.isEmpty()) {
+                return Optional.of(orders.get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Order> findByCustomerId(Long customerId) {
+        List<Order> orders = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            orders.addAll(segment.findByCustomerId(customerId));
+        }
+        return orders;
+    }
+
+    /**
+     * Archived orders created in [from, to); segments outside the range are skipped without being read.
+     */
+    public List<Order> findCreatedBetween(Instant from, Instant to) {
+        List<Order> orders = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            orders.addAll(segment.findCreatedBetween(from, to));
+        }
+        return orders;
+    }
+
+    /**
+     * The first {@code limit} archived orders with ids above {@code afterId}, lowest first. Segments are read
+     * in id order and only until the page is full, so a page costs a segment or two rather than the archive.
+     */
+    public List<Order> findAfter(long afterId, int limit) {
+        List<ArchiveSegment> candidates = new ArrayList<>(segments);
+        candidates.sort(Comparator.comparingLong(ArchiveSegment::minOrderId));
+        List<Order> orders = new ArrayList<>();
+        for (ArchiveSegment segment : candidates) {
+            if (orders.size() >= limit && segment.minOrderId() > orders.get(limit - 1).getOrderId()) {
+                break;
+            }
+            orders.addAll(segment.findAfter(afterId));
+            orders.sort(Comparator.comparing(Order::getOrderId));
+        }
+        return orders.size() > limit ? new ArrayList<>(orders.subList(0, limit)) : orders;
+    }
+
+    /**
+     * Visits every archived order one segment at a time, so only one segment's orders are on the heap at once.
+     */
+    public void forEach(Consumer<Order> action) {
+        for (ArchiveSegment segment : segments) {
+            segment.findAll().forEach(action);
+        }
+    }
+
+    /**
+     * Writes {@code orders} to a pending segment that is not read until {@link #publish} is called.
+     */
+    Path write(List<Order> orders) throws IOException {
+        Files.createDirectories(directory);
+        Path pending = directory.resolve(String.format("orders-%019d-%019d%s",
+                orders.stream().mapToLong(Order::getOrderId).min().orElseThrow(),
+                orders.stream().mapToLong(Order::getOrderId).max().orElseThrow(), PENDING_SUFFIX));
+        ArchiveSegment.write(pending, orders, properties.getBloomBitsPerKey());
+        return pending;
+    }
+
+    /**
+     * Makes a pending segment readable once its orders are gone from the database. Another instance may
+     * already have completed it.
+     */
+    void publish(Path pending) throws IOException {
+        Path file = segmentPath(pending);
+        if (Files.exists(pending)) {
+            Files.move(pending, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+        open(file);
+    }
+
+    /**
+     * Removes a pending segment whose orders stayed in the database.
+     */
+    void discard(Path pending) {
+        try {
+            Files.deleteIfExists(pending);
+        } catch (IOException e) {
+            logger.warn("Could not remove pending archive segment {}: {}", pending, e.getMessage());
+        }
+    }
+
+    /**
+     * Pending segments left behind by an archiver that stopped between writing and publishing them.
+     */
+    List<Path> pending() throws IOException {
+        return new ArrayList<>(list(PENDING_SUFFIX));
+    }
+
+    /**
+     * The ids in a pending segment.
+     *
+     * @throws IOException when the file was only partly written
+     */
+    List<Long> orderIds(Path pending) throws IOException {
+        try {
+            return ArchiveSegment.open(pending).findAll().stream()
+                    .map(Order::getOrderId)
+                    .collect(Collectors.toList());
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void refresh() throws IOException {
+        for (Path file : list(SEGMENT_SUFFIX)) {
+            open(file);
+        }
+    }
+
+    private synchronized void open(Path file) throws IOException {
+        if (!opened.contains(file)) {
+            segments.add(ArchiveSegment.open(file));
+            opened.add(file);
+        }
+    }
+
+    private TreeSet<Path> list(String suffix) throws IOException {
+        TreeSet<Path> files = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + suffix)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    private static Path segmentPath(Path pending) {
+        String name = pending.getFileName().toString();
+        return pending.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+    }
+}
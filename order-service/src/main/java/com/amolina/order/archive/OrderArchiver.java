@@ -0,0 +1,238 @@
+package com.amolina.order.archive;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders created more than {@code order.archive.age} ago from the database into the {@link OrderArchive},
+ * {@code order.archive.segment-size} orders per transaction, every {@code order.archive.interval}. Monthly
+ * partitions that end before the cutoff and are left empty are dropped, so the order table only holds the
+ * recent months.
+ * <p>
+ * Every transaction takes a Postgres advisory lock, so with several instances sharing the archive directory
+ * one archives at a time. A run first settles pending segments left by a crash: one whose orders are gone from
+ * the database (the delete committed) is published, any other is removed.
+ */
+@Component
+@ConditionalOnProperty(value = "order.archive.enabled", havingValue = "true")
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    /** Advisory lock key held by the transaction that archives or settles pending segments. */
+    private static final long LOCK_KEY = 0x6f72646572L; // "order"
+
+    /** Ids bound per statement when checking a pending segment, well below PostgreSQL's 32767 parameters. */
+    private static final int IDS_PER_QUERY = 1000;
+
+    private static final Pattern PARTITION = Pattern.compile("order_p(\\d{4})_(\\d{2})");
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private OrderArchive archive;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::archive, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void archive() {
+        Instant cutoff = Instant.now().minus(properties.getAge());
+        long archived = 0;
+        try {
+            recoverPending();
+            int batch;
+            do {
+                batch = archiveBatch(cutoff);
+                archived += batch;
+            } while (batch == properties.getSegmentSize());
+            dropEmptyPartitions(cutoff);
+        } catch (DataAccessException | UncheckedIOException e) {
+            logger.warn("Order archiving stopped after {} orders: {}", archived, e.getMessage());
+            return;
+        }
+        if (archived > 0) {
+            logger.info("Archived {} orders created before {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Archives the oldest-id orders created before {@code cutoff}, up to one segment's worth.
+     *
+     * @return the number of orders archived
+     */
+    private int archiveBatch(Instant cutoff) {
+        Path[] pending = new Path[1];
+        List<Order> orders;
+        try {
+            orders = new TransactionTemplate(transactionManager).execute(status -> {
+                if (!tryLock()) {
+                    logger.debug("Another instance is archiving orders");
+                    return List.of();
+                }
+                List<Long> orderIds = orderRepository.findIdsCreatedBefore(cutoff,
+                        PageRequest.of(0, properties.getSegmentSize()));
+                if (orderIds.isEmpty()) {
+                    return List.of();
+                }
+                // The page holds every id in its range that is past the cutoff, so the range selects exactly it
+                List<Order> batch = orderRepository.findCreatedBeforeInIdRange(cutoff, orderIds.get(0),
+                        orderIds.get(orderIds.size() - 1));
+                try {
+                    pending[0] = archive.write(batch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                List<Object[]> rows = orderIds.stream().map(id -> new Object[]{id}).collect(Collectors.toList());
+                jdbcTemplate.batchUpdate("DELETE FROM order_line WHERE order_id = ?", rows);
+                jdbcTemplate.batchUpdate("DELETE FROM \"order\" WHERE order_id = ?", rows);
+                return batch;
+            });
+        } catch (RuntimeException e) {
+            if (pending[0] != null) {
+                archive.discard(pending[0]);
+            }
+            throw e;
+        }
+        if (pending[0] != null) {
+            try {
+                archive.publish(pending[0]);
+            } catch (IOException e) {
+                // The orders are only in the pending file now; it is completed at the next start
+                throw new UncheckedIOException(e);
+            }
+        }
+        return orders.size();
+    }
+
+    /**
+     * Publishes or removes the pending segments of an archiver that stopped before publishing them.
+     */
+    private void recoverPending() {
+        List<Path> pendingSegments;
+        try {
+            pendingSegments = archive.pending();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Path pending : pendingSegments) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!tryLock()) {
+                    return;
+                }
+                try {
+                    List<Long> orderIds;
+                    try {
+                        orderIds = archive.orderIds(pending);
+                    } catch (NoSuchFileException e) {
+                        return;
+                    } catch (IOException e) {
+                        // Only partly written, so the delete that follows the write never ran
+                        logger.warn("Removing unreadable pending archive segment {}: {}", pending, e.getMessage());
+                        archive.discard(pending);
+                        return;
+                    }
+                    if (anyInDatabase(orderIds)) {
+                        logger.info("Removing pending archive segment {}; its orders are still in the database", pending);
+                        archive.discard(pending);
+                    } else {
+                        logger.info("Publishing pending archive segment {}", pending);
+                        archive.publish(pending);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private boolean anyInDatabase(List<Long> orderIds) {
+        for (int from = 0; from < orderIds.size(); from += IDS_PER_QUERY) {
+            List<Long> chunk = orderIds.subList(from, Math.min(orderIds.size(), from + IDS_PER_QUERY));
+            if (orderRepository.countByOrderIdIn(chunk) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                LOCK_KEY));
+    }
+
+    /**
+     * Drops the monthly partitions that end at or before {@code cutoff} and hold no rows.
+     */
+    private void dropEmptyPartitions(Instant cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = '\"order\"'::regclass", String.class);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            Instant end = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            if (end.isAfter(cutoff)) {
+                continue;
+            }
+            Boolean hasRows = jdbcTemplate.queryForObject(
+                    String.format("SELECT EXISTS (SELECT 1 FROM %s)", partition), Boolean.class);
+            if (!Boolean.TRUE.equals(hasRows)) {
+                jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", partition));
+                logger.info("Dropped empty order partition {}", partition);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.amolina.order.batching;
+
+import com.amolina.common.deadline.RequestDeadline;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent lookups by id against one downstream into multi-id requests.
+ * <p>
+ * The first lookup to arrive opens a batch and waits up to {@code window} for others to join. The batch is sent
+ * when the window ends or as soon as it holds {@code max-batch-size} distinct ids. An id asked for by several
+ * callers is requested once. The caller that opened the batch sends it on its own thread, so its bearer token
+ * and correlation id go downstream, under the earliest deadline among the batch's callers. Only callers with the
+ * same {@code callerKey} (the bearer token) share a batch, so no caller's ids are fetched with another's
+ * credentials.
+ */
+public class BatchLoader<V> {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<Collection<Long>, Map<Long, V>> batchCall;
+    private final Supplier<Object> callerKey;
+    private final DistributionSummary batchSizes;
+    private final Timer waitTimes;
+    private final Object lock = new Object();
+    /** The batch still taking ids, per caller key; a null key is a caller without credentials. */
+    private final Map<Object, Batch<V>> open = new HashMap<>();
+
+    BatchLoader(BatchingProperties.InstanceProperties config, Function<Collection<Long>, Map<Long, V>> batchCall,
+                Supplier<Object> callerKey, DistributionSummary batchSizes, Timer waitTimes) {
+        this.windowNanos = config.getWindow().toNanos();
+        this.maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        this.batchCall = batchCall;
+        this.callerKey = callerKey;
+        this.batchSizes = batchSizes;
+        this.waitTimes = waitTimes;
+    }
+
+    /**
+     * The value for {@code id}, or {@code null} if the downstream does not know it.
+     */
+    public V load(Long id) {
+        return loadAll(List.of(id)).get(id);
+    }
+
+    /**
+     * Values for {@code ids}; ids the downstream does not know are missing from the result. Ids beyond
+     * {@code max-batch-size} are spread over several requests.
+     *
+     * @throws RuntimeException what the batch call threw, if it did not fall back
+     */
+    public Map<Long, V> loadAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        long enqueuedNanos = System.nanoTime();
+        Long deadline = RequestDeadline.get();
+        Object key = callerKey.get();
+        Map<Long, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        List<Batch<V>> joined = new ArrayList<>();
+        List<Batch<V>> opened = new ArrayList<>();
+        synchronized (lock) {
+            for (Long id : ids) {
+                if (futures.containsKey(id)) {
+                    continue;
+                }
+                Batch<V> batch = open.get(key);
+                if (batch == null) {
+                    batch = new Batch<>(key);
+                    open.put(key, batch);
+                    opened.add(batch);
+                }
+                if (!joined.contains(batch)) {
+                    joined.add(batch);
+                }
+                futures.put(id, batch.add(id, deadline));
+                if (batch.futures.size() >= maxBatchSize) {
+                    batch.closed.countDown();
+                    open.remove(key);
+                }
+            }
+        }
+
+        // Batches filled while adding come first and go out at once; the last one may wait out its window
+        for (Batch<V> batch : opened) {
+            awaitWindow(batch);
+            send(batch);
+        }
+
+        Map<Long, V> values = new LinkedHashMap<>();
+        for (Map.Entry<Long, CompletableFuture<V>> entry : futures.entrySet()) {
+            V value = join(entry.getValue());
+            if (value != null) {
+                values.put(entry.getKey(), value);
+            }
+        }
+        long sentNanos = joined.stream().mapToLong(batch -> batch.sentNanos).max().orElse(enqueuedNanos);
+        waitTimes.record(sentNanos - enqueuedNanos, TimeUnit.NANOSECONDS);
+        return values;
+    }
+
+    private void awaitWindow(Batch<V> batch) {
+        long remainingNanos = batch.openedNanos + windowNanos - System.nanoTime();
+        try {
+            batch.closed.await(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // Send right away; the callers already in the batch are waiting for it
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(Batch<V> batch) {
+        synchronized (lock) {
+            open.remove(batch.key, batch);
+        }
+        batch.closed.countDown();
+        batch.sentNanos = System.nanoTime();
+        batchSizes.record(batch.futures.size());
+
+        Long callerDeadline = RequestDeadline.get();
+        RequestDeadline.set(batch.deadline);
+        try {
+            Map<Long, V> values = batchCall.apply(batch.futures.keySet());
+            batch.futures.forEach((id, future) -> future.complete(values.get(id)));
+        } catch (RuntimeException | Error e) {
+            // Every caller of the batch, including this one, sees the failure when it joins
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            if (callerDeadline != null) {
+                RequestDeadline.set(callerDeadline);
+            } else {
+                RequestDeadline.clear();
+            }
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ids collected for one downstream request. Ids and the deadline are only changed under the loader's lock,
+     * and only until the batch is closed.
+     */
+    private static final class Batch<V> {
+
+        private final Object key;
+        private final Map<Long, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final long openedNanos = System.nanoTime();
+        private Long deadline;
+        private volatile long sentNanos;
+
+        Batch(Object key) {
+            this.key = key;
+        }
+
+        CompletableFuture<V> add(Long id, Long callerDeadline) {
+            if (callerDeadline != null && (deadline == null || callerDeadline < deadline)) {
+                deadline = callerDeadline;
+            }
+            return futures.computeIfAbsent(id, key -> new CompletableFuture<>());
+        }
+    }
+}
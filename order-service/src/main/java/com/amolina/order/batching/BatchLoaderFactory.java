@@ -0,0 +1,52 @@
+package com.amolina.order.batching;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.amolina.order.config.FeignClientInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates one {@link BatchLoader} per downstream and publishes its batch sizes and wait times as Micrometer
+ * histograms tagged with the loader name. Lookups are batched per bearer token, since the batch goes
+ * downstream with one caller's credentials.
+ */
+@Component
+public class BatchLoaderFactory {
+
+    @Autowired
+    private BatchingProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * A loader for {@code name}, configured by {@code batching.instances.<name>}.
+     *
+     * @param batchCall the multi-id request; ids it does not return are treated as unknown
+     */
+    public <V> BatchLoader<V> create(String name, Function<Collection<Long>, Map<Long, V>> batchCall) {
+        DistributionSummary batchSizes = DistributionSummary.builder("batch.loader.size")
+                .description("Distinct ids per downstream request")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(1, 2, 5, 10, 25, 50, 100)
+                .register(meterRegistry);
+        Timer waitTimes = Timer.builder("batch.loader.wait")
+                .description("Time a lookup waited for its batch to be sent")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(Duration.of(500, ChronoUnit.MICROS), Duration.ofMillis(1), Duration.ofMillis(2),
+                        Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25))
+                .register(meterRegistry);
+        return new BatchLoader<>(properties.getInstance(name), batchCall, FeignClientInterceptor::currentAccessToken,
+                batchSizes, waitTimes);
+    }
+}
@@ -0,0 +1,29 @@
+package com.amolina.order.batching;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "batching")
+public class BatchingProperties {
+
+    private Map<String, InstanceProperties> instances = new HashMap<>();
+
+    public InstanceProperties getInstance(String name) {
+        return instances.getOrDefault(name, new InstanceProperties());
+    }
+
+    @Data
+    public static class InstanceProperties {
+        /** How long the first lookup of a batch waits for others to join; zero sends every lookup at once. */
+        private Duration window = Duration.ofMillis(2);
+        /** Distinct ids per downstream request; a full batch is sent without waiting out the window. */
+        private int maxBatchSize = 100;
+    }
+}
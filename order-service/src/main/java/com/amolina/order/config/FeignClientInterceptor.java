@@ -1,9 +1,12 @@
 package com.amolina.order.config;
 
+import com.amolina.common.deadline.RequestDeadline;
+import com.amolina.common.tracing.CorrelationIdFilter;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import org.keycloak.KeycloakSecurityContext;
 import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.slf4j.MDC;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -16,17 +19,36 @@ public class FeignClientInterceptor implements RequestInterceptor {
 
     @Override
     public void apply(RequestTemplate template) {
+        String accessToken = currentAccessToken();
+        if (accessToken != null) {
+            template.header(AUTHORIZATION_HEADER, String.format("%s %s", BEARER_TOKEN_TYPE, accessToken));
+        }
+
+        String correlationId = MDC.get(CorrelationIdFilter.MDC_KEY);
+        if (correlationId != null) {
+            template.header(CorrelationIdFilter.CORRELATION_ID, correlationId);
+        }
+
+        Long deadline = RequestDeadline.get();
+        if (deadline != null) {
+            template.header(RequestDeadline.HEADER, deadline.toString());
+        }
+    }
+
+    /**
+     * The bearer token a downstream call made on this thread carries, or null when it goes without one.
+     */
+    public static String currentAccessToken() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
         if (authentication instanceof KeycloakAuthenticationToken) {
-            KeycloakAuthenticationToken keycloakToken = (KeycloakAuthenticationToken) authentication;
-            KeycloakSecurityContext securityContext = keycloakToken.getAccount().getKeycloakSecurityContext();
-            String accessToken = securityContext.getTokenString();
-            
-            if (accessToken != null) {
-                template.header(AUTHORIZATION_HEADER, String.format("%s %s", BEARER_TOKEN_TYPE, accessToken));
-            }
+            KeycloakSecurityContext securityContext = ((KeycloakAuthenticationToken) authentication).getAccount()
+                    .getKeycloakSecurityContext();
+            return securityContext.getTokenString();
+        }
+        if (authentication instanceof ServiceAccountAuthentication) {
+            return ((ServiceAccountAuthentication) authentication).getAccessToken();
         }
+        return null;
     }
 }
 
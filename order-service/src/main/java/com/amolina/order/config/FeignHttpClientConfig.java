@@ -0,0 +1,127 @@
+package com.amolina.order.config;
+
+import com.amolina.order.deadline.DeadlineLeaseTimeoutInterceptor;
+import com.amolina.order.resilience.AbortableAttempt;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled keep-alive transport for all Feign clients.
+ * Replaces the connection manager Spring Cloud OpenFeign would create so that idle connections
+ * are evicted before the downstream Tomcat closes them, and so that pool utilisation and
+ * connection lease waits are published as metrics.
+ * The client itself is replaced too, so hedged attempts can abort their requests, see {@link AbortableAttempt},
+ * and so that waiting for a pooled connection is bounded: by {@code feign.httpclient.connection-request-timeout}
+ * and by the remaining request deadline, instead of HttpClient's default of waiting forever.
+ */
+@Configuration
+public class FeignHttpClientConfig {
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "feign-connection-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Bean
+    public HttpClientConnectionManager connectionManager(FeignHttpClientProperties httpClientProperties,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${feign.httpclient.idle-timeout:15s}") Duration idleTimeout) {
+        Timer leaseWait = Timer.builder("feign.pool.lease.wait")
+                .description("Time spent waiting for a pooled connection")
+                .register(meterRegistry);
+        PoolingHttpClientConnectionManager connectionManager = new TimedConnectionManager(
+                httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit(), leaseWait);
+        connectionManager.setMaxTotal(httpClientProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(2000);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "feign").bindTo(meterRegistry);
+
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }, httpClientProperties.getConnectionTimerRepeat(), httpClientProperties.getConnectionTimerRepeat(),
+                TimeUnit.MILLISECONDS);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient feignHttpClient(HttpClientConnectionManager connectionManager,
+                                               FeignHttpClientProperties httpClientProperties,
+                                               @Value("${feign.httpclient.connection-request-timeout:1s}") Duration connectionRequestTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(httpClientProperties.getConnectionTimeout())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .setRedirectsEnabled(httpClientProperties.isFollowRedirects())
+                .build();
+        return HttpClientBuilder.create()
+                .disableCookieManagement()
+                .useSystemProperties()
+                .setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(connectionManager)
+                .addInterceptorFirst(AbortableAttempt.REGISTER_REQUEST)
+                .addInterceptorLast(new DeadlineLeaseTimeoutInterceptor())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    /**
+     * Records how long each caller waits to lease a connection from the pool.
+     */
+    private static class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private final Timer leaseWait;
+
+        TimedConnectionManager(long timeToLive, TimeUnit timeUnit, Timer leaseWait) {
+            super(timeToLive, timeUnit);
+            this.leaseWait = leaseWait;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(timeout, timeUnit);
+                    } finally {
+                        leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
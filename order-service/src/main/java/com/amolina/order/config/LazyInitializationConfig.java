@@ -0,0 +1,27 @@
+package com.amolina.order.config;
+
+import com.amolina.order.analytics.SalesAnalytics;
+import com.amolina.order.archive.OrderArchiver;
+import com.amolina.order.partition.OrderPartitionMaintainer;
+import com.amolina.order.service.client.cache.StaleCacheRefresher;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that must still be created at startup when the faststart profile turns on lazy initialization.
+ * Nothing injects {@link StaleCacheRefresher}; it only subscribes to circuit breaker events, so created
+ * lazily it would never run. {@link OrderPartitionMaintainer} has to create the coming months' partitions
+ * whether or not anything has touched the order table yet, and likewise {@link OrderArchiver} runs on its own
+ * schedule. {@link SalesAnalytics} should rebuild its counters from the database before the first request
+ * rather than during it.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(StaleCacheRefresher.class, OrderPartitionMaintainer.class,
+                OrderArchiver.class, SalesAnalytics.class);
+    }
+}
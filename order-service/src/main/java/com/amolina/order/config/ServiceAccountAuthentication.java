@@ -0,0 +1,35 @@
+package com.amolina.order.config;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * order-service's own identity, for downstream calls made outside any user request. Carries a client-credentials
+ * access token that {@link FeignClientInterceptor} forwards as the bearer token.
+ */
+public class ServiceAccountAuthentication extends AbstractAuthenticationToken {
+
+    private final String clientId;
+    private final String accessToken;
+
+    public ServiceAccountAuthentication(String clientId, String accessToken) {
+        super(AuthorityUtils.NO_AUTHORITIES);
+        this.clientId = clientId;
+        this.accessToken = accessToken;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return accessToken;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return clientId;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+}
@@ -0,0 +1,91 @@
+package com.amolina.order.config;
+
+import org.keycloak.authorization.client.AuthzClient;
+import org.keycloak.representations.AccessTokenResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-credentials tokens for order-service's own Keycloak client, used by background work that has no user
+ * request to take a token from. A token is reused until it is within {@code REFRESH_MARGIN_SECONDS} of expiring.
+ */
+@Component
+public class ServiceAccountTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceAccountTokens.class);
+
+    private static final long REFRESH_MARGIN_SECONDS = 30;
+
+    @Value("${keycloak.auth-server-url:}")
+    private String authServerUrl;
+
+    @Value("${keycloak.realm:}")
+    private String realm;
+
+    @Value("${keycloak.resource:}")
+    private String clientId;
+
+    @Value("${keycloak.credentials.secret:}")
+    private String secret;
+
+    private AuthzClient authzClient;
+    private String accessToken;
+    private long expiresAtNanos;
+
+    /**
+     * A valid access token, or empty if the client has no secret configured or Keycloak cannot issue one.
+     */
+    public synchronized Optional<String> accessToken() {
+        if (accessToken != null && System.nanoTime() < expiresAtNanos) {
+            return Optional.of(accessToken);
+        }
+        accessToken = null;
+        if (secret.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            if (authzClient == null) {
+                authzClient = AuthzClient.create(new org.keycloak.authorization.client.Configuration(
+                        authServerUrl, realm, clientId, Map.of("secret", secret), null));
+            }
+            long requestedNanos = System.nanoTime();
+            AccessTokenResponse response = authzClient.obtainAccessToken();
+            accessToken = response.getToken();
+            expiresAtNanos = requestedNanos
+                    + TimeUnit.SECONDS.toNanos(Math.max(0, response.getExpiresIn() - REFRESH_MARGIN_SECONDS));
+            return Optional.of(accessToken);
+        } catch (RuntimeException e) {
+            logger.warn("Could not obtain a service account token for {}: {}", clientId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs {@code task} as order-service's service account. Returns {@code false} without running it when no token
+     * is available. The thread's own security context is restored afterwards.
+     */
+    public boolean runAsService(Runnable task) {
+        Optional<String> token = accessToken();
+        if (token.isEmpty()) {
+            return false;
+        }
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new ServiceAccountAuthentication(clientId, token.get()));
+        SecurityContextHolder.setContext(context);
+        try {
+            task.run();
+            return true;
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+}
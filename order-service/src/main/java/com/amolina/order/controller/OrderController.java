@@ -2,54 +2,187 @@ package com.amolina.order.controller;
 
 import com.amolina.order.model.Order;
 import com.amolina.order.model.dto.OrderResponseDTO;
+import com.amolina.order.service.MenuUnavailableException;
+import com.amolina.order.service.OrderFields;
 import com.amolina.order.service.OrderService;
+import com.amolina.order.service.VersionConflictException;
+import com.amolina.order.stream.OrderEventBroadcaster;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.annotation.security.RolesAllowed;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    /** Largest page of {@code GET /api/orders}. */
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderEventBroadcaster orderEventBroadcaster;
+
+    /**
+     * A page of orders by id: up to {@code limit} orders with ids above {@code afterId}, lowest first. A full page
+     * carries a {@code Link} header with {@code rel="next"} pointing at the page after it; its absence marks the
+     * last page. With {@code from} (and optionally {@code to}, default now) the orders created in that half-open
+     * range instead, unpaged. Both are ISO-8601 instants, e.g. {@code 2024-05-01T00:00:00Z}. {@code fields} works
+     * as for {@link #getOrderById}.
+     */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<?>> getAllOrders(@RequestParam(required = false) Instant from,
+                                                @RequestParam(required = false) Instant to,
+                                                @RequestParam(defaultValue = "0") long afterId,
+                                                @RequestParam(defaultValue = "100") int limit,
+                                                @RequestParam(required = false) String fields) {
+        OrderFields selection;
+        try {
+            selection = selection(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (from == null && to == null) {
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<Order> orders = orderService.getOrdersAfter(afterId, limit);
+            if (orders.size() < limit) {
+                return ResponseEntity.ok(select(orders, selection));
+            }
+            long nextAfterId = orders.get(orders.size() - 1).getOrderId();
+            return ResponseEntity.ok().header(HttpHeaders.LINK, nextPageLink(nextAfterId, limit))
+                    .body(select(orders, selection));
+        }
+        if (from == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Order> orders = orderService.getOrdersCreatedBetween(from, to != null ? to : Instant.now());
+        return ResponseEntity.ok(select(orders, selection));
+    }
+
+    /**
+     * Server-Sent Events feed of order changes ({@code created}, {@code updated}, {@code deleted}, each carrying
+     * the order), optionally only for one customer or one item. Reconnecting with {@code Last-Event-ID}
+     * resumes after that event; a {@code reset} event means the gap was too large and orders should be reloaded.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                   @RequestParam(required = false) Long customerId,
+                                   @RequestParam(required = false) Long itemId) {
+        return orderEventBroadcaster.subscribe(lastEventId, customerId, itemId);
     }
 
+    /**
+     * Order with pizza and customer details. {@code fields} (e.g. {@code total,lines.pizzaName}) limits the
+     * response to those fields and skips the downstream calls the others would need.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable Long id) {
-        return orderService.getOrderById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable Long id,
+                                                         @RequestParam(required = false) String fields) {
+        OrderFields selection;
+        try {
+            selection = OrderFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return orderService.getOrderById(id, selection)
+                .map(response -> response.getVersion() != null
+                        ? ResponseEntity.ok().eTag(String.valueOf(response.getVersion())).body(response)
+                        : ResponseEntity.ok(response))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * The customer's orders. {@code fields} works as for {@link #getOrderById}.
+     */
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getOrdersByCustomerId(@PathVariable Long customerId) {
+    public ResponseEntity<List<?>> getOrdersByCustomerId(@PathVariable Long customerId,
+                                                         @RequestParam(required = false) String fields) {
+        OrderFields selection;
+        try {
+            selection = selection(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         List<Order> orders = orderService.getOrdersByCustomerId(customerId);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(select(orders, selection));
     }
 
     @RolesAllowed("ADMIN")
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        Order createdOrder = orderService.createOrder(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+        try {
+            Order createdOrder = orderService.createOrder(order);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (MenuUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 
+    /**
+     * Replaces the order's customer and lines and reprices it. With {@code If-Match} (the ETag of a previous read)
+     * only while it is still at that version, answering 409 otherwise; without it, or with {@code *}, whatever
+     * version is current.
+     */
     @RolesAllowed("ADMIN")
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
+    public ResponseEntity<Order> updateOrder(@PathVariable Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody Order order) {
         try {
-            Order updatedOrder = orderService.updateOrder(id, order);
-            return ResponseEntity.ok(updatedOrder);
+            Long version = ifMatch != null ? parseVersion(ifMatch) : null;
+            Order updatedOrder = orderService.updateOrder(id, version, order);
+            return ResponseEntity.ok().eTag(String.valueOf(updatedOrder.getVersion())).body(updatedOrder);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (MenuUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (VersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Changes the order's customer, provided the order is still at the version in {@code If-Match} (the ETag of a
+     * previous read). Answers 204 with the new ETag, 409 if the order changed in between and 428 without
+     * {@code If-Match}. Lines are changed with PUT, which reprices them.
+     */
+    @RolesAllowed("ADMIN")
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchOrder(@PathVariable Long id,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody Order changes) {
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        try {
+            Long expected = parseVersion(ifMatch);
+            if (expected == null) {
+                // The UPDATE is conditional on a version, so "any version" is no precondition for it
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            long version = orderService.patchOrder(id, expected, changes);
+            return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -65,5 +198,54 @@ public class OrderController {
             return ResponseEntity.notFound().build();
         }
     }
-}
 
+    /**
+     * The selection in a list endpoint's {@code fields}, or null without one.
+     *
+     * @throws IllegalArgumentException for an unknown field, or an empty selection
+     */
+    private static OrderFields selection(String fields) {
+        return fields != null ? OrderFields.parse(fields) : null;
+    }
+
+    /**
+     * The orders as they are without a selection, and as responses limited to it with one. Downstream services
+     * are called once for the whole list, and only for the selected fields that need them.
+     */
+    private List<?> select(List<Order> orders, OrderFields selection) {
+        return selection != null ? orderService.getOrderResponses(orders, selection) : orders;
+    }
+
+    /**
+     * {@code Link} value for the page after {@code afterId}. The target is the current request's query with the
+     * cursor moved, given relative to the request so it resolves against the URL the client called, which
+     * behind the gateway is not this service's own.
+     */
+    private static String nextPageLink(long afterId, int limit) {
+        String query = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("afterId", afterId)
+                .replaceQueryParam("limit", limit)
+                .build()
+                .getQuery();
+        return "<?" + query + ">; rel=\"next\"";
+    }
+
+    /**
+     * The version in an ETag such as {@code "3"} or {@code W/"3"}, or null for {@code *} (any version).
+     *
+     * @throws NumberFormatException if it is not one of ours
+     */
+    private static Long parseVersion(String etag) {
+        String value = etag.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return Long.parseLong(value);
+    }
+}
@@ -0,0 +1,58 @@
+package com.amolina.order.controller;
+
+import com.amolina.order.analytics.SalesAnalytics;
+import com.amolina.order.model.dto.ItemSalesDTO;
+import com.amolina.order.model.dto.RevenueBucketDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sales figures served from {@link SalesAnalytics}; none of these endpoints query the order table.
+ */
+@RestController
+@RequestMapping("/api/orders/stats")
+public class OrderStatsController {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    /**
+     * Best-selling items ranked {@code by} order count (default), {@code quantity} or {@code revenue}.
+     */
+    @GetMapping("/top-items")
+    public ResponseEntity<List<ItemSalesDTO>> getTopItems(@RequestParam(defaultValue = "10") int limit,
+                                                          @RequestParam(defaultValue = "orders") String by) {
+        SalesAnalytics.Ranking ranking;
+        try {
+            ranking = SalesAnalytics.Ranking.valueOf(by.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesAnalytics.topItems(limit, ranking));
+    }
+
+    /**
+     * Revenue per item over the analytics window in {@code hour} (default) or {@code day} buckets, oldest first.
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueBucketDTO>> getRevenue(@RequestParam(defaultValue = "hour") String bucket) {
+        switch (bucket) {
+            case "hour":
+                return ResponseEntity.ok(salesAnalytics.revenue(1));
+            case "day":
+                return ResponseEntity.ok(salesAnalytics.revenue(24));
+            default:
+                return ResponseEntity.badRequest().build();
+        }
+    }
+}
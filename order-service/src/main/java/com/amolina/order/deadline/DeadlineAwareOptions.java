@@ -0,0 +1,41 @@
+package com.amolina.order.deadline;
+
+import com.amolina.common.deadline.RequestDeadline;
+import feign.Request;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derives per-call Feign timeouts from the remaining request budget, capped by the
+ * Resilience4j time limiter configured for the downstream.
+ */
+@Component
+public class DeadlineAwareOptions {
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Value("${feign.client.config.default.connectTimeout:2000}")
+    private long connectTimeoutMillis;
+
+    /**
+     * Options for the next attempt against {@code name}.
+     *
+     * @throws DeadlineExceededException if there is no budget left for another attempt
+     */
+    public Request.Options forCall(String name) {
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis <= 0) {
+            throw new DeadlineExceededException(name);
+        }
+        Duration limit = timeLimiterRegistry.timeLimiter(name).getTimeLimiterConfig().getTimeoutDuration();
+        long readTimeoutMillis = Math.min(remainingMillis, limit.toMillis());
+        return new Request.Options(Math.min(connectTimeoutMillis, readTimeoutMillis), TimeUnit.MILLISECONDS,
+                readTimeoutMillis, TimeUnit.MILLISECONDS, true);
+    }
+}
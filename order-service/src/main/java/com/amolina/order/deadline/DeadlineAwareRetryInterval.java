@@ -0,0 +1,35 @@
+package com.amolina.order.deadline;
+
+import com.amolina.common.deadline.RequestDeadline;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.vavr.control.Either;
+
+import java.util.function.Function;
+
+/**
+ * Retry back-off that never outlives the request. Waits the configured back-off when the remaining budget leaves
+ * time for another attempt after it; otherwise stops retrying at once by rethrowing the last failure, instead of
+ * sleeping past the deadline.
+ */
+public class DeadlineAwareRetryInterval<T> implements IntervalBiFunction<T> {
+
+    private final String name;
+    private final Function<Integer, Long> backoff;
+
+    public DeadlineAwareRetryInterval(String name, Function<Integer, Long> backoff) {
+        this.name = name;
+        this.backoff = backoff;
+    }
+
+    @Override
+    public Long apply(Integer attempt, Either<Throwable, T> outcome) {
+        long waitMillis = backoff.apply(attempt);
+        if (RequestDeadline.remainingMillis() > waitMillis) {
+            return waitMillis;
+        }
+        if (outcome.isLeft() && outcome.getLeft() instanceof RuntimeException) {
+            throw (RuntimeException) outcome.getLeft();
+        }
+        throw new DeadlineExceededException(name);
+    }
+}
@@ -0,0 +1,13 @@
+package com.amolina.order.deadline;
+
+/**
+ * Thrown instead of starting a downstream call when the request deadline has already passed.
+ * Not listed in the retry or circuit breaker exceptions, so it neither triggers retries nor
+ * counts against the downstream's health.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String name) {
+        super(String.format("Request deadline exceeded before calling %s", name));
+    }
+}
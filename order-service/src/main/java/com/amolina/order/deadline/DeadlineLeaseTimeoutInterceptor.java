@@ -0,0 +1,34 @@
+package com.amolina.order.deadline;
+
+import com.amolina.common.deadline.RequestDeadline;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Caps how long a request may wait to lease a pooled connection by the remaining request budget,
+ * so a caller queued behind an exhausted pool gives up when its deadline passes rather than
+ * after the full configured connection-request timeout.
+ */
+public class DeadlineLeaseTimeoutInterceptor implements HttpRequestInterceptor {
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) {
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis == Long.MAX_VALUE) {
+            return;
+        }
+        HttpClientContext clientContext = HttpClientContext.adapt(context);
+        RequestConfig config = clientContext.getRequestConfig();
+        int timeoutMillis = config.getConnectionRequestTimeout();
+        // HttpClient reads 0 as "wait forever", so an expired budget still gets the shortest real wait
+        long cappedMillis = Math.max(1, timeoutMillis > 0 ? Math.min(timeoutMillis, remainingMillis) : remainingMillis);
+        if (cappedMillis != timeoutMillis) {
+            clientContext.setRequestConfig(RequestConfig.copy(config)
+                    .setConnectionRequestTimeout((int) Math.min(cappedMillis, Integer.MAX_VALUE))
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.amolina.order.deadline;
+
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.github.resilience4j.core.IntervalFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bounds the menu and customer retries by the request deadline. The back-off configured under
+ * {@code retry-backoff.instances.<name>} is wrapped in a {@link DeadlineAwareRetryInterval}.
+ */
+@Configuration
+public class DeadlineRetryConfig {
+
+    @Autowired
+    private RetryBackoffProperties backoffProperties;
+
+    @Bean
+    public RetryConfigCustomizer menuServiceRetryDeadline() {
+        return deadlineAware("menuService");
+    }
+
+    @Bean
+    public RetryConfigCustomizer customerServiceRetryDeadline() {
+        return deadlineAware("customerService");
+    }
+
+    private RetryConfigCustomizer deadlineAware(String name) {
+        RetryBackoffProperties.InstanceProperties backoff = backoffProperties.getInstance(name);
+        IntervalFunction intervalFunction = IntervalFunction.ofExponentialBackoff(
+                backoff.getWaitDuration(), backoff.getMultiplier());
+        return RetryConfigCustomizer.of(name,
+                builder -> builder.intervalBiFunction(new DeadlineAwareRetryInterval<>(name, intervalFunction)));
+    }
+}
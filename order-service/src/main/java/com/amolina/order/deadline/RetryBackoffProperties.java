@@ -0,0 +1,33 @@
+package com.amolina.order.deadline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Back-off between the menu and customer retries, wrapped by {@link DeadlineRetryConfig}.
+ * Kept out of {@code resilience4j.retry.instances.<name>}, whose wait settings would install a second
+ * interval function that Resilience4j refuses next to the deadline-aware one.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "retry-backoff")
+public class RetryBackoffProperties {
+
+    private Map<String, InstanceProperties> instances = new HashMap<>();
+
+    public InstanceProperties getInstance(String name) {
+        return instances.getOrDefault(name, new InstanceProperties());
+    }
+
+    @Data
+    public static class InstanceProperties {
+        private Duration waitDuration = Duration.ofSeconds(2);
+        /** 1 waits {@code waitDuration} before every retry; above 1 the wait grows exponentially. */
+        private double multiplier = 2.0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.amolina.order.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load and latency statistics for one service instance.
+ * Latency is tracked as a peak-sensitive EWMA: a slower-than-average response is adopted
+ * immediately, faster ones decay the average over the configured time constant, so a degraded
+ * replica is avoided on its first slow answer and recovers gradually.
+ * <p>
+ * Each ejection lasts longer than the previous one, up to a cap, and a run of successes forgets
+ * earlier ejections so a replica that flapped once is not punished for it indefinitely.
+ */
+public class InstanceStats {
+
+    /** Passed as the RTT of a call whose duration is unknown; the call then leaves the average alone. */
+    public static final long UNKNOWN_RTT = -1;
+
+    private final String instanceId;
+    private final long decayNanos;
+    private final int successesToForgetEjections;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+    private int consecutiveFailures;
+    private int consecutiveSuccesses;
+    private int ejections;
+    private volatile long ejectedUntilNanos;
+
+    public InstanceStats(String instanceId, long decayNanos, long initialRttNanos, int successesToForgetEjections) {
+        this.instanceId = instanceId;
+        this.decayNanos = decayNanos;
+        this.successesToForgetEjections = successesToForgetEjections;
+        this.ewmaNanos = initialRttNanos;
+        this.lastUpdateNanos = System.nanoTime();
+    }
+
+    public void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    public synchronized void onComplete(long rttNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (rttNanos != UNKNOWN_RTT) {
+            long now = System.nanoTime();
+            if (rttNanos > ewmaNanos) {
+                ewmaNanos = rttNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+            }
+            lastUpdateNanos = now;
+        }
+        if (failed) {
+            consecutiveFailures++;
+            consecutiveSuccesses = 0;
+        } else {
+            consecutiveFailures = 0;
+            if (++consecutiveSuccesses >= successesToForgetEjections) {
+                ejections = 0;
+            }
+        }
+    }
+
+    /**
+     * Ends a call that was given up before it answered, such as the losing attempt of a hedged request.
+     * It counts neither as a success nor as a failure, but the instance took at least {@code elapsedNanos},
+     * so a longer wait than the average is adopted like a slow answer.
+     */
+    public synchronized void onAbandoned(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        if (elapsedNanos > ewmaNanos) {
+            ewmaNanos = elapsedNanos;
+            lastUpdateNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Lower is better: expected latency scaled by the queue the next request would join.
+     */
+    public synchronized double score() {
+        return ewmaNanos * (inFlight.get() + 1);
+    }
+
+    public boolean isEjected(long now) {
+        return now < ejectedUntilNanos;
+    }
+
+    public synchronized boolean shouldEject(int threshold) {
+        return consecutiveFailures >= threshold;
+    }
+
+    /**
+     * Ejects the instance for {@code baseEjectionNanos} times the number of ejections since it was last healthy,
+     * but never longer than {@code maxEjectionNanos}.
+     */
+    public synchronized void eject(long now, long baseEjectionNanos, long maxEjectionNanos) {
+        ejections++;
+        consecutiveFailures = 0;
+        consecutiveSuccesses = 0;
+        ejectedUntilNanos = now + Math.min(maxEjectionNanos, baseEjectionNanos * ejections);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getEwmaMillis() {
+        return ewmaNanos / 1_000_000.0;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized int getEjections() {
+        return ejections;
+    }
+
+    public boolean isEjected() {
+        return isEjected(System.nanoTime());
+    }
+}
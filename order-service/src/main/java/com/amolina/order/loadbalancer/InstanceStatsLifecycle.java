@@ -0,0 +1,66 @@
+package com.amolina.order.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * Feeds the outcome and latency of every load-balanced call back into {@link InstanceStatsRegistry}.
+ */
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final String serviceId;
+    private final InstanceStatsRegistry statsRegistry;
+
+    public InstanceStatsLifecycle(String serviceId, InstanceStatsRegistry statsRegistry) {
+        this.serviceId = serviceId;
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext) {
+            ((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            statsRegistry.get(serviceId, lbResponse.getServer()).onStart();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        Object context = completionContext.getLoadBalancerRequest().getContext();
+        long startNanos = context instanceof TimedRequestContext
+                ? ((TimedRequestContext) context).getRequestStartTime() : 0;
+        long rttNanos = startNanos != 0 ? System.nanoTime() - startNanos : InstanceStats.UNKNOWN_RTT;
+        statsRegistry.onComplete(serviceId, lbResponse.getServer(), rttNanos, isFailure(completionContext));
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        Object clientResponse = completionContext.getClientResponse();
+        return clientResponse instanceof ResponseData
+                && ((ResponseData) clientResponse).getHttpStatus() != null
+                && ((ResponseData) clientResponse).getHttpStatus().is5xxServerError();
+    }
+}
@@ -0,0 +1,105 @@
+package com.amolina.order.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-service, per-instance statistics shared by every load balancer child context.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceStatsRegistry.class);
+
+    private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+
+    @Autowired
+    private LatencyAwareLoadBalancerProperties properties;
+
+    public InstanceStats get(String serviceId, ServiceInstance instance) {
+        return services.computeIfAbsent(serviceId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key(instance), id -> new InstanceStats(id, properties.getDecay().toNanos(),
+                        properties.getInitialRtt().toNanos(), properties.getSuccessesToForgetEjections()));
+    }
+
+    /**
+     * Power-of-two-choices pick: two random healthy instances, and the one with the lower EWMA response time
+     * weighted by in-flight requests wins. Ejected outliers are skipped unless every instance is ejected.
+     *
+     * @return the chosen instance, or {@code null} when {@code instances} is empty
+     */
+    public ServiceInstance choose(String serviceId, List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!get(serviceId, instance).isEjected(now)) {
+                healthy.add(instance);
+            }
+        }
+        List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = (first + 1 + random.nextInt(candidates.size() - 1)) % candidates.size();
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return get(serviceId, a).score() <= get(serviceId, b).score() ? a : b;
+    }
+
+    /**
+     * Like {@link #choose(String, List)}, but never returns {@code excluded}.
+     */
+    public ServiceInstance chooseOther(String serviceId, List<ServiceInstance> instances, ServiceInstance excluded) {
+        List<ServiceInstance> others = new ArrayList<>(instances.size());
+        String excludedKey = key(excluded);
+        for (ServiceInstance instance : instances) {
+            if (!key(instance).equals(excludedKey)) {
+                others.add(instance);
+            }
+        }
+        return choose(serviceId, others);
+    }
+
+    public void onComplete(String serviceId, ServiceInstance instance, long rttNanos, boolean failed) {
+        InstanceStats stats = get(serviceId, instance);
+        stats.onComplete(rttNanos, failed);
+        if (failed && stats.shouldEject(properties.getConsecutiveFailures())) {
+            long now = System.nanoTime();
+            Map<String, InstanceStats> instances = services.get(serviceId);
+            long ejected = instances.values().stream().filter(s -> s.isEjected(now)).count();
+            if ((ejected + 1) * 100 <= (long) instances.size() * properties.getMaxEjectionPercent()) {
+                stats.eject(now, properties.getBaseEjectionTime().toNanos(), properties.getMaxEjectionTime().toNanos());
+                logger.warn("Ejecting {} instance {} after {} consecutive failures",
+                        serviceId, stats.getInstanceId(), properties.getConsecutiveFailures());
+            }
+        }
+    }
+
+    public void onAbandoned(String serviceId, ServiceInstance instance, long elapsedNanos) {
+        get(serviceId, instance).onAbandoned(elapsedNanos);
+    }
+
+    public Map<String, Map<String, InstanceStats>> getServices() {
+        return services;
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,31 @@
+package com.amolina.order.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer child-context configuration applied to every client through
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}.
+ * Deliberately not annotated with {@code @Configuration} so component scanning does not
+ * register these beans in the application context.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                         InstanceStatsRegistry statsRegistry) {
+        String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class), name, statsRegistry);
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(Environment environment, InstanceStatsRegistry statsRegistry) {
+        return new InstanceStatsLifecycle(environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME), statsRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.amolina.order.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "loadbalancer.latency-aware")
+public class LatencyAwareLoadBalancerProperties {
+
+    /** Time constant of the exponentially weighted response time. */
+    private Duration decay = Duration.ofSeconds(10);
+
+    /** Response time assumed for an instance before its first response. */
+    private Duration initialRtt = Duration.ofMillis(50);
+
+    /** Consecutive failures after which an instance is ejected. */
+    private int consecutiveFailures = 5;
+
+    /** Ejection time, multiplied by the number of times the instance has been ejected. */
+    private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+    /** Upper bound on a single ejection, however often the instance has been ejected. */
+    private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+    /** Consecutive successes after which an instance's earlier ejections are forgotten. */
+    private int successesToForgetEjections = 100;
+
+    /** Upper bound on the share of a service's instances that may be ejected at once. */
+    private int maxEjectionPercent = 50;
+}
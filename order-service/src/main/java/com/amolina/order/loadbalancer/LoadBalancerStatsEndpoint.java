@@ -0,0 +1,41 @@
+package com.amolina.order.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes per-instance load balancer statistics at {@code /actuator/loadbalancer}.
+ */
+@Component
+@Endpoint(id = "loadbalancer")
+public class LoadBalancerStatsEndpoint {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public LoadBalancerStatsEndpoint(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> stats() {
+        Map<String, Map<String, Map<String, Object>>> result = new LinkedHashMap<>();
+        statsRegistry.getServices().forEach((serviceId, instances) -> {
+            Map<String, Map<String, Object>> byInstance = new LinkedHashMap<>();
+            instances.forEach((instanceId, stats) -> {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("ewmaMillis", stats.getEwmaMillis());
+                values.put("inFlight", stats.getInFlight());
+                values.put("consecutiveFailures", stats.getConsecutiveFailures());
+                values.put("ejections", stats.getEjections());
+                values.put("ejected", stats.isEjected());
+                byInstance.put(instanceId, values);
+            });
+            result.put(serviceId, byInstance);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.amolina.order.metrics;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Times every Feign call as {@code feign.client.requests}, tagged with the client, the interface method,
+ * the response status and the exception. Spring Cloud OpenFeign applies {@link Capability} beans to every
+ * client, including the per-instance clients used for hedged requests. One retry or hedge attempt is one
+ * sample, so the timer shows what each downstream call costs rather than what the caller waited.
+ */
+@Component
+public class FeignMetricsCapability implements Capability {
+
+    static final String METRIC_NAME = "feign.client.requests";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String status = "NONE";
+            String exception = "none";
+            try {
+                Response response = client.execute(request, options);
+                status = String.valueOf(response.status());
+                return response;
+            } catch (IOException | RuntimeException e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                sample.stop(Timer.builder(METRIC_NAME)
+                        .description("Feign client calls")
+                        .tag("client", clientName(request))
+                        .tag("method", methodName(request))
+                        .tag("status", status)
+                        .tag("exception", exception)
+                        .register(meterRegistry));
+            }
+        };
+    }
+
+    private static String clientName(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        return template != null && template.feignTarget() != null ? template.feignTarget().name() : "unknown";
+    }
+
+    private static String methodName(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        return template != null && template.methodMetadata() != null
+                ? template.methodMetadata().method().getName() : "unknown";
+    }
+}
@@ -0,0 +1,20 @@
+package com.amolina.order.metrics;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caps the method tags of the Feign timers, as {@link com.amolina.common.metrics.MetricsConfig} does for the
+ * repository timers.
+ */
+@Configuration
+public class FeignMetricsConfig {
+
+    @Bean
+    public MeterFilter feignMethodTagLimit(@Value("${metrics.max-method-tags:100}") int maxMethodTags) {
+        return MeterFilter.maximumAllowableTags(FeignMetricsCapability.METRIC_NAME, "method", maxMethodTags,
+                MeterFilter.deny());
+    }
+}
@@ -1,11 +1,18 @@
 package com.amolina.order.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "\"order\"")
@@ -19,9 +26,6 @@ public class Order {
     @Column(name = "order_id")
     private Long orderId;
 
-    @Column(name = "item_id", nullable = false)
-    private Long itemId;
-
     @Column(name = "subtotal", nullable = false, precision = 10, scale = 2)
     private BigDecimal subtotal;
 
@@ -33,5 +37,46 @@ public class Order {
 
     @Column(name = "customer_id", nullable = false)
     private Long customerId;
+
+    /**
+     * Partition key of the order table, set once on insert.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Loaded with the order; for a list of orders all their lines are fetched in one extra query.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
+    @CollectionTable(name = "order_line", joinColumns = @JoinColumn(name = "order_id"))
+    @OrderColumn(name = "line_number")
+    private List<OrderLine> lines = new ArrayList<>();
+
+    /**
+     * Bumped by every update; sent as the ETag and checked against {@code If-Match} by PUT and PATCH.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * The item of a one-line order, as in the single-item API; null for an order with several lines.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getItemId() {
+        return lines != null && lines.size() == 1 ? lines.get(0).getItemId() : null;
+    }
+
+    /**
+     * Single-item API: an order sent with an {@code itemId} and no lines is one line of that item, quantity 1.
+     * Ignored when the order has lines.
+     */
+    public void setItemId(Long itemId) {
+        if (itemId != null && (lines == null || lines.isEmpty())) {
+            lines = new ArrayList<>(List.of(new OrderLine(itemId, 1, null)));
+        }
+    }
 }
 
@@ -0,0 +1,17 @@
+package com.amolina.order.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSalesDTO {
+    private Long itemId;
+    private long orders;
+    private long quantity;
+    private BigDecimal revenue;
+}
@@ -1,12 +1,21 @@
 package com.amolina.order.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+/**
+ * Fields left out by a {@code fields=} selection are null and not serialized. {@code itemId}, {@code pizzaName}
+ * and {@code pizzaPrice} are those of the only line of a one-line order, as in the single-item API, and null
+ * for an order with several lines.
+ */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderResponseDTO {
@@ -22,5 +31,10 @@ public class OrderResponseDTO {
     private String customerLastname;
     private String customerEmail;
     private String customerPhone;
+    private List<OrderLineResponseDTO> lines;
+    private boolean stale;
+    /** Sent as the ETag header rather than in the body; null for archived orders, which cannot change. */
+    @JsonIgnore
+    private Long version;
 }
 
@@ -0,0 +1,18 @@
+package com.amolina.order.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucketDTO {
+    private Instant start;
+    private BigDecimal revenue;
+    private Map<Long, BigDecimal> items;
+}
@@ -0,0 +1,104 @@
+package com.amolina.order.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the monthly range partitions of the order table ahead of time, at startup and then daily:
+ * the current month and the next {@code order.partitions.months-ahead}. Boundaries are in UTC, as in the V2 migration.
+ * <p>
+ * Orders for a month without a partition, say after order-service was down past its horizon, land in the
+ * {@code order_default} partition (V5). A partition cannot be created over rows the default partition holds,
+ * so for such a month the rows are moved into a new table that is then attached, in one statement.
+ * Months found in the default partition are created too, so it is emptied on the next run.
+ */
+@Component
+@ConditionalOnProperty(value = "order.partitions.enabled", matchIfMissing = true)
+public class OrderPartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPartitionMaintainer.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-partition-maintainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Clock clock = Clock.systemUTC();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${order.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @PostConstruct
+    public void start() {
+        createPartitions();
+        scheduler.scheduleWithFixedDelay(this::createPartitions, 1, 1, TimeUnit.DAYS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void createPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        SortedSet<YearMonth> months = new TreeSet<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        try {
+            for (String month : jdbcTemplate.queryForList(
+                    "SELECT DISTINCT to_char(created_at AT TIME ZONE 'UTC', 'YYYY-MM') FROM order_default", String.class)) {
+                months.add(YearMonth.parse(month));
+            }
+            for (YearMonth month : months) {
+                createPartition(month);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not create order partitions: {}", e.getMessage());
+            return;
+        }
+        logger.debug("Order partitions exist through {}", current.plusMonths(monthsAhead));
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = String.format("order_p%04d_%02d", month.getYear(), month.getMonthValue());
+        String from = month.atDay(1) + " 00:00:00+00";
+        String to = month.plusMonths(1).atDay(1) + " 00:00:00+00";
+        String range = String.format("created_at >= '%s' AND created_at < '%s'", from, to);
+        Boolean stranded = jdbcTemplate.queryForObject(
+                String.format("SELECT EXISTS (SELECT 1 FROM order_default WHERE %s)", range), Boolean.class);
+        if (!Boolean.TRUE.equals(stranded)) {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF \"order\" FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, from, to));
+            return;
+        }
+        logger.warn("Orders for {} are in the default partition, moving them to {}", month, partition);
+        jdbcTemplate.execute(String.format("DO $$ BEGIN "
+                        + "CREATE TABLE %1$s (LIKE \"order\" INCLUDING DEFAULTS INCLUDING CONSTRAINTS); "
+                        + "WITH moved AS (DELETE FROM order_default WHERE %2$s RETURNING *) INSERT INTO %1$s SELECT * FROM moved; "
+                        + "ALTER TABLE \"order\" ATTACH PARTITION %1$s FOR VALUES FROM ('%3$s') TO ('%4$s'); "
+                        + "END $$",
+                partition, range, from, to));
+    }
+}
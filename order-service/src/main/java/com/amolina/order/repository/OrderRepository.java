@@ -1,14 +1,82 @@
 package com.amolina.order.repository;
 
 import com.amolina.order.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByCustomerId(Long customerId);
-}
 
+    /**
+     * Orders created in [from, to). Both bounds are on the partition key, so only the months in range are scanned.
+     */
+    @Query("select o from Order o where o.createdAt >= :from and o.createdAt < :to order by o.createdAt")
+    List<Order> findCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Ids of orders created before {@code before}, lowest first. Ids rather than orders, because the lines'
+     * subselect fetch would ignore the page and load the lines of every matching order.
+     */
+    @Query("select o.orderId from Order o where o.createdAt < :before order by o.orderId")
+    List<Long> findIdsCreatedBefore(@Param("before") Instant before, Pageable pageable);
+
+    /**
+     * Orders created before {@code before} with ids in [minId, maxId]. A range rather than an id list, because
+     * PostgreSQL allows at most 32767 bind parameters per statement and the lines' subselect repeats the query.
+     */
+    @Query("select o from Order o where o.createdAt < :before and o.orderId between :minId and :maxId")
+    List<Order> findCreatedBeforeInIdRange(@Param("before") Instant before, @Param("minId") Long minId,
+                                           @Param("maxId") Long maxId);
+
+    /**
+     * Ids above {@code afterId}, lowest first; ids for the same reason as {@link #findIdsCreatedBefore}.
+     */
+    @Query("select o.orderId from Order o where o.orderId > :afterId order by o.orderId")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select o from Order o where o.orderId between :minId and :maxId order by o.orderId")
+    List<Order> findInIdRange(@Param("minId") Long minId, @Param("maxId") Long maxId);
+
+    long countByOrderIdIn(Collection<Long> orderIds);
+
+    /**
+     * Moves order {@code id} to {@code customerId} and bumps its version, in one UPDATE that only matches while
+     * the order is still at {@code version}.
+     *
+     * @return 1 if the order was updated, 0 if it does not exist or is at another version
+     */
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.customerId = :customerId, o.version = o.version + 1 "
+            + "where o.orderId = :id and o.version = :version")
+    int patchCustomerId(@Param("id") Long id, @Param("version") long version, @Param("customerId") Long customerId);
+
+    /**
+     * Orders, units sold and revenue before tax per item over the whole table, one row per item.
+     */
+    @Query("select l.itemId as itemId, count(distinct o.orderId) as orders, sum(l.quantity) as quantity, "
+            + "sum(l.unitPrice * l.quantity) as revenue from Order o join o.lines l group by l.itemId")
+    List<ItemSales> summarizeByItem();
+
+    interface ItemSales {
+        Long getItemId();
+
+        Long getOrders();
+
+        Long getQuantity();
+
+        BigDecimal getRevenue();
+    }
+}
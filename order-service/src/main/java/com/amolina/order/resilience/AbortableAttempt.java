@@ -0,0 +1,75 @@
+package com.amolina.order.resilience;
+
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.util.concurrent.Callable;
+
+/**
+ * An attempt whose HTTP requests can be aborted from another thread.
+ * Interrupting a thread blocked in Apache HttpClient socket I/O does not wake it, so a cancelled hedge
+ * attempt would keep its pooled connection until the read timeout. Requests sent while the attempt
+ * runs are registered through {@link #REGISTER_REQUEST}, and {@link #abort()} aborts them, which
+ * closes the connection and gives its pool slot back at once.
+ */
+public class AbortableAttempt {
+
+    private static final ThreadLocal<AbortableAttempt> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Registers each request with the attempt running on the calling thread, if any.
+     * Added to the Feign HTTP client, see {@code FeignHttpClientConfig}.
+     */
+    public static final HttpRequestInterceptor REGISTER_REQUEST = (request, context) -> {
+        AbortableAttempt attempt = CURRENT.get();
+        if (attempt != null && request instanceof HttpRequestWrapper
+                && ((HttpRequestWrapper) request).getOriginal() instanceof HttpUriRequest) {
+            attempt.register((HttpUriRequest) ((HttpRequestWrapper) request).getOriginal());
+        }
+    };
+
+    private HttpUriRequest request;
+    private boolean aborted;
+
+    /**
+     * Runs {@code call} on the calling thread as part of this attempt.
+     */
+    public <T> T run(Callable<T> call) throws Exception {
+        AbortableAttempt previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Aborts the request in progress, and any request the attempt sends afterwards.
+     */
+    public void abort() {
+        HttpUriRequest current;
+        synchronized (this) {
+            aborted = true;
+            current = request;
+        }
+        if (current != null) {
+            current.abort();
+        }
+    }
+
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    private void register(HttpUriRequest request) {
+        synchronized (this) {
+            this.request = request;
+            if (!aborted) {
+                return;
+            }
+        }
+        request.abort();
+    }
+}
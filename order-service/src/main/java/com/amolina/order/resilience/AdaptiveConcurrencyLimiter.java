@@ -0,0 +1,140 @@
+package com.amolina.order.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limiter driven by observed round-trip time.
+ * The limit grows by one for every window of healthy responses and is cut by
+ * {@code backoffRatio} whenever a call fails or its RTT exceeds {@code rttTolerance}
+ * times the baseline RTT (or the absolute {@code maxRtt}). The baseline is the fastest
+ * RTT of the last {@code minRttWindow} samples, so a single unusually fast answer only
+ * skews it until the next window closes.
+ * <p>
+ * The limit is cut at most once per congestion signal: a failure or slow answer from a call that was already
+ * in flight at the last cut saw the same congestion, so it leaves the limit alone. A burst of concurrent
+ * failures therefore costs one {@code backoffRatio}, like a TCP window reacting once per round trip.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final AdaptiveLimiterProperties.InstanceProperties config;
+    private final long maxRttNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejections = new AtomicLong();
+    private volatile double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private boolean firstWindow = true;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, AdaptiveLimiterProperties.InstanceProperties config) {
+        this(name, config, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, AdaptiveLimiterProperties.InstanceProperties config, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.maxRttNanos = config.getMaxRtt().toNanos();
+        this.clock = clock;
+        this.limit = config.getInitialLimit();
+    }
+
+    /**
+     * Claims a permit, or returns {@code false} and counts a rejection if the limit is reached.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejections.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int concurrent = inFlight.getAndDecrement();
+        long baseline = sampleRtt(rttNanos);
+        boolean slow = rttNanos > maxRttNanos || rttNanos > baseline * config.getRttTolerance();
+        if (slow) {
+            decrease(rttNanos);
+        } else if (concurrent * 2 >= limit) {
+            // Only probe upwards when the current limit is actually being used.
+            increase();
+        }
+    }
+
+    /**
+     * @param rttNanos how long the failed call took, which tells whether it started before the last cut
+     */
+    public void onError(long rttNanos) {
+        inFlight.decrementAndGet();
+        decrease(rttNanos);
+    }
+
+    /**
+     * Releases the permit without feeding the call back into the limit, for answers such as a fast 404
+     * whose latency says nothing about the downstream's load.
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Records {@code rttNanos} and returns the baseline to compare it against: the fastest RTT so far while the
+     * first window fills, the fastest RTT of the previous window after that.
+     */
+    private synchronized long sampleRtt(long rttNanos) {
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        if (++windowSamples >= config.getMinRttWindow()) {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+            firstWindow = false;
+        } else if (firstWindow) {
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+        }
+        return minRttNanos;
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(config.getMaxLimit(), limit + 1.0 / limit);
+    }
+
+    /**
+     * Cuts the limit for a call that took {@code rttNanos}, unless the call started before the last cut.
+     */
+    private synchronized void decrease(long rttNanos) {
+        long now = clock.getAsLong();
+        if (decreased && now - rttNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+        decreased = true;
+        lastDecreaseNanos = now;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejections() {
+        return rejections.get();
+    }
+}
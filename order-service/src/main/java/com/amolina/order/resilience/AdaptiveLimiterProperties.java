@@ -0,0 +1,32 @@
+package com.amolina.order.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "adaptive-limiter")
+public class AdaptiveLimiterProperties {
+
+    private Map<String, InstanceProperties> instances = new HashMap<>();
+
+    public InstanceProperties getInstance(String name) {
+        return instances.getOrDefault(name, new InstanceProperties());
+    }
+
+    @Data
+    public static class InstanceProperties {
+        private int initialLimit = 10;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private double rttTolerance = 2.0;
+        private Duration maxRtt = Duration.ofSeconds(3);
+        private int minRttWindow = 100;
+    }
+}
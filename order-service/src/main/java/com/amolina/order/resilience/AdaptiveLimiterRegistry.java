@@ -0,0 +1,69 @@
+package com.amolina.order.resilience;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds one {@link AdaptiveConcurrencyLimiter} per downstream and publishes its limit,
+ * in-flight count and rejections as Micrometer meters tagged with the limiter name.
+ */
+@Component
+public class AdaptiveLimiterRegistry {
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Autowired
+    private AdaptiveLimiterProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public AdaptiveConcurrencyLimiter limiter(String name) {
+        return limiters.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * Runs the call under the named limiter, feeding its latency or failure back into the limit.
+     */
+    public <T> T execute(String name, Supplier<T> call) {
+        AdaptiveConcurrencyLimiter limiter = limiter(name);
+        if (!limiter.tryAcquire()) {
+            throw new LimitExceededException(name, limiter.getLimit());
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            limiter.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (FeignException.NotFound e) {
+            // A missing entity is a healthy answer but skips most of the work, so its RTT must not become the baseline.
+            limiter.onIgnore();
+            throw e;
+        } catch (RuntimeException e) {
+            limiter.onError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter create(String name) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, properties.getInstance(name));
+        Gauge.builder("adaptive.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("adaptive.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("adaptive.limiter.rejections", limiter, AdaptiveConcurrencyLimiter::getRejections)
+                .tag("name", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,303 @@
+package com.amolina.order.resilience;
+
+import com.amolina.common.deadline.RequestDeadline;
+import com.amolina.order.loadbalancer.InstanceStatsRegistry;
+import com.amolina.common.threads.VirtualThreads;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Issues a hedged second request to a different instance when the first one is slower than
+ * the tracked latency percentile. The first successful response wins and the other attempt
+ * is cancelled. Hedges are paid for from a budget that refills by {@code budgetPercent} of
+ * every request, so extra load on the downstream is capped at that percentage.
+ * <p>
+ * The latency percentile is fed with the winning attempt's RTT, hedge or not, and with the time a
+ * cancelled primary had run before it was given up, so slow primaries keep pulling the hedge delay up.
+ * <p>
+ * Both instances are picked by the latency-aware balancer's {@link InstanceStatsRegistry}, the hedge among the
+ * instances other than the primary's, and both attempts feed its EWMA and in-flight counts. The losing attempt
+ * is aborted rather than only interrupted, since an interrupt does not wake a thread blocked in a socket read
+ * and the attempt would otherwise hold its pooled connection until the read timeout.
+ */
+@Component
+public class HedgedRequestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedRequestExecutor.class);
+
+    /** Budget is kept in thousandths of a hedge so it can be refilled with a single atomic add. */
+    private static final long TOKEN = 1000;
+    private static final long MAX_BUDGET = 10 * TOKEN;
+
+    private final Map<String, HedgeState> states = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @Autowired
+    private HedgingProperties properties;
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private InstanceStatsRegistry statsRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreads) {
+            // The hedge budget already caps how many attempts run, so no pool bound is needed
+            executor = VirtualThreads.newThreadPerTaskExecutor("hedging-");
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "hedging-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs an idempotent read, hedging it across two instances of {@code serviceId} when enabled.
+     *
+     * @param loadBalancedCall the regular call, used when hedging is off or not possible
+     * @param instanceCall     the same call pinned to the given instance base URI
+     */
+    public <T> T execute(String name, String serviceId, Supplier<T> loadBalancedCall, Function<URI, T> instanceCall) {
+        HedgingProperties.InstanceProperties config = properties.getInstance(name);
+        if (!config.isEnabled()) {
+            return loadBalancedCall.get();
+        }
+
+        HedgeState state = states.computeIfAbsent(name, key -> new HedgeState(key, config));
+        state.refill();
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        if (instances.size() < 2) {
+            return state.timed(loadBalancedCall);
+        }
+
+        ServiceInstance primaryInstance = statsRegistry.choose(serviceId, instances);
+        AbortableAttempt primaryAttempt = new AbortableAttempt();
+
+        ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        long primaryStart = System.nanoTime();
+        Future<T> primary;
+        try {
+            primary = completionService.submit(withCallerContext(
+                    attempt(serviceId, primaryInstance, primaryAttempt, instanceCall)));
+        } catch (RejectedExecutionException e) {
+            return state.timed(loadBalancedCall);
+        }
+
+        Future<T> hedge = null;
+        AbortableAttempt hedgeAttempt = null;
+        long hedgeStart = 0;
+        try {
+            long delayNanos = Math.max(config.getMinDelay().toNanos(), state.tracker.getPercentileNanos());
+            Future<T> done = completionService.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (done == null && !RequestDeadline.isExpired() && state.tryAcquire()) {
+                // Picked now rather than up front, so the stats include the primary's own slowness
+                ServiceInstance hedgeInstance = statsRegistry.chooseOther(serviceId, instances, primaryInstance);
+                logger.debug("Hedging {} call to {} after {}µs", name, hedgeInstance.getUri(),
+                        TimeUnit.NANOSECONDS.toMicros(delayNanos));
+                try {
+                    hedgeStart = System.nanoTime();
+                    hedgeAttempt = new AbortableAttempt();
+                    hedge = completionService.submit(withCallerContext(
+                            attempt(serviceId, hedgeInstance, hedgeAttempt, instanceCall)));
+                    state.issued.increment();
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Hedging pool is saturated, not hedging {} call", name);
+                }
+            }
+
+            int pending = hedge == null ? 1 : 2;
+            ExecutionException lastFailure = null;
+            while (pending-- > 0) {
+                Future<T> next = done != null ? done : completionService.take();
+                done = null;
+                try {
+                    T result = next.get();
+                    if (next == hedge) {
+                        state.won.increment();
+                    }
+                    state.tracker.record(System.nanoTime() - (next == hedge ? hedgeStart : primaryStart));
+                    return result;
+                } catch (ExecutionException e) {
+                    lastFailure = e;
+                }
+            }
+            throw unwrap(lastFailure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name, e);
+        } finally {
+            if (!primary.isDone()) {
+                // Censored sample: the primary would have taken at least this long
+                state.tracker.record(System.nanoTime() - primaryStart);
+                primaryAttempt.abort();
+            }
+            primary.cancel(true);
+            if (hedge != null) {
+                if (!hedge.isDone()) {
+                    hedgeAttempt.abort();
+                }
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * One attempt pinned to {@code instance}, reported to the balancer's stats like a load-balanced call.
+     * An attempt that was aborted because the other one won is reported as abandoned, not as a failure.
+     */
+    private <T> Callable<T> attempt(String serviceId, ServiceInstance instance, AbortableAttempt abortable,
+                                    Function<URI, T> instanceCall) {
+        return () -> {
+            statsRegistry.get(serviceId, instance).onStart();
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                return abortable.run(() -> instanceCall.apply(instance.getUri()));
+            } catch (RuntimeException e) {
+                failed = isFailure(e);
+                throw e;
+            } finally {
+                long rttNanos = System.nanoTime() - start;
+                if (abortable.isAborted()) {
+                    statsRegistry.onAbandoned(serviceId, instance, rttNanos);
+                } else {
+                    statsRegistry.onComplete(serviceId, instance, rttNanos, failed);
+                }
+            }
+        };
+    }
+
+    /**
+     * Same rule as the balancer's lifecycle: 4xx answers are the caller's problem, anything else counts against
+     * the instance.
+     */
+    private static boolean isFailure(RuntimeException e) {
+        if (e instanceof FeignException) {
+            int status = ((FeignException) e).status();
+            return status < 400 || status >= 500;
+        }
+        return true;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Carries the caller's security context, MDC and deadline onto the pool thread so the Feign
+     * interceptor can forward the bearer token, correlation id and deadline.
+     */
+    private static <T> Callable<T> withCallerContext(Callable<T> task) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Long deadline = RequestDeadline.get();
+        return () -> {
+            SecurityContextHolder.setContext(securityContext);
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            RequestDeadline.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                SecurityContextHolder.clearContext();
+                MDC.clear();
+                RequestDeadline.clear();
+            }
+        };
+    }
+
+    private class HedgeState {
+
+        private final LatencyTracker tracker;
+        private final long refillPerRequest;
+        private final AtomicLong budget = new AtomicLong();
+        private final Counter issued;
+        private final Counter won;
+
+        HedgeState(String name, HedgingProperties.InstanceProperties config) {
+            this.tracker = new LatencyTracker(config.getSampleSize(), config.getPercentile());
+            this.refillPerRequest = Math.round(config.getBudgetPercent() / 100.0 * TOKEN);
+            this.issued = Counter.builder("hedging.issued").tag("name", name).register(meterRegistry);
+            this.won = Counter.builder("hedging.won").tag("name", name).register(meterRegistry);
+        }
+
+        void refill() {
+            if (budget.addAndGet(refillPerRequest) > MAX_BUDGET) {
+                budget.set(MAX_BUDGET);
+            }
+        }
+
+        boolean tryAcquire() {
+            long current;
+            do {
+                current = budget.get();
+                if (current < TOKEN) {
+                    return false;
+                }
+            } while (!budget.compareAndSet(current, current - TOKEN));
+            return true;
+        }
+
+        <T> T timed(Supplier<T> call) {
+            long start = System.nanoTime();
+            T result = call.get();
+            tracker.record(System.nanoTime() - start);
+            return result;
+        }
+    }
+}
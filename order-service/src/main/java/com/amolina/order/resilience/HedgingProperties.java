@@ -0,0 +1,31 @@
+package com.amolina.order.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hedging")
+public class HedgingProperties {
+
+    private int poolSize = 16;
+    private Map<String, InstanceProperties> instances = new HashMap<>();
+
+    public InstanceProperties getInstance(String name) {
+        return instances.getOrDefault(name, new InstanceProperties());
+    }
+
+    @Data
+    public static class InstanceProperties {
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(20);
+        private double budgetPercent = 5.0;
+        private int sampleSize = 1024;
+    }
+}
@@ -0,0 +1,49 @@
+package com.amolina.order.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks a latency percentile over the most recent samples.
+ * Samples go into a fixed ring; the percentile is recomputed from a sorted copy every
+ * {@code RECOMPUTE_INTERVAL} samples so the per-call cost stays a single atomic write.
+ */
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private volatile long percentileNanos = Long.MAX_VALUE;
+
+    public LatencyTracker(int sampleSize, double percentile) {
+        this.samples = new AtomicLongArray(sampleSize);
+        this.percentile = percentile;
+    }
+
+    public void record(long latencyNanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), latencyNanos);
+        if ((n + 1) % RECOMPUTE_INTERVAL == 0) {
+            recompute(Math.min(n + 1, samples.length()));
+        }
+    }
+
+    /**
+     * Current percentile, or {@link Long#MAX_VALUE} until enough samples have been seen.
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(long size) {
+        long[] copy = new long[(int) size];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        percentileNanos = copy[(int) Math.min(copy.length - 1, Math.ceil(percentile * copy.length) - 1)];
+    }
+}
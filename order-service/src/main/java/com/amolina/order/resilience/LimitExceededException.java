@@ -0,0 +1,14 @@
+package com.amolina.order.resilience;
+
+/**
+ * Thrown when an {@link AdaptiveConcurrencyLimiter} has no permits left.
+ * <p>
+ * The circuit breakers list it under {@code ignoreExceptions}: a shed call never reached the downstream,
+ * so it must not count towards the failure rate, nor as a success that hides real failures.
+ */
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(String name, int limit) {
+        super(String.format("Adaptive limiter '%s' is full (limit %d)", name, limit));
+    }
+}
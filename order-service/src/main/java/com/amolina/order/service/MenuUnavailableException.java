@@ -0,0 +1,11 @@
+package com.amolina.order.service;
+
+/**
+ * Thrown when an order cannot be priced because menu-service only answered from the fallback path.
+ */
+public class MenuUnavailableException extends RuntimeException {
+
+    public MenuUnavailableException(Long itemId) {
+        super("No current price for item " + itemId + ": menu-service is unavailable");
+    }
+}
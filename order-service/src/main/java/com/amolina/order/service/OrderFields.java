@@ -0,0 +1,80 @@
+package com.amolina.order.service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The fields of an {@link com.amolina.order.model.dto.OrderResponseDTO} a caller asked for with
+ * {@code fields=}, e.g. {@code total,lines.pizzaName}. {@code lines} selects every line field and
+ * {@code lines.<field>} a single one. The selection decides which downstream services are called:
+ * menu-service only for pizza names, customer-service only for customer details. {@code itemId},
+ * {@code pizzaName} and {@code pizzaPrice} are the single-item fields of a one-line order.
+ */
+public final class OrderFields {
+
+    private static final Set<String> ORDER_FIELDS = Set.of("orderId", "itemId", "pizzaName", "pizzaPrice",
+            "subtotal", "tax", "total", "customerId", "customerFirstname", "customerLastname", "customerEmail",
+            "customerPhone", "lines", "stale");
+    private static final Set<String> CUSTOMER_FIELDS = Set.of("customerFirstname", "customerLastname",
+            "customerEmail", "customerPhone");
+    private static final Set<String> LINE_FIELDS = Set.of("itemId", "pizzaName", "quantity", "unitPrice", "lineTotal");
+    private static final String LINES_PREFIX = "lines.";
+
+    public static final OrderFields ALL = new OrderFields(ORDER_FIELDS, LINE_FIELDS);
+
+    private final Set<String> fields;
+    private final Set<String> lineFields;
+
+    private OrderFields(Set<String> fields, Set<String> lineFields) {
+        this.fields = fields;
+        this.lineFields = lineFields;
+    }
+
+    /**
+     * @param fields comma-separated field names; null selects everything
+     * @throws IllegalArgumentException for an unknown field, or an empty selection
+     */
+    public static OrderFields parse(String fields) {
+        if (fields == null) {
+            return ALL;
+        }
+        if (fields.isBlank()) {
+            throw new IllegalArgumentException("No order fields selected");
+        }
+        Set<String> selected = new HashSet<>();
+        Set<String> lineFields = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.equals("lines")) {
+                lineFields.addAll(LINE_FIELDS);
+            } else if (name.startsWith(LINES_PREFIX) && LINE_FIELDS.contains(name.substring(LINES_PREFIX.length()))) {
+                lineFields.add(name.substring(LINES_PREFIX.length()));
+            } else if (ORDER_FIELDS.contains(name)) {
+                selected.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown order field: " + name);
+            }
+        }
+        if (!lineFields.isEmpty()) {
+            selected.add("lines");
+        }
+        return new OrderFields(Collections.unmodifiableSet(selected), Collections.unmodifiableSet(lineFields));
+    }
+
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    public boolean includesLine(String field) {
+        return lineFields.contains(field);
+    }
+
+    public boolean needsMenu() {
+        return includesLine("pizzaName") || includes("pizzaName");
+    }
+
+    public boolean needsCustomer() {
+        return CUSTOMER_FIELDS.stream().anyMatch(fields::contains);
+    }
+}
@@ -1,19 +1,37 @@
 package com.amolina.order.service;
 
+import com.amolina.order.analytics.SalesAnalytics;
+import com.amolina.order.archive.OrderArchive;
 import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.amolina.order.model.dto.OrderLineResponseDTO;
 import com.amolina.order.model.dto.OrderResponseDTO;
 import com.amolina.order.service.client.dto.CustomerDTO;
 import com.amolina.order.service.client.dto.PizzaDTO;
 import com.amolina.order.repository.OrderRepository;
+import com.amolina.order.stream.OrderEvent;
+import com.amolina.order.stream.OrderEventBroadcaster;
 import com.amolina.order.service.client.CustomerServiceClient;
 import com.amolina.order.service.client.MenuServiceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OrderService {
@@ -29,14 +47,47 @@ public class OrderService {
     @Autowired
     private CustomerServiceClient customerServiceClient;
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderEventBroadcaster orderEventBroadcaster;
+
+    @Value("${order.tax-rate:0.08}")
+    private BigDecimal taxRate;
+
+    /**
+     * Up to {@code limit} live and archived orders with ids above {@code afterId}, lowest first; the next page
+     * starts after the last id returned.
+     */
+    public List<Order> getOrdersAfter(long afterId, int limit) {
+        List<Long> liveIds = orderRepository.findIdsAfter(afterId, PageRequest.of(0, limit));
+        List<Order> live = liveIds.isEmpty() ? List.of()
+                : orderRepository.findInIdRange(liveIds.get(0), liveIds.get(liveIds.size() - 1));
+        List<Order> orders = new ArrayList<>(withArchived(live, orderArchive.findAfter(afterId, limit)));
+        orders.sort(Comparator.comparing(Order::getOrderId));
+        return orders.size() > limit ? orders.subList(0, limit) : orders;
+    }
+
+    public List<Order> getOrdersCreatedBetween(Instant from, Instant to) {
+        return withArchived(orderRepository.findCreatedBetween(from, to), orderArchive.findCreatedBetween(from, to));
     }
 
     public Optional<OrderResponseDTO> getOrderById(Long id) {
+        return getOrderById(id, OrderFields.ALL);
+    }
+
+    /**
+     * Order details limited to {@code fields}. Downstream services are only called for the fields that need
+     * them, so e.g. a totals-only read is answered from the order table alone.
+     */
+    public Optional<OrderResponseDTO> getOrderById(Long id, OrderFields fields) {
         logger.debug("Attempting to fetch order with id: {}", id);
         
-        Optional<Order> orderOpt = orderRepository.findById(id);
+        Optional<Order> orderOpt = orderRepository.findById(id).or(() -> orderArchive.findById(id));
         
         if (orderOpt.isEmpty()) {
             return Optional.empty();
@@ -44,57 +95,276 @@ public class OrderService {
         
         Order order = orderOpt.get();
         
-        // Fetch pizza details from menu-service (protected by circuit breaker in separate service)
-        PizzaDTO pizza = menuServiceClient.getPizza(order.getItemId());
+        // Fetch all lines' pizza details from menu-service in one request (protected by circuit breaker in separate service)
+        Set<Long> itemIds = itemIds(order);
+        Map<Long, PizzaDTO> pizzas = fields.needsMenu() && !itemIds.isEmpty()
+                ? menuServiceClient.getPizzas(itemIds) : Map.of();
         
         // Fetch customer details from customer-service (protected by circuit breaker in separate service)
-        CustomerDTO customer = customerServiceClient.getCustomer(order.getCustomerId());
+        CustomerDTO customer = fields.needsCustomer() ? customerServiceClient.getCustomer(order.getCustomerId()) : null;
         
-        // Build response with both pizza and customer details
-        OrderResponseDTO response = new OrderResponseDTO();
-        response.setOrderId(order.getOrderId());
-        response.setItemId(order.getItemId());
-        response.setPizzaName(pizza.getName());
-        response.setPizzaPrice(pizza.getPrice());
-        response.setSubtotal(order.getSubtotal());
-        response.setTax(order.getTax());
-        response.setTotal(order.getTotal());
-        response.setCustomerId(order.getCustomerId());
-        response.setCustomerFirstname(customer.getFirstname());
-        response.setCustomerLastname(customer.getLastname());
-        response.setCustomerEmail(customer.getEmail());
-        response.setCustomerPhone(customer.getPhone());
+        OrderResponseDTO response = toResponse(order, fields, pizzas, customer);
         
         logger.debug("Successfully built order response for order id: {}", id);
         return Optional.of(response);
     }
 
+    /**
+     * {@code orders} limited to {@code fields}, as {@link #getOrderById(Long, OrderFields)} answers for one order.
+     * The pizzas of all the orders are resolved with one menu-service request and their customers with one
+     * customer-service request, and only when the fields need them.
+     */
+    public List<OrderResponseDTO> getOrderResponses(List<Order> orders, OrderFields fields) {
+        Set<Long> itemIds = new LinkedHashSet<>();
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (Order order : orders) {
+            itemIds.addAll(itemIds(order));
+            customerIds.add(order.getCustomerId());
+        }
+        Map<Long, PizzaDTO> pizzas = fields.needsMenu() && !itemIds.isEmpty()
+                ? menuServiceClient.getPizzas(itemIds) : Map.of();
+        Map<Long, CustomerDTO> customers = fields.needsCustomer() && !customerIds.isEmpty()
+                ? customerServiceClient.getCustomers(customerIds) : Map.of();
+
+        List<OrderResponseDTO> responses = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            CustomerDTO customer = null;
+            if (fields.needsCustomer()) {
+                customer = customers.get(order.getCustomerId());
+                if (customer == null) {
+                    // Unknown to customer-service: the same default customer a single-order read gets
+                    customer = customerServiceClient.getCustomer(order.getCustomerId());
+                }
+            }
+            responses.add(toResponse(order, fields, pizzas, customer));
+        }
+        return responses;
+    }
+
+    /**
+     * Builds the response with the requested fields only, from the pizzas and customer already resolved.
+     */
+    private OrderResponseDTO toResponse(Order order, OrderFields fields, Map<Long, PizzaDTO> pizzas,
+                                        CustomerDTO customer) {
+        boolean stale = customer != null && customer.isStale();
+        OrderResponseDTO response = new OrderResponseDTO();
+        if (fields.includes("lines")) {
+            List<OrderLineResponseDTO> lines = new ArrayList<>(order.getLines().size());
+            for (OrderLine line : order.getLines()) {
+                OrderLineResponseDTO lineResponse = new OrderLineResponseDTO();
+                if (fields.includesLine("itemId")) {
+                    lineResponse.setItemId(line.getItemId());
+                }
+                if (fields.includesLine("pizzaName")) {
+                    PizzaDTO pizza = pizza(pizzas, line.getItemId());
+                    stale |= pizza.isStale();
+                    lineResponse.setPizzaName(pizza.getName());
+                }
+                if (fields.includesLine("quantity")) {
+                    lineResponse.setQuantity(line.getQuantity());
+                }
+                if (fields.includesLine("unitPrice")) {
+                    lineResponse.setUnitPrice(line.getUnitPrice());
+                }
+                if (fields.includesLine("lineTotal")) {
+                    lineResponse.setLineTotal(line.getLineTotal());
+                }
+                lines.add(lineResponse);
+            }
+            response.setLines(lines);
+        }
+        if (fields.includes("orderId")) {
+            response.setOrderId(order.getOrderId());
+        }
+        if (order.getLines().size() == 1) {
+            OrderLine line = order.getLines().get(0);
+            if (fields.includes("itemId")) {
+                response.setItemId(line.getItemId());
+            }
+            if (fields.includes("pizzaName")) {
+                PizzaDTO pizza = pizza(pizzas, line.getItemId());
+                stale |= pizza.isStale();
+                response.setPizzaName(pizza.getName());
+            }
+            if (fields.includes("pizzaPrice")) {
+                response.setPizzaPrice(line.getUnitPrice());
+            }
+        }
+        if (fields.includes("subtotal")) {
+            response.setSubtotal(order.getSubtotal());
+        }
+        if (fields.includes("tax")) {
+            response.setTax(order.getTax());
+        }
+        if (fields.includes("total")) {
+            response.setTotal(order.getTotal());
+        }
+        if (fields.includes("customerId")) {
+            response.setCustomerId(order.getCustomerId());
+        }
+        if (customer != null) {
+            if (fields.includes("customerFirstname")) {
+                response.setCustomerFirstname(customer.getFirstname());
+            }
+            if (fields.includes("customerLastname")) {
+                response.setCustomerLastname(customer.getLastname());
+            }
+            if (fields.includes("customerEmail")) {
+                response.setCustomerEmail(customer.getEmail());
+            }
+            if (fields.includes("customerPhone")) {
+                response.setCustomerPhone(customer.getPhone());
+            }
+        }
+        response.setStale(stale);
+        response.setVersion(order.getVersion());
+        return response;
+    }
+
 
     public List<Order> getOrdersByCustomerId(Long customerId) {
-        return orderRepository.findByCustomerId(customerId);
+        return withArchived(orderRepository.findByCustomerId(customerId), orderArchive.findByCustomerId(customerId));
     }
 
     public Order createOrder(Order order) {
-        return orderRepository.save(order);
+        priceOrder(order);
+        Order createdOrder = orderRepository.save(order);
+        salesAnalytics.onCreated(createdOrder);
+        orderEventBroadcaster.publish(OrderEvent.Type.CREATED, createdOrder);
+        return createdOrder;
     }
 
-    public Order updateOrder(Long id, Order orderDetails) {
+    /**
+     * Replaces the customer and lines of order {@code id} and reprices it. With a {@code version} it only does
+     * so while the order is at that version; the version check on save catches a change between the read and
+     * the write.
+     *
+     * @throws VersionConflictException if the order is at another version than {@code version}
+     */
+    public Order updateOrder(Long id, Long version, Order orderDetails) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        if (version != null && !version.equals(order.getVersion())) {
+            throw new VersionConflictException(id, version);
+        }
+        Order previous = new Order();
+        BeanUtils.copyProperties(order, previous);
+        previous.setLines(new ArrayList<>(order.getLines()));
         
-        order.setItemId(orderDetails.getItemId());
+        priceOrder(orderDetails);
         order.setSubtotal(orderDetails.getSubtotal());
         order.setTax(orderDetails.getTax());
         order.setTotal(orderDetails.getTotal());
         order.setCustomerId(orderDetails.getCustomerId());
+        order.getLines().clear();
+        order.getLines().addAll(orderDetails.getLines());
         
-        return orderRepository.save(order);
+        Order updatedOrder = orderRepository.save(order);
+        salesAnalytics.onUpdated(previous, updatedOrder);
+        orderEventBroadcaster.publish(OrderEvent.Type.UPDATED, updatedOrder);
+        return updatedOrder;
+    }
+
+    /**
+     * Applies the fields of {@code changes} that an order allows to change in place, currently the customer,
+     * with a single conditional UPDATE. Lines are repriced on change, so they go through
+     * {@link #updateOrder}. A successful UPDATE is followed by one read of the order for the change feed: its
+     * events carry the whole order, and its item ids for the subscribers' filters, and the UPDATE returns neither.
+     *
+     * @return the order's new version
+     * @throws VersionConflictException if the order is no longer at {@code version}
+     */
+    public long patchOrder(Long id, long version, Order changes) {
+        if (changes.getLines() != null && !changes.getLines().isEmpty()) {
+            throw new IllegalArgumentException("Lines are replaced with PUT, which reprices them");
+        }
+        if (changes.getCustomerId() == null) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        if (orderRepository.patchCustomerId(id, version, changes.getCustomerId()) == 0) {
+            // Only a failed update pays for the second round trip that tells the two cases apart
+            if (!orderRepository.existsById(id)) {
+                throw new RuntimeException("Order not found with id: " + id);
+            }
+            throw new VersionConflictException(id, version);
+        }
+        orderRepository.findById(id)
+                .ifPresent(order -> orderEventBroadcaster.publish(OrderEvent.Type.UPDATED, order));
+        return version + 1;
     }
 
     public void deleteOrder(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         orderRepository.delete(order);
+        salesAnalytics.onDeleted(order);
+        orderEventBroadcaster.publish(OrderEvent.Type.DELETED, order);
+    }
+
+    /**
+     * Sets each line's unit price from the menu, resolved for all lines in one request, and the order's
+     * subtotal, tax and total from them. Prices from the menu fallback path are refused rather than charged.
+     */
+    private void priceOrder(Order order) {
+        if (order.getLines() == null || order.getLines().isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one line");
+        }
+        for (OrderLine line : order.getLines()) {
+            if (line.getItemId() == null || line.getQuantity() == null || line.getQuantity() < 1) {
+                throw new IllegalArgumentException("Every line needs an itemId and a positive quantity");
+            }
+        }
+        Map<Long, PizzaDTO> pizzas = menuServiceClient.getPizzas(itemIds(order));
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderLine line : order.getLines()) {
+            PizzaDTO pizza = pizzas.get(line.getItemId());
+            if (pizza == null) {
+                throw new IllegalArgumentException("Unknown item: " + line.getItemId());
+            }
+            if (pizza.isStale()) {
+                throw new MenuUnavailableException(line.getItemId());
+            }
+            line.setUnitPrice(pizza.getPrice());
+            subtotal = subtotal.add(line.getLineTotal());
+        }
+        BigDecimal tax = subtotal.multiply(taxRate).setScale(2, RoundingMode.HALF_UP);
+        order.setSubtotal(subtotal);
+        order.setTax(tax);
+        order.setTotal(subtotal.add(tax));
+    }
+
+    /**
+     * Live orders followed by the archived ones. An order is only in both for the moment between the archiver's
+     * commit and its segment being published; the live copy is kept.
+     */
+    private static List<Order> withArchived(List<Order> live, List<Order> archived) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Set<Long> liveIds = new HashSet<>();
+        for (Order order : live) {
+            liveIds.add(order.getOrderId());
+        }
+        List<Order> orders = new ArrayList<>(live);
+        for (Order order : archived) {
+            if (!liveIds.contains(order.getOrderId())) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private PizzaDTO pizza(Map<Long, PizzaDTO> pizzas, Long itemId) {
+        PizzaDTO pizza = pizzas.get(itemId);
+        return pizza != null ? pizza : menuServiceClient.defaultPizza(itemId);
+    }
+
+    private static Set<Long> itemIds(Order order) {
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (OrderLine line : order.getLines()) {
+            itemIds.add(line.getItemId());
+        }
+        return itemIds;
     }
 }
 
@@ -0,0 +1,11 @@
+package com.amolina.order.service;
+
+/**
+ * Thrown when a conditional update finds the order at another version than the caller read.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(Long orderId, long version) {
+        super("Order " + orderId + " is no longer at version " + version);
+    }
+}
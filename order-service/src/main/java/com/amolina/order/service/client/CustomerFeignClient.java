@@ -1,17 +1,27 @@
 package com.amolina.order.service.client;
 
 import com.amolina.order.service.client.dto.CustomerDTO;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient("customer-service")
 public interface CustomerFeignClient {
     @RequestMapping(
             method = RequestMethod.GET,
             value = "/api/customers/{customerId}",
-            consumes = "application/json")
-    CustomerDTO getCustomer(@PathVariable("customerId") Long customerId);
+            produces = {"application/cbor", "application/json"})
+    CustomerDTO getCustomer(@PathVariable("customerId") Long customerId, Request.Options options);
+
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/api/customers",
+            produces = {"application/cbor", "application/json"})
+    List<CustomerDTO> getCustomers(@RequestParam("ids") String customerIds, Request.Options options);
 }
 
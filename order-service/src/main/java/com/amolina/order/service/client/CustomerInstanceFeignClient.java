@@ -0,0 +1,31 @@
+package com.amolina.order.service.client;
+
+import com.amolina.order.service.client.dto.CustomerDTO;
+import feign.Request;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Calls a specific customer-service instance, bypassing the load balancer.
+ * Used for hedged requests, which must land on a different instance than the first attempt.
+ */
+@FeignClient(name = "customer-service-instance", url = "http://customer-service")
+public interface CustomerInstanceFeignClient {
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/api/customers/{customerId}",
+            produces = {"application/cbor", "application/json"})
+    CustomerDTO getCustomer(URI baseUri, @PathVariable("customerId") Long customerId, Request.Options options);
+
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/api/customers",
+            produces = {"application/cbor", "application/json"})
+    List<CustomerDTO> getCustomers(URI baseUri, @RequestParam("ids") String customerIds, Request.Options options);
+}
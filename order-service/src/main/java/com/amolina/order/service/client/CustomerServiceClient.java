@@ -1,14 +1,35 @@
 package com.amolina.order.service.client;
 
+import com.amolina.order.batching.BatchLoader;
+import com.amolina.order.batching.BatchLoaderFactory;
+import com.amolina.order.deadline.DeadlineAwareOptions;
+import com.amolina.order.resilience.AdaptiveLimiterRegistry;
+import com.amolina.order.resilience.HedgedRequestExecutor;
+import com.amolina.order.service.client.cache.LastKnownGoodCache;
 import com.amolina.order.service.client.dto.CustomerDTO;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import com.amolina.common.tracing.CorrelationIdFilter;
+import com.amolina.common.tracing.SpanRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 @Service
 public class CustomerServiceClient {
 
@@ -17,33 +38,151 @@ public class CustomerServiceClient {
     @Autowired
     private CustomerFeignClient customerFeignClient;
 
-    @CircuitBreaker(name = "customerService", fallbackMethod = "getDefaultCustomer")
-    @Retry(name = "customerService")
-    @Bulkhead(name = "customerService")
+    @Autowired
+    private CustomerInstanceFeignClient customerInstanceFeignClient;
+
+    @Autowired
+    private SpanRecorder spanRecorder;
+
+    @Autowired
+    private AdaptiveLimiterRegistry adaptiveLimiterRegistry;
+
+    @Autowired
+    private HedgedRequestExecutor hedgedRequestExecutor;
+
+    @Autowired
+    private DeadlineAwareOptions deadlineAwareOptions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BatchLoaderFactory batchLoaderFactory;
+
+    /** This bean's proxy, so batches sent by the loader go through the circuit breaker and retry. */
+    @Lazy
+    @Autowired
+    private CustomerServiceClient self;
+
+    @Value("${fallback-cache.max-entries:100000}")
+    private int fallbackCacheMaxEntries;
+
+    private LastKnownGoodCache<CustomerDTO> customerCache;
+
+    private BatchLoader<CustomerDTO> customerLoader;
+
+    @PostConstruct
+    public void init() {
+        customerCache = new LastKnownGoodCache<>(objectMapper, CustomerDTO.class, fallbackCacheMaxEntries);
+        customerLoader = batchLoaderFactory.create("customerService", customerIds -> self.fetchCustomers(customerIds));
+    }
+
+    public LastKnownGoodCache<CustomerDTO> getCustomerCache() {
+        return customerCache;
+    }
+
+    /**
+     * Looks up one customer. Concurrent lookups share customer-service requests, see {@link #fetchCustomers}. An id customer-service
+     * does not know gets the default customer, never cached details.
+     */
     public CustomerDTO getCustomer(Long customerId) {
-        logger.info("Calling customer-service for customer id: {}", customerId);
-        CustomerDTO result = customerFeignClient.getCustomer(customerId);
-        logger.info("Successfully fetched customer from customer-service");
-        return result;
+        CustomerDTO customer = customerLoader.load(customerId);
+        return customer != null ? customer : defaultCustomer(customerId);
+    }
+
+    /**
+     * Resolves several customers, sharing customer-service requests with concurrent lookups. Ids
+     * customer-service does not know are missing from the result.
+     */
+    public Map<Long, CustomerDTO> getCustomers(Collection<Long> customerIds) {
+        return customerLoader.loadAll(customerIds);
+    }
+
+    /**
+     * Resolves several customers with one customer-service request. Ids customer-service does not know
+     * are missing from the result. Sent by the customer loader, so the breaker, retry and fallback apply
+     * to a whole batch; callers use {@link #getCustomer} or {@link #getCustomers}.
+     */
+    @CircuitBreaker(name = "customerService", fallbackMethod = "getDefaultCustomers")
+    @Retry(name = "customerService")
+    public Map<Long, CustomerDTO> fetchCustomers(Collection<Long> customerIds) {
+        logger.info("Calling customer-service for customer ids: {}", customerIds);
+        String ids = customerIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Request.Options options = deadlineAwareOptions.forCall("customerService");
+        long startEpochMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        List<CustomerDTO> result;
+        try {
+            result = adaptiveLimiterRegistry.execute("customerService", () -> hedgedRequestExecutor.execute(
+                    "customerService", "customer-service",
+                    () -> customerFeignClient.getCustomers(ids, options),
+                    instance -> customerInstanceFeignClient.getCustomers(instance, ids, options)));
+        } finally {
+            spanRecorder.record(MDC.get(CorrelationIdFilter.MDC_KEY), "GET customer-service",
+                    startEpochMillis, startNanos);
+        }
+        Map<Long, CustomerDTO> customers = new LinkedHashMap<>();
+        for (CustomerDTO customer : result) {
+            customerCache.put(customer.getCustomerId(), customer);
+            customers.put(customer.getCustomerId(), customer);
+        }
+        for (Long customerId : customerIds) {
+            if (!customers.containsKey(customerId)) {
+                customerCache.evict(customerId);
+            }
+        }
+        logger.info("Successfully fetched {} customers from customer-service", customers.size());
+        return customers;
     }
 
     /**
-     * Fallback method for customer-service failures.
-     * Returns default customer information when customer-service is unavailable.
+     * Fallback method for customer-service failures, applied to a whole batch.
+     * Serves the last known customer details, flagged as stale, when customer-service is unavailable,
+     * and falls back to default customer information for ids that were never fetched. If customer-service answered
+     * that the ids do not exist, their cached details are dropped and they are missing from the result.
      */
     @SuppressWarnings("unused")
-    private CustomerDTO getDefaultCustomer(Long customerId, Throwable throwable) {
+    private Map<Long, CustomerDTO> getDefaultCustomers(Collection<Long> customerIds, Throwable throwable) {
+        Map<Long, CustomerDTO> customers = new LinkedHashMap<>();
+        for (Long customerId : customerIds) {
+            if (throwable instanceof FeignException.NotFound) {
+                // customer-service answered that the id does not exist; never serve what was cached for it
+                customerCache.evict(customerId);
+                continue;
+            }
+            customerCache.markStale(customerId);
+            customers.put(customerId, lastKnownOrDefault(customerId, throwable.getMessage()));
+        }
+        return customers;
+    }
+
+    private CustomerDTO lastKnownOrDefault(Long customerId, String error) {
+        Optional<CustomerDTO> lastKnown = customerCache.get(customerId);
+        if (lastKnown.isPresent()) {
+            logger.warn("customer-service unavailable for customer id: {}. Error: {}. Using last known customer.",
+                        customerId, error);
+            CustomerDTO staleCustomer = lastKnown.get();
+            staleCustomer.setStale(true);
+            return staleCustomer;
+        }
+
         logger.warn("customer-service unavailable for customer id: {}. Error: {}. Using default customer.", 
-                    customerId, throwable.getMessage());
-        
+                    customerId, error);
+        return defaultCustomer(customerId);
+    }
+
+    /**
+     * Placeholder for a customer whose details are unavailable, flagged as stale.
+     */
+    private CustomerDTO defaultCustomer(Long customerId) {
         CustomerDTO defaultCustomer = new CustomerDTO();
         defaultCustomer.setCustomerId(customerId);
         defaultCustomer.setFirstname("Guest");
         defaultCustomer.setLastname("Customer");
         defaultCustomer.setEmail("unavailable@pizza-store.com");
         defaultCustomer.setPhone("N/A");
+        defaultCustomer.setStale(true);
         
         return defaultCustomer;
     }
 }
-
@@ -1,18 +1,28 @@
 package com.amolina.order.service.client;
 
 
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.amolina.order.service.client.dto.PizzaDTO;
 
+import java.util.List;
+
 @FeignClient("menu-service")
 public interface MenuFeignClient {
     @RequestMapping(
             method= RequestMethod.GET,
             value="/api/pizzas/{pizzaId}",
-            consumes="application/json")
-    PizzaDTO getPizza(@PathVariable("pizzaId") String pizzaId);
+            produces = {"application/cbor", "application/json"})
+    PizzaDTO getPizza(@PathVariable("pizzaId") String pizzaId, Request.Options options);
+
+    @RequestMapping(
+            method= RequestMethod.GET,
+            value="/api/pizzas",
+            produces = {"application/cbor", "application/json"})
+    List<PizzaDTO> getPizzas(@RequestParam("ids") String pizzaIds, Request.Options options);
 }
@@ -0,0 +1,31 @@
+package com.amolina.order.service.client;
+
+import com.amolina.order.service.client.dto.PizzaDTO;
+import feign.Request;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Calls a specific menu-service instance, bypassing the load balancer.
+ * Used for hedged requests, which must land on a different instance than the first attempt.
+ */
+@FeignClient(name = "menu-service-instance", url = "http://menu-service")
+public interface MenuInstanceFeignClient {
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/api/pizzas/{pizzaId}",
+            produces = {"application/cbor", "application/json"})
+    PizzaDTO getPizza(URI baseUri, @PathVariable("pizzaId") String pizzaId, Request.Options options);
+
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/api/pizzas",
+            produces = {"application/cbor", "application/json"})
+    List<PizzaDTO> getPizzas(URI baseUri, @RequestParam("ids") String pizzaIds, Request.Options options);
+}
@@ -1,15 +1,35 @@
 package com.amolina.order.service.client;
 
+import com.amolina.order.batching.BatchLoader;
+import com.amolina.order.batching.BatchLoaderFactory;
+import com.amolina.order.deadline.DeadlineAwareOptions;
+import com.amolina.order.resilience.AdaptiveLimiterRegistry;
+import com.amolina.order.resilience.HedgedRequestExecutor;
+import com.amolina.order.service.client.cache.LastKnownGoodCache;
 import com.amolina.order.service.client.dto.PizzaDTO;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import com.amolina.common.tracing.CorrelationIdFilter;
+import com.amolina.common.tracing.SpanRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class MenuServiceClient {
@@ -19,32 +39,150 @@ public class MenuServiceClient {
     @Autowired
     private MenuFeignClient menuFeignClient;
 
-    @CircuitBreaker(name = "menuService", fallbackMethod = "getDefaultPizza")
-    @Retry(name = "menuService")
-    @Bulkhead(name = "menuService")
+    @Autowired
+    private MenuInstanceFeignClient menuInstanceFeignClient;
+
+    @Autowired
+    private SpanRecorder spanRecorder;
+
+    @Autowired
+    private AdaptiveLimiterRegistry adaptiveLimiterRegistry;
+
+    @Autowired
+    private HedgedRequestExecutor hedgedRequestExecutor;
+
+    @Autowired
+    private DeadlineAwareOptions deadlineAwareOptions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BatchLoaderFactory batchLoaderFactory;
+
+    /** This bean's proxy, so batches sent by the loader go through the circuit breaker and retry. */
+    @Lazy
+    @Autowired
+    private MenuServiceClient self;
+
+    @Value("${fallback-cache.max-entries:100000}")
+    private int fallbackCacheMaxEntries;
+
+    private LastKnownGoodCache<PizzaDTO> pizzaCache;
+
+    private BatchLoader<PizzaDTO> pizzaLoader;
+
+    @PostConstruct
+    public void init() {
+        pizzaCache = new LastKnownGoodCache<>(objectMapper, PizzaDTO.class, fallbackCacheMaxEntries);
+        pizzaLoader = batchLoaderFactory.create("menuService", pizzaIds -> self.fetchPizzas(pizzaIds));
+    }
+
+    public LastKnownGoodCache<PizzaDTO> getPizzaCache() {
+        return pizzaCache;
+    }
+
+    /**
+     * Looks up one pizza. Concurrent lookups share menu-service requests, see {@link #fetchPizzas}. An id menu-service
+     * does not know gets the default pizza, never cached details.
+     */
     public PizzaDTO getPizza(Long pizzaId) {
-        logger.info("Calling menu-service for pizza id: {}", pizzaId);
-        PizzaDTO result = menuFeignClient.getPizza(pizzaId.toString());
-        logger.info("Successfully fetched pizza from menu-service");
-        return result;
+        PizzaDTO pizza = pizzaLoader.load(pizzaId);
+        return pizza != null ? pizza : defaultPizza(pizzaId);
+    }
+
+    /**
+     * Resolves several pizzas, sharing menu-service requests with concurrent lookups. Ids menu-service
+     * does not know are missing from the result.
+     */
+    public Map<Long, PizzaDTO> getPizzas(Collection<Long> pizzaIds) {
+        return pizzaLoader.loadAll(pizzaIds);
+    }
+
+    /**
+     * Resolves several pizzas with one menu-service request. Ids menu-service does not know are
+     * missing from the result. Sent by the pizza loader, so the breaker, retry and fallback apply
+     * to a whole batch; callers use {@link #getPizza} or {@link #getPizzas}.
+     */
+    @CircuitBreaker(name = "menuService", fallbackMethod = "getDefaultPizzas")
+    @Retry(name = "menuService")
+    public Map<Long, PizzaDTO> fetchPizzas(Collection<Long> pizzaIds) {
+        logger.info("Calling menu-service for pizza ids: {}", pizzaIds);
+        String ids = pizzaIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Request.Options options = deadlineAwareOptions.forCall("menuService");
+        long startEpochMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        List<PizzaDTO> result;
+        try {
+            result = adaptiveLimiterRegistry.execute("menuService", () -> hedgedRequestExecutor.execute(
+                    "menuService", "menu-service",
+                    () -> menuFeignClient.getPizzas(ids, options),
+                    instance -> menuInstanceFeignClient.getPizzas(instance, ids, options)));
+        } finally {
+            spanRecorder.record(MDC.get(CorrelationIdFilter.MDC_KEY), "GET menu-service",
+                    startEpochMillis, startNanos);
+        }
+        Map<Long, PizzaDTO> pizzas = new LinkedHashMap<>();
+        for (PizzaDTO pizza : result) {
+            pizzaCache.put(pizza.getItemId(), pizza);
+            pizzas.put(pizza.getItemId(), pizza);
+        }
+        for (Long pizzaId : pizzaIds) {
+            if (!pizzas.containsKey(pizzaId)) {
+                pizzaCache.evict(pizzaId);
+            }
+        }
+        logger.info("Successfully fetched {} pizzas from menu-service", pizzas.size());
+        return pizzas;
     }
 
     /**
-     * Fallback method for menu-service failures.
-     * Returns default pizza information when menu-service is unavailable.
+     * Fallback method for menu-service failures, applied to a whole batch.
+     * Serves the last known pizza details, flagged as stale, when menu-service is unavailable,
+     * and falls back to default pizza information for ids that were never fetched. If menu-service answered
+     * that the ids do not exist, their cached details are dropped and they are missing from the result.
      */
     @SuppressWarnings("unused")
-    private PizzaDTO getDefaultPizza(Long pizzaId, Throwable throwable) {
+    private Map<Long, PizzaDTO> getDefaultPizzas(Collection<Long> pizzaIds, Throwable throwable) {
+        Map<Long, PizzaDTO> pizzas = new LinkedHashMap<>();
+        for (Long pizzaId : pizzaIds) {
+            if (throwable instanceof FeignException.NotFound) {
+                // menu-service answered that the id does not exist; never serve what was cached for it
+                pizzaCache.evict(pizzaId);
+                continue;
+            }
+            pizzaCache.markStale(pizzaId);
+            pizzas.put(pizzaId, lastKnownOrDefault(pizzaId, throwable.getMessage()));
+        }
+        return pizzas;
+    }
+
+    private PizzaDTO lastKnownOrDefault(Long pizzaId, String error) {
+        Optional<PizzaDTO> lastKnown = pizzaCache.get(pizzaId);
+        if (lastKnown.isPresent()) {
+            logger.warn("menu-service unavailable for pizza id: {}. Error: {}. Using last known pizza.",
+                        pizzaId, error);
+            PizzaDTO stalePizza = lastKnown.get();
+            stalePizza.setStale(true);
+            return stalePizza;
+        }
+
         logger.warn("menu-service unavailable for pizza id: {}. Error: {}. Using default pizza.", 
-                    pizzaId, throwable.getMessage());
-        
+                    pizzaId, error);
+        return defaultPizza(pizzaId);
+    }
+
+    /**
+     * Placeholder for a pizza whose details are unavailable, flagged as stale.
+     */
+    public PizzaDTO defaultPizza(Long pizzaId) {
         PizzaDTO defaultPizza = new PizzaDTO();
         defaultPizza.setItemId(pizzaId);
         defaultPizza.setName("Pizza (Details Unavailable)");
         defaultPizza.setDescription("Service temporarily unavailable");
         defaultPizza.setPrice(BigDecimal.ZERO);
+        defaultPizza.setStale(true);
         
         return defaultPizza;
     }
 }
-
@@ -0,0 +1,108 @@
+package com.amolina.order.service.client.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Bounded store of the last successfully fetched value per id, used by client fallbacks
+ * while a downstream is unavailable.
+ * Values are kept as encoded bytes rather than object graphs, which keeps the footprint
+ * small enough to hold the full menu and customer base.
+ * <p>
+ * Once {@code maxEntries} is reached the least recently used id is evicted. Stale marks are only kept
+ * for cached ids and go with their entry, so both are bounded by {@code maxEntries}.
+ */
+public class LastKnownGoodCache<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastKnownGoodCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final int maxEntries;
+    private final Map<Long, byte[]> entries;
+    private final Set<Long> staleKeys = new HashSet<>();
+
+    public LastKnownGoodCache(ObjectMapper objectMapper, Class<T> type, int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                if (size() <= LastKnownGoodCache.this.maxEntries) {
+                    return false;
+                }
+                staleKeys.remove(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    public void put(Long id, T value) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            logger.debug("Could not cache {} {}: {}", type.getSimpleName(), id, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            entries.put(id, bytes);
+            staleKeys.remove(id);
+        }
+    }
+
+    public Optional<T> get(Long id) {
+        byte[] bytes;
+        synchronized (this) {
+            bytes = entries.get(id);
+        }
+        if (bytes == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(bytes, type));
+        } catch (IOException e) {
+            evict(id);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drops {@code id}, for values the downstream says no longer exist.
+     */
+    public synchronized void evict(Long id) {
+        entries.remove(id);
+        staleKeys.remove(id);
+    }
+
+    /**
+     * Remembers that a stale value was served for {@code id} so it is refreshed once the downstream
+     * recovers. Ids that are not cached have nothing to refresh; their next lookup goes downstream anyway.
+     */
+    public synchronized void markStale(Long id) {
+        if (entries.containsKey(id)) {
+            staleKeys.add(id);
+        }
+    }
+
+    public synchronized List<Long> drainStaleKeys() {
+        List<Long> keys = new ArrayList<>(staleKeys);
+        staleKeys.clear();
+        return keys;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
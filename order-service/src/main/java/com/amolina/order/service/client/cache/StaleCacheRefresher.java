@@ -0,0 +1,80 @@
+package com.amolina.order.service.client.cache;
+
+import com.amolina.order.config.ServiceAccountTokens;
+import com.amolina.order.service.client.CustomerServiceClient;
+import com.amolina.order.service.client.MenuServiceClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Re-fetches ids that were served from the fallback cache as soon as the corresponding
+ * circuit breaker half-opens. The ids go out in as few batched requests as the batch size allows,
+ * through the client proxies, so the breaker decides whether the downstream has recovered and
+ * successful responses repopulate the cache. The requests carry order-service's own service account
+ * token; without one the refresh is skipped and the ids stay marked for the next half-open.
+ */
+@Component
+public class StaleCacheRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleCacheRefresher.class);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stale-cache-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private MenuServiceClient menuServiceClient;
+
+    @Autowired
+    private CustomerServiceClient customerServiceClient;
+
+    @Autowired
+    private ServiceAccountTokens serviceAccountTokens;
+
+    @PostConstruct
+    public void init() {
+        onHalfOpen("menuService", menuServiceClient.getPizzaCache(), menuServiceClient::getPizzas);
+        onHalfOpen("customerService", customerServiceClient.getCustomerCache(), customerServiceClient::getCustomers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void onHalfOpen(String name, LastKnownGoodCache<?> cache, Consumer<List<Long>> fetch) {
+        circuitBreakerRegistry.circuitBreaker(name).getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.HALF_OPEN) {
+                executor.submit(() -> refresh(name, cache, fetch));
+            }
+        });
+    }
+
+    private void refresh(String name, LastKnownGoodCache<?> cache, Consumer<List<Long>> fetch) {
+        List<Long> keys = cache.drainStaleKeys();
+        if (keys.isEmpty()) {
+            return;
+        }
+        logger.info("{} half-open, refreshing {} stale entries", name, keys.size());
+        if (!serviceAccountTokens.runAsService(() -> fetch.accept(keys))) {
+            logger.warn("No service account token, skipping refresh of {} stale {} entries", keys.size(), name);
+            keys.forEach(cache::markStale);
+        }
+    }
+}
@@ -13,5 +13,7 @@ public class CustomerDTO {
     private String lastname;
     private String phone;
     private String email;
+    /** Set by order-service when the value comes from the fallback path rather than a live call. */
+    private boolean stale;
 }
 
@@ -14,5 +14,7 @@ public class PizzaDTO {
     private String name;
     private String description;
     private BigDecimal price;
+    /** Set by order-service when the value comes from the fallback path rather than a live call. */
+    private boolean stale;
 }
 
@@ -0,0 +1,25 @@
+package com.amolina.order.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * A committed change to an order. The order is kept as its JSON snapshot taken when the change was
+ * made, so every subscriber is sent the same bytes.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final Long customerId;
+    private final Set<Long> itemIds;
+    private final String data;
+}
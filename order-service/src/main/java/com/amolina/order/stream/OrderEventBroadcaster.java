@@ -0,0 +1,274 @@
+package com.amolina.order.stream;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.amolina.common.threads.VirtualThreads;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed order changes to Server-Sent Events subscribers.
+ * <p>
+ * Events are numbered in the order they commit and the last {@code order-stream.backlog-size} are kept in a
+ * ring, so a client reconnecting with {@code Last-Event-ID} receives what it missed. A client that is too far
+ * behind gets a {@code reset} event and should reload the orders. Each subscriber has a bounded queue written
+ * by a small sender pool; one that falls {@code subscriber-buffer} events behind is disconnected rather than
+ * allowed to hold memory or stall the others, and resumes from the backlog when it reconnects.
+ * <p>
+ * Writes are blocking servlet writes, so a client that stops reading holds a sender thread until the container's
+ * write timeout. A subscriber whose write has been blocked for {@code write-timeout} is disconnected, and the
+ * pool gets a thread in place of the blocked one until its write returns, so the other subscribers keep
+ * receiving events.
+ * An idle subscriber costs a heartbeat comment every {@code heartbeat-interval}.
+ * <p>
+ * Event ids are {@code <start time>-<sequence>}, so ids from before a restart are recognised and answered
+ * with {@code reset}. Each instance streams the changes made through it.
+ */
+@Component
+public class OrderEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBroadcaster.class);
+
+    private final long epoch = System.currentTimeMillis();
+    private final Object lock = new Object();
+    private final Set<OrderStreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private OrderEvent[] backlog;
+    private long lastSequence;
+    private ExecutorService sender;
+    private ThreadPoolExecutor senderPool;
+    private int blockedSenders;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Counter evictions;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @PostConstruct
+    public void init() {
+        backlog = new OrderEvent[properties.getBacklogSize()];
+        if (virtualThreads) {
+            sender = VirtualThreads.newThreadPerTaskExecutor("order-stream-");
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            senderPool = new ThreadPoolExecutor(properties.getSenderThreads(), properties.getSenderThreads(),
+                    1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "order-stream-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            sender = senderPool;
+        }
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        long checkInterval = Math.max(1, properties.getWriteTimeout().toMillis() / 4);
+        heartbeat.scheduleWithFixedDelay(this::disconnectStalled, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        Gauge.builder("order.stream.subscribers", subscribers, Set::size)
+                .description("Open order stream connections")
+                .register(meterRegistry);
+        evictions = Counter.builder("order.stream.evictions")
+                .description("Order stream subscribers disconnected for falling behind or not reading")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(OrderStreamSubscriber::close);
+        sender.shutdown();
+    }
+
+    /**
+     * Opens a stream of the changes to orders of {@code customerId} and/or containing {@code itemId}
+     * (either may be null), starting after {@code lastEventId} when the client is resuming.
+     */
+    public SseEmitter subscribe(String lastEventId, Long customerId, Long itemId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        OrderStreamSubscriber subscriber = new OrderStreamSubscriber(emitter, customerId, itemId,
+                properties.getSubscriberBuffer(), sender);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null) {
+                List<OrderEvent> missed = eventsAfter(lastEventId);
+                if (missed == null || missed.size() > properties.getSubscriberBuffer()) {
+                    subscriber.offer(SseEmitter.event().name("reset").data("{\"reason\":\"backlog-exceeded\"}",
+                            MediaType.APPLICATION_JSON));
+                } else {
+                    missed.stream().filter(subscriber::matches).forEach(event -> subscriber.offer(frame(event)));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Announces a change to {@code order}. The order is serialized now; subscribers are told once the
+     * surrounding transaction commits, or straight away when there is none.
+     */
+    public void publish(OrderEvent.Type type, Order order) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize order {} for the order stream: {}", order.getOrderId(), e.getMessage());
+            return;
+        }
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (OrderLine line : order.getLines()) {
+            itemIds.add(line.getItemId());
+        }
+        Long customerId = order.getCustomerId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(type, customerId, itemIds, data);
+                }
+            });
+        } else {
+            append(type, customerId, itemIds, data);
+        }
+    }
+
+    private void append(OrderEvent.Type type, Long customerId, Set<Long> itemIds, String data) {
+        synchronized (lock) {
+            OrderEvent event = new OrderEvent(++lastSequence, type, customerId, itemIds, data);
+            backlog[(int) (event.getSequence() % backlog.length)] = event;
+            for (OrderStreamSubscriber subscriber : subscribers) {
+                if (subscriber.matches(event)) {
+                    deliver(subscriber, frame(event));
+                }
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (OrderStreamSubscriber subscriber : subscribers) {
+            deliver(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        long timeout = properties.getWriteTimeout().toNanos();
+        for (OrderStreamSubscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now, timeout)) {
+                subscribers.remove(subscriber);
+                resizeSenders(1);
+                subscriber.abandon(() -> resizeSenders(-1));
+                evictions.increment();
+                logger.debug("Disconnected an order stream subscriber whose write was blocked for more than {}",
+                        properties.getWriteTimeout());
+            }
+        }
+    }
+
+    /**
+     * Keeps {@code sender-threads} threads free to write while {@code blockedSenders} are stuck on clients that
+     * stopped reading. Virtual sender threads need no replacement.
+     */
+    private void resizeSenders(int delta) {
+        if (senderPool == null) {
+            return;
+        }
+        synchronized (senderPool) {
+            blockedSenders += delta;
+            int size = properties.getSenderThreads() + blockedSenders;
+            if (delta > 0) {
+                senderPool.setMaximumPoolSize(size);
+                senderPool.setCorePoolSize(size);
+            } else {
+                senderPool.setCorePoolSize(size);
+                senderPool.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void deliver(OrderStreamSubscriber subscriber, SseEmitter.SseEventBuilder frame) {
+        if (subscriber.isClosed()) {
+            subscribers.remove(subscriber);
+        } else if (!subscriber.offer(frame)) {
+            subscribers.remove(subscriber);
+            subscriber.close();
+            evictions.increment();
+            logger.debug("Disconnected an order stream subscriber that fell {} events behind",
+                    properties.getSubscriberBuffer());
+        }
+    }
+
+    /**
+     * Backlog events after the given id, or null when they are no longer all held (or the id is from
+     * another run).
+     */
+    private List<OrderEvent> eventsAfter(String lastEventId) {
+        int separator = lastEventId.indexOf('-');
+        long sequence;
+        try {
+            if (separator < 0 || Long.parseLong(lastEventId.substring(0, separator)) != epoch) {
+                return null;
+            }
+            sequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (sequence > lastSequence || sequence < lastSequence - backlog.length) {
+            return null;
+        }
+        List<OrderEvent> events = new ArrayList<>((int) (lastSequence - sequence));
+        for (long next = sequence + 1; next <= lastSequence; next++) {
+            events.add(backlog[(int) (next % backlog.length)]);
+        }
+        return events;
+    }
+
+    private SseEmitter.SseEventBuilder frame(OrderEvent event) {
+        return SseEmitter.event()
+                .id(epoch + "-" + event.getSequence())
+                .name(event.getType().name().toLowerCase(Locale.ROOT))
+                .data(event.getData(), MediaType.APPLICATION_JSON);
+    }
+}
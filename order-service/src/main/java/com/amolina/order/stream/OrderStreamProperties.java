@@ -0,0 +1,24 @@
+package com.amolina.order.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "order-stream")
+public class OrderStreamProperties {
+
+    /** Most recent events kept for subscribers that reconnect with {@code Last-Event-ID}. */
+    private int backlogSize = 1024;
+    /** Events queued per subscriber before it counts as too slow and is disconnected. */
+    private int subscriberBuffer = 256;
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    /** Connections are closed after this long; EventSource clients reconnect and resume. */
+    private Duration timeout = Duration.ofMinutes(30);
+    private int senderThreads = 8;
+    /** A subscriber whose write has been blocked this long has stopped reading and is disconnected. */
+    private Duration writeTimeout = Duration.ofSeconds(10);
+}
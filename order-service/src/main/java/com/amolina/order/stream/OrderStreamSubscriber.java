@@ -0,0 +1,135 @@
+package com.amolina.order.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One open stream. Frames are queued without blocking the publisher and written by at most one sender task
+ * at a time, so a subscriber whose connection stalls only fills its own bounded queue. A write to a client
+ * that stopped reading blocks its sender thread; {@link #isStalled} lets the broadcaster notice that and
+ * {@link #abandon} it.
+ */
+class OrderStreamSubscriber {
+
+    private final SseEmitter emitter;
+    private final Long customerId;
+    private final Long itemId;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+    private final Executor sender;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicReference<Runnable> onWriteReturned = new AtomicReference<>();
+    private volatile boolean closed;
+    private volatile boolean writing;
+    private volatile long writeStartedNanos;
+    private boolean completed;
+
+    OrderStreamSubscriber(SseEmitter emitter, Long customerId, Long itemId, int bufferSize, Executor sender) {
+        this.emitter = emitter;
+        this.customerId = customerId;
+        this.itemId = itemId;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.sender = sender;
+    }
+
+    boolean matches(OrderEvent event) {
+        return (customerId == null || customerId.equals(event.getCustomerId()))
+                && (itemId == null || event.getItemIds().contains(itemId));
+    }
+
+    /**
+     * Queues a frame and makes sure a sender task will write it.
+     *
+     * @return false when the queue is full
+     */
+    boolean offer(SseEmitter.SseEventBuilder frame) {
+        if (closed) {
+            return true;
+        }
+        if (!queue.offer(frame)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Drops queued frames and ends the response once any write in progress has returned.
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+        schedule();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Whether a write has been blocked for longer than {@code timeoutNanos}.
+     */
+    boolean isStalled(long nowNanos, long timeoutNanos) {
+        return writing && nowNanos - writeStartedNanos > timeoutNanos;
+    }
+
+    /**
+     * Closes a stalled subscriber. {@code writeReturned} runs once the blocked write returns, which it does
+     * when the container's write timeout expires or the connection is closed; straight away if it already has.
+     */
+    void abandon(Runnable writeReturned) {
+        onWriteReturned.set(writeReturned);
+        close();
+        if (!writing) {
+            writeReturned();
+        }
+    }
+
+    private void writeReturned() {
+        Runnable callback = onWriteReturned.getAndSet(null);
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder frame;
+            while (!closed && (frame = queue.poll()) != null) {
+                writeStartedNanos = System.nanoTime();
+                writing = true;
+                try {
+                    emitter.send(frame);
+                } finally {
+                    writing = false;
+                    writeReturned();
+                }
+            }
+            if (closed && !completed) {
+                completed = true;
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the response already ended; the emitter's callbacks unsubscribe it
+            closed = true;
+            completed = true;
+            queue.clear();
+        } finally {
+            draining.set(false);
+        }
+        if ((closed && !completed) || (!closed && !queue.isEmpty())) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Order table and sample orders (quoted because "order" is a reserved keyword in PostgreSQL).
+-- Idempotent so that databases created by the former database/init.sql are baselined without changes.
+CREATE TABLE IF NOT EXISTS "order" (
+    order_id BIGSERIAL PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    subtotal NUMERIC(10, 2) NOT NULL,
+    tax NUMERIC(10, 2) NOT NULL,
+    total NUMERIC(10, 2) NOT NULL,
+    customer_id BIGINT NOT NULL
+);
+
+INSERT INTO "order" (item_id, subtotal, tax, total, customer_id)
+SELECT item_id, subtotal, tax, total, customer_id FROM (VALUES
+    (1, 12.99, 1.04, 14.03, 1),
+    (2, 14.99, 1.20, 16.19, 2),
+    (3, 15.99, 1.28, 17.27, 1),
+    (6, 17.99, 1.44, 19.43, 3),
+    (5, 15.49, 1.24, 16.73, 4)
+) AS sample (item_id, subtotal, tax, total, customer_id)
+WHERE NOT EXISTS (SELECT 1 FROM "order");
@@ -0,0 +1,44 @@
+-- Orders get a creation time and are range-partitioned on it, one partition per calendar month (UTC).
+-- Queries bounded on created_at only scan the months they cover, and a month is aged out by
+-- detaching or dropping its partition. Partitions ahead of the current month are created by
+-- order-service at startup and daily (OrderPartitionMaintainer).
+
+ALTER TABLE "order" RENAME TO order_unpartitioned;
+ALTER TABLE order_unpartitioned RENAME CONSTRAINT order_pkey TO order_unpartitioned_pkey;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE "order" (
+    order_id BIGINT NOT NULL DEFAULT nextval('order_order_id_seq'),
+    item_id BIGINT NOT NULL,
+    subtotal NUMERIC(10, 2) NOT NULL,
+    tax NUMERIC(10, 2) NOT NULL,
+    total NUMERIC(10, 2) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT order_pkey PRIMARY KEY (order_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE order_order_id_seq OWNED BY "order".order_id;
+
+DO $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', now() AT TIME ZONE 'UTC');
+BEGIN
+    FOR i IN 0..3 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF "order" FOR VALUES FROM (%L) TO (%L)',
+                'order_p' || to_char(month_start + make_interval(months => i), 'YYYY_MM'),
+                (month_start + make_interval(months => i)) AT TIME ZONE 'UTC',
+                (month_start + make_interval(months => i + 1)) AT TIME ZONE 'UTC');
+    END LOOP;
+END $$;
+
+-- Existing orders have no creation time; the created_at default files them under the month the
+-- migration runs in, whose partition was just created
+INSERT INTO "order" (order_id, item_id, subtotal, tax, total, customer_id)
+SELECT order_id, item_id, subtotal, tax, total, customer_id FROM order_unpartitioned;
+
+DROP TABLE order_unpartitioned;
+
+-- Order history by customer, newest first, and lookups by pizza; both are created on every partition
+CREATE INDEX idx_order_customer_created ON "order" (customer_id, created_at);
+CREATE INDEX idx_order_item ON "order" (item_id);
@@ -0,0 +1,22 @@
+-- An order becomes a header plus one line per item, so several pizzas are one order rather than one
+-- order each. Existing orders become single-line orders for their item, priced at their subtotal.
+-- The order's primary key includes the partition key, so lines are not tied to it by a foreign key;
+-- order-service writes and deletes an order's lines together with the order.
+
+CREATE TABLE IF NOT EXISTS order_line (
+    order_id BIGINT NOT NULL,
+    line_number INTEGER NOT NULL,
+    item_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    unit_price NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT order_line_pkey PRIMARY KEY (order_id, line_number)
+);
+
+INSERT INTO order_line (order_id, line_number, item_id, quantity, unit_price)
+SELECT order_id, 0, item_id, 1, subtotal FROM "order";
+
+DROP INDEX IF EXISTS idx_order_item;
+ALTER TABLE "order" DROP COLUMN item_id;
+
+-- Sales by pizza
+CREATE INDEX idx_order_line_item ON order_line (item_id);
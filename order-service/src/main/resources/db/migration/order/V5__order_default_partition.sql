@@ -0,0 +1,5 @@
+-- Catch-all partition for orders whose month has no partition yet, such as when order-service was
+-- down past the months it had created ahead. Without it those inserts fail. OrderPartitionMaintainer
+-- moves such rows into their month's partition when it creates it, so the default partition stays empty.
+
+CREATE TABLE IF NOT EXISTS order_default PARTITION OF "order" DEFAULT;
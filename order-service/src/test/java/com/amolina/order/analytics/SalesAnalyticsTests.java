@@ -0,0 +1,133 @@
+package com.amolina.order.analytics;
+
+import com.amolina.order.archive.OrderArchive;
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.amolina.order.model.dto.ItemSalesDTO;
+import com.amolina.order.model.dto.RevenueBucketDTO;
+import com.amolina.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SalesAnalyticsTests {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final OrderArchive orderArchive = mock(OrderArchive.class);
+	private final SalesAnalytics analytics = new SalesAnalytics();
+
+	@BeforeEach
+	void setUp() {
+		when(orderRepository.summarizeByItem()).thenReturn(List.of());
+		when(orderRepository.findCreatedBetween(any(), any())).thenReturn(List.of());
+		ReflectionTestUtils.setField(analytics, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(analytics, "orderArchive", orderArchive);
+		ReflectionTestUtils.setField(analytics, "windowHours", 48);
+		analytics.rebuild();
+	}
+
+	private static Order order(long itemId, String unitPrice, Instant createdAt) {
+		Order order = new Order();
+		order.getLines().add(new OrderLine(itemId, 1, new BigDecimal(unitPrice)));
+		order.setCreatedAt(createdAt);
+		return order;
+	}
+
+	@Test
+	void ranksItemsByOrdersOrRevenue() {
+		Instant now = Instant.now();
+		analytics.onCreated(order(1, "10.00", now));
+		analytics.onCreated(order(1, "10.00", now));
+		analytics.onCreated(order(2, "35.50", now));
+
+		List<ItemSalesDTO> byOrders = analytics.topItems(10, SalesAnalytics.Ranking.ORDERS);
+		assertEquals(1L, byOrders.get(0).getItemId());
+		assertEquals(2, byOrders.get(0).getOrders());
+
+		List<ItemSalesDTO> byRevenue = analytics.topItems(1, SalesAnalytics.Ranking.REVENUE);
+		assertEquals(1, byRevenue.size());
+		assertEquals(new BigDecimal("35.50"), byRevenue.get(0).getRevenue());
+	}
+
+	@Test
+	void updatesAndDeletesCorrectTheCounters() {
+		Instant now = Instant.now();
+		Order before = order(1, "10.00", now);
+		analytics.onCreated(before);
+		analytics.onUpdated(before, order(2, "12.00", now));
+
+		List<ItemSalesDTO> top = analytics.topItems(10, SalesAnalytics.Ranking.ORDERS);
+		assertEquals(1, top.size());
+		assertEquals(2L, top.get(0).getItemId());
+
+		analytics.onDeleted(order(2, "12.00", now));
+		assertTrue(analytics.topItems(10, SalesAnalytics.Ranking.ORDERS).isEmpty());
+	}
+
+	@Test
+	void countsAnItemOnSeveralLinesAsOneOrder() {
+		Order order = order(1, "10.00", Instant.now());
+		order.getLines().add(new OrderLine(2L, 4, new BigDecimal("8.50")));
+		order.getLines().add(new OrderLine(1L, 2, new BigDecimal("10.00")));
+		analytics.onCreated(order);
+
+		List<ItemSalesDTO> byQuantity = analytics.topItems(10, SalesAnalytics.Ranking.QUANTITY);
+		assertEquals(2L, byQuantity.get(0).getItemId());
+		assertEquals(4, byQuantity.get(0).getQuantity());
+		assertEquals(1, byQuantity.get(1).getOrders());
+		assertEquals(3, byQuantity.get(1).getQuantity());
+		assertEquals(new BigDecimal("30.00"), byQuantity.get(1).getRevenue());
+	}
+
+	@Test
+	void revenueIsCountedInTheHourTheOrderWasCreated() {
+		Instant now = Instant.now();
+		analytics.onCreated(order(1, "10.00", now));
+		analytics.onCreated(order(1, "5.00", now.minus(Duration.ofHours(3))));
+		analytics.onCreated(order(1, "99.00", now.minus(Duration.ofDays(5))));
+
+		List<RevenueBucketDTO> hours = analytics.revenue(1);
+		assertEquals(48, hours.size());
+		assertEquals(new BigDecimal("10.00"), hours.get(47).getRevenue());
+		assertEquals(new BigDecimal("5.00"), hours.get(44).getItems().get(1L));
+		assertEquals(new BigDecimal("0.00"), hours.get(0).getRevenue());
+
+		BigDecimal windowTotal = analytics.revenue(24).stream()
+				.map(RevenueBucketDTO::getRevenue)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		assertEquals(new BigDecimal("15.00"), windowTotal);
+		assertEquals(new BigDecimal("114.00"), analytics.topItems(1, SalesAnalytics.Ranking.REVENUE).get(0).getRevenue());
+	}
+
+	@Test
+	void rebuildsTotalsAndWindowFromTheDatabase() {
+		OrderRepository.ItemSales sales = mock(OrderRepository.ItemSales.class);
+		when(sales.getItemId()).thenReturn(3L);
+		when(sales.getOrders()).thenReturn(4L);
+		when(sales.getQuantity()).thenReturn(5L);
+		when(sales.getRevenue()).thenReturn(new BigDecimal("40.00"));
+		when(orderRepository.summarizeByItem()).thenReturn(List.of(sales));
+		when(orderRepository.findCreatedBetween(any(), any())).thenReturn(List.of(order(3, "10.00", Instant.now())));
+
+		SalesAnalytics rebuilt = new SalesAnalytics();
+		ReflectionTestUtils.setField(rebuilt, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(rebuilt, "orderArchive", orderArchive);
+		ReflectionTestUtils.setField(rebuilt, "windowHours", 48);
+		rebuilt.rebuild();
+
+		assertEquals(4, rebuilt.topItems(1, SalesAnalytics.Ranking.ORDERS).get(0).getOrders());
+		assertEquals(5, rebuilt.topItems(1, SalesAnalytics.Ranking.ORDERS).get(0).getQuantity());
+		assertEquals(new BigDecimal("10.00"), rebuilt.revenue(1).get(47).getRevenue());
+	}
+}
@@ -0,0 +1,79 @@
+package com.amolina.order.archive;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveSegmentTests {
+
+	@TempDir
+	Path directory;
+
+	private static Order order(long orderId, long customerId, Instant createdAt, OrderLine... lines) {
+		Order order = new Order();
+		order.setOrderId(orderId);
+		order.setCustomerId(customerId);
+		order.setCreatedAt(createdAt);
+		order.getLines().addAll(List.of(lines));
+		BigDecimal subtotal = order.getLines().stream().map(OrderLine::getLineTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+		order.setSubtotal(subtotal);
+		order.setTax(new BigDecimal("1.04"));
+		order.setTotal(subtotal.add(new BigDecimal("1.04")));
+		return order;
+	}
+
+	@Test
+	void readsBackWhatWasWritten() throws Exception {
+		Instant createdAt = Instant.parse("2023-03-14T09:26:53.589Z");
+		Order first = order(7, 2, createdAt, new OrderLine(4L, 2, new BigDecimal("12.99")), new OrderLine(1L, 1, new BigDecimal("9.50")));
+		Order second = order(3, 5, createdAt.minusSeconds(60), new OrderLine(6L, 3, new BigDecimal("17.99")));
+		Path file = directory.resolve("orders.seg");
+		ArchiveSegment.write(file, List.of(first, second), 10);
+
+		ArchiveSegment segment = ArchiveSegment.open(file);
+		assertEquals(2, segment.size());
+		List<Order> all = segment.findAll();
+		assertEquals(List.of(second, first), all);
+		assertEquals(List.of(first), segment.findById(7));
+		assertTrue(segment.findById(5).isEmpty());
+		assertEquals(List.of(second), segment.findByCustomerId(5));
+		assertEquals(List.of(first), segment.findCreatedBetween(createdAt, createdAt.plusMillis(1)));
+	}
+
+	@Test
+	void headerRulesOutSegmentsWithoutReadingThem() throws Exception {
+		List<Order> orders = new ArrayList<>();
+		Instant createdAt = Instant.parse("2023-01-01T00:00:00Z");
+		for (long id = 1000; id < 3000; id++) {
+			orders.add(order(id, id * 2, createdAt.plusSeconds(id), new OrderLine(id % 7, 1, new BigDecimal("10.00"))));
+		}
+		Path file = directory.resolve("orders.seg");
+		ArchiveSegment.write(file, orders, 10);
+
+		ArchiveSegment segment = ArchiveSegment.open(file);
+		assertFalse(segment.mayContainOrder(999));
+		assertFalse(segment.mayContainCustomer(10_000));
+		assertFalse(segment.mayContainCreatedBetween(createdAt, createdAt.plusSeconds(1000)));
+		int falsePositives = 0;
+		for (long customerId = 2000; customerId < 6000; customerId++) {
+			boolean stored = customerId % 2 == 0;
+			assertTrue(!stored || segment.mayContainCustomer(customerId));
+			if (!stored && segment.mayContainCustomer(customerId)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 100, "false positives: " + falsePositives);
+		assertEquals(1, segment.findByCustomerId(4000).size());
+	}
+}
@@ -0,0 +1,78 @@
+package com.amolina.order.archive;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderArchiveTests {
+
+	@TempDir
+	Path directory;
+
+	private OrderArchive archive;
+
+	@BeforeEach
+	void openArchive() {
+		ArchiveProperties properties = new ArchiveProperties();
+		properties.setDirectory(directory.toString());
+		archive = new OrderArchive();
+		ReflectionTestUtils.setField(archive, "properties", properties);
+		archive.load();
+	}
+
+	@AfterEach
+	void closeArchive() {
+		archive.shutdown();
+	}
+
+	private void archive(long firstId, long lastId) throws Exception {
+		List<Order> orders = new ArrayList<>();
+		for (long id = firstId; id <= lastId; id++) {
+			Order order = new Order();
+			order.setOrderId(id);
+			order.setCustomerId(id % 10);
+			order.setCreatedAt(Instant.parse("2023-01-01T00:00:00Z").plusSeconds(id));
+			order.getLines().add(new OrderLine(1L, 1, new BigDecimal("10.00")));
+			order.setSubtotal(new BigDecimal("10.00"));
+			order.setTax(new BigDecimal("0.80"));
+			order.setTotal(new BigDecimal("10.80"));
+			orders.add(order);
+		}
+		archive.publish(archive.write(orders));
+	}
+
+	private static List<Long> ids(List<Order> orders) {
+		return orders.stream().map(Order::getOrderId).collect(Collectors.toList());
+	}
+
+	private static List<Long> range(long first, long last) {
+		return LongStream.rangeClosed(first, last).boxed().collect(Collectors.toList());
+	}
+
+	@Test
+	void pagesThroughSegmentsInIdOrder() throws Exception {
+		archive(201, 300);
+		archive(1, 100);
+		archive(101, 200);
+
+		assertEquals(range(1, 50), ids(archive.findAfter(0, 50)));
+		assertEquals(range(151, 250), ids(archive.findAfter(150, 100)));
+		assertEquals(range(291, 300), ids(archive.findAfter(290, 100)));
+		assertTrue(archive.findAfter(300, 100).isEmpty());
+	}
+}
@@ -0,0 +1,133 @@
+package com.amolina.order.batching;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<String> caller = new ThreadLocal<>();
+
+	private BatchLoader<String> loader(Duration window, int maxBatchSize, Function<Collection<Long>, Map<Long, String>> batchCall) {
+		BatchingProperties.InstanceProperties config = new BatchingProperties.InstanceProperties();
+		config.setWindow(window);
+		config.setMaxBatchSize(maxBatchSize);
+		return new BatchLoader<>(config, ids -> {
+			batches.add(new ArrayList<>(ids));
+			return batchCall.apply(ids);
+		}, caller::get, DistributionSummary.builder("batch.loader.size").register(meterRegistry),
+				Timer.builder("batch.loader.wait").register(meterRegistry));
+	}
+
+	private static Map<Long, String> names(Collection<Long> ids) {
+		return ids.stream().filter(id -> id > 0).collect(Collectors.toMap(id -> id, id -> "item-" + id));
+	}
+
+	@Test
+	void concurrentLookupsShareOneRequest() throws Exception {
+		BatchLoader<String> loader = loader(Duration.ofMillis(200), 100, BatchLoaderTests::names);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			long id = i % 4 + 1;
+			results.add(executor.submit(() -> {
+				start.await();
+				return loader.load(id);
+			}));
+		}
+		start.countDown();
+		for (int i = 0; i < 8; i++) {
+			assertEquals("item-" + (i % 4 + 1), results.get(i).get());
+		}
+		executor.shutdown();
+
+		assertEquals(1, batches.size());
+		assertEquals(4, batches.get(0).size());
+		assertEquals(1, meterRegistry.get("batch.loader.size").summary().count());
+		assertEquals(8, meterRegistry.get("batch.loader.wait").timer().count());
+	}
+
+	@Test
+	void callersWithDifferentTokensDoNotShareABatch() throws Exception {
+		List<String> senders = new CopyOnWriteArrayList<>();
+		BatchLoader<String> loader = loader(Duration.ofMillis(200), 100, ids -> {
+			senders.add(String.valueOf(caller.get()));
+			return names(ids);
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			String token = i % 2 == 0 ? "alice" : "bob";
+			long id = i + 1;
+			results.add(executor.submit(() -> {
+				caller.set(token);
+				start.await();
+				return loader.load(id);
+			}));
+		}
+		start.countDown();
+		for (int i = 0; i < 4; i++) {
+			assertEquals("item-" + (i + 1), results.get(i).get());
+		}
+		executor.shutdown();
+
+		assertEquals(2, batches.size());
+		assertEquals(List.of("alice", "bob"), senders.stream().sorted().collect(Collectors.toList()));
+		for (List<Long> batch : batches) {
+			// alice asked for the odd ids and bob for the even ones
+			assertEquals(1, batch.stream().map(id -> id % 2).distinct().count());
+		}
+	}
+
+	@Test
+	void fullBatchesGoOutWithoutWaitingForTheWindow() {
+		BatchLoader<String> loader = loader(Duration.ofMinutes(1), 2, BatchLoaderTests::names);
+		Map<Long, String> values = loader.loadAll(List.of(1L, 2L, 3L, 4L, 2L));
+
+		assertEquals(Map.of(1L, "item-1", 2L, "item-2", 3L, "item-3", 4L, "item-4"), values);
+		assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L)), batches);
+	}
+
+	@Test
+	void unknownIdsAreLeftOut() {
+		BatchLoader<String> loader = loader(Duration.ZERO, 100, BatchLoaderTests::names);
+		assertNull(loader.load(-1L));
+		assertEquals(Map.of(1L, "item-1"), loader.loadAll(List.of(1L, -1L)));
+	}
+
+	@Test
+	void failureReachesEveryCallerOfTheBatch() {
+		IllegalStateException failure = new IllegalStateException("down");
+		BatchLoader<String> loader = loader(Duration.ZERO, 2, ids -> {
+			throw failure;
+		});
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> loader.loadAll(List.of(1L, 2L, 3L))));
+		assertEquals(2, batches.size());
+		assertTrue(loader.loadAll(List.of()).isEmpty());
+	}
+}
@@ -0,0 +1,99 @@
+package com.amolina.order.config;
+
+import com.amolina.common.deadline.RequestDeadline;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeignHttpClientConfigTests {
+
+	private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private ServerSocket server;
+	private PoolingHttpClientConnectionManager connectionManager;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		// Accepts connections and never answers, so every leased connection stays busy
+		server = new ServerSocket(0);
+		executor.submit(() -> {
+			while (!server.isClosed()) {
+				accepted.add(server.accept());
+			}
+			return null;
+		});
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(1);
+		connectionManager.setDefaultMaxPerRoute(1);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		RequestDeadline.clear();
+		connectionManager.shutdown();
+		server.close();
+		for (Socket socket : accepted) {
+			socket.close();
+		}
+		executor.shutdownNow();
+	}
+
+	private CloseableHttpClient client(Duration connectionRequestTimeout) throws Exception {
+		CloseableHttpClient client = new FeignHttpClientConfig().feignHttpClient(
+				connectionManager, new FeignHttpClientProperties(), connectionRequestTimeout);
+		executor.submit(() -> client.execute(get(), response -> null));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (connectionManager.getTotalStats().getLeased() == 0) {
+			assertTrue(System.nanoTime() < deadline, "first request never leased the connection");
+			Thread.sleep(10);
+		}
+		return client;
+	}
+
+	private HttpGet get() {
+		return new HttpGet("http://localhost:" + server.getLocalPort() + "/");
+	}
+
+	@Test
+	void exhaustedPoolFailsAfterTheConnectionRequestTimeout() throws Exception {
+		CloseableHttpClient client = client(Duration.ofMillis(200));
+		long start = System.nanoTime();
+		assertThrows(ConnectionPoolTimeoutException.class, () -> client.execute(get(), response -> null));
+		long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(waitedMillis >= 150 && waitedMillis < 2000, "waited " + waitedMillis + "ms");
+	}
+
+	@Test
+	void leaseWaitIsCappedByTheRequestDeadline() throws Exception {
+		CloseableHttpClient client = client(Duration.ofSeconds(30));
+		RequestDeadline.set(System.currentTimeMillis() + 100);
+		long start = System.nanoTime();
+		assertThrows(ConnectionPoolTimeoutException.class, () -> client.execute(get(), response -> null));
+		long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(waitedMillis < 2000, "waited " + waitedMillis + "ms");
+
+		// An expired budget still fails fast rather than being read as "wait forever"
+		RequestDeadline.set(System.currentTimeMillis() - 1000);
+		start = System.nanoTime();
+		assertThrows(ConnectionPoolTimeoutException.class, () -> client.execute(get(), response -> null));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+	}
+}
@@ -0,0 +1,184 @@
+package com.amolina.order.controller;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.dto.OrderResponseDTO;
+import com.amolina.order.service.OrderFields;
+import com.amolina.order.service.OrderService;
+import com.amolina.order.service.VersionConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderControllerTests {
+
+	private final OrderService orderService = mock(OrderService.class);
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		OrderController controller = new OrderController();
+		ReflectionTestUtils.setField(controller, "orderService", orderService);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	private static Order order(long id) {
+		Order order = new Order();
+		order.setOrderId(id);
+		order.setCustomerId(2L);
+		order.setTotal(new BigDecimal("10.80"));
+		return order;
+	}
+
+	@Test
+	void emptyOrUnknownFieldsAreRejected() throws Exception {
+		mockMvc.perform(get("/api/orders/1").param("fields", "")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/orders").param("fields", "")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/orders/customer/2").param("fields", "total,price"))
+				.andExpect(status().isBadRequest());
+		verifyNoInteractions(orderService);
+	}
+
+	@Test
+	void listWithFieldsReturnsTheSelectedFields() throws Exception {
+		List<Order> orders = List.of(order(1), order(2));
+		when(orderService.getOrdersByCustomerId(2L)).thenReturn(orders);
+		OrderResponseDTO total = new OrderResponseDTO();
+		total.setTotal(new BigDecimal("10.80"));
+		when(orderService.getOrderResponses(eq(orders), any(OrderFields.class))).thenReturn(List.of(total, total));
+
+		mockMvc.perform(get("/api/orders/customer/2").param("fields", "total"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].total").value(10.80))
+				.andExpect(jsonPath("$[0].orderId").doesNotExist());
+	}
+
+	@Test
+	void listWithoutFieldsReturnsThePlainOrders() throws Exception {
+		when(orderService.getOrdersByCustomerId(2L)).thenReturn(List.of(order(1)));
+
+		mockMvc.perform(get("/api/orders/customer/2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].orderId").value(1))
+				.andExpect(jsonPath("$[0].customerId").value(2));
+		verify(orderService, never()).getOrderResponses(any(), any());
+	}
+
+	@Test
+	void fullPageLinksTheNextOne() throws Exception {
+		when(orderService.getOrdersAfter(0, 2)).thenReturn(List.of(order(3), order(7)));
+
+		mockMvc.perform(get("/api/orders?limit=2&fields=total"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Link", "<?fields=total&afterId=7&limit=2>; rel=\"next\""));
+	}
+
+	@Test
+	void defaultPageIsAHundredOrders() throws Exception {
+		when(orderService.getOrdersAfter(0, 100)).thenReturn(List.of(order(1)));
+
+		mockMvc.perform(get("/api/orders"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(header().doesNotExist("Link"));
+	}
+
+	@Test
+	void pageSizeIsBounded() throws Exception {
+		mockMvc.perform(get("/api/orders").param("limit", "0")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/orders").param("limit", "1001")).andExpect(status().isBadRequest());
+		verifyNoInteractions(orderService);
+	}
+
+	@Test
+	void patchWithoutAVersionIsPreconditionRequired() throws Exception {
+		mockMvc.perform(patch("/api/orders/1").contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":3}"))
+				.andExpect(status().isPreconditionRequired());
+		mockMvc.perform(patch("/api/orders/1").header(HttpHeaders.IF_MATCH, "*")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":3}"))
+				.andExpect(status().isPreconditionRequired());
+		verifyNoInteractions(orderService);
+	}
+
+	@Test
+	void patchAnswersTheNewVersion() throws Exception {
+		when(orderService.patchOrder(eq(1L), eq(3L), any(Order.class))).thenReturn(4L);
+
+		mockMvc.perform(patch("/api/orders/1").header(HttpHeaders.IF_MATCH, "W/\"3\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":3}"))
+				.andExpect(status().isNoContent())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+	}
+
+	@Test
+	void patchTellsAConflictFromAMissingOrder() throws Exception {
+		when(orderService.patchOrder(eq(1L), anyLong(), any(Order.class))).thenThrow(new VersionConflictException(1L, 3));
+		when(orderService.patchOrder(eq(2L), anyLong(), any(Order.class)))
+				.thenThrow(new RuntimeException("Order not found with id: 2"));
+
+		mockMvc.perform(patch("/api/orders/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":3}"))
+				.andExpect(status().isConflict());
+		mockMvc.perform(patch("/api/orders/2").header(HttpHeaders.IF_MATCH, "\"3\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":3}"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(patch("/api/orders/1").header(HttpHeaders.IF_MATCH, "\"three\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":3}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void putWithIfMatchUpdatesOnlyThatVersion() throws Exception {
+		Order updated = order(1);
+		updated.setVersion(3L);
+		when(orderService.updateOrder(eq(1L), eq(2L), any(Order.class))).thenReturn(updated);
+		when(orderService.updateOrder(eq(2L), eq(2L), any(Order.class))).thenThrow(new VersionConflictException(2L, 2));
+
+		mockMvc.perform(put("/api/orders/1").header(HttpHeaders.IF_MATCH, "\"2\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":2}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+		mockMvc.perform(put("/api/orders/2").header(HttpHeaders.IF_MATCH, "\"2\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":2}"))
+				.andExpect(status().isConflict());
+	}
+
+	@Test
+	void putWithoutIfMatchOrWithAnyVersionUpdatesTheCurrentOne() throws Exception {
+		Order updated = order(1);
+		updated.setVersion(5L);
+		when(orderService.updateOrder(eq(1L), isNull(), any(Order.class))).thenReturn(updated);
+
+		mockMvc.perform(put("/api/orders/1").contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":2}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+		mockMvc.perform(put("/api/orders/1").header(HttpHeaders.IF_MATCH, "*")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":2}"))
+				.andExpect(status().isOk());
+		verify(orderService, times(2)).updateOrder(eq(1L), isNull(), any(Order.class));
+	}
+}
@@ -0,0 +1,70 @@
+package com.amolina.order.deadline;
+
+import com.amolina.common.deadline.RequestDeadline;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineAwareRetryIntervalTests {
+
+	private final DeadlineAwareRetryInterval<Object> interval =
+			new DeadlineAwareRetryInterval<>("menuService", IntervalFunction.ofExponentialBackoff(2000, 2));
+
+	@AfterEach
+	void clearDeadline() {
+		RequestDeadline.clear();
+	}
+
+	@Test
+	void waitsTheBackoffWithoutADeadline() {
+		assertEquals(2000L, interval.apply(1, Either.left(new IllegalStateException())));
+		assertEquals(4000L, interval.apply(2, Either.left(new IllegalStateException())));
+	}
+
+	@Test
+	void waitsTheBackoffWhileItFitsTheBudget() {
+		RequestDeadline.set(System.currentTimeMillis() + 10_000);
+		assertEquals(2000L, interval.apply(1, Either.left(new IllegalStateException())));
+	}
+
+	@Test
+	void rethrowsTheLastFailureWhenTheBackoffWouldOutliveTheRequest() {
+		RequestDeadline.set(System.currentTimeMillis() + 1000);
+		IllegalStateException failure = new IllegalStateException("down");
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> interval.apply(1, Either.left(failure))));
+		assertThrows(DeadlineExceededException.class, () -> interval.apply(1, Either.left(new IOException())));
+	}
+
+	@Test
+	void retryStopsInsteadOfSleepingPastTheDeadline() {
+		DeadlineRetryConfig retryConfig = new DeadlineRetryConfig();
+		ReflectionTestUtils.setField(retryConfig, "backoffProperties", new RetryBackoffProperties());
+		RetryConfig.Builder<Object> builder = RetryConfig.<Object>custom().maxAttempts(3);
+		retryConfig.menuServiceRetryDeadline().customize(builder);
+		Retry retry = Retry.of("menuService", builder.build());
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<Object> call = Retry.decorateSupplier(retry, () -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("down");
+		});
+
+		RequestDeadline.set(System.currentTimeMillis() + 3000);
+		long start = System.nanoTime();
+		assertThrows(IllegalStateException.class, call::get);
+		assertEquals(2, attempts.get());
+		assertTrue(System.nanoTime() - start < 3_000_000_000L);
+	}
+}
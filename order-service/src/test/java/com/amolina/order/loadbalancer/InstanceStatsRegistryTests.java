@@ -0,0 +1,87 @@
+package com.amolina.order.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceStatsRegistryTests {
+
+	private final InstanceStatsRegistry registry = new InstanceStatsRegistry();
+	private final LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+
+	private final ServiceInstance a = instance("a");
+	private final ServiceInstance b = instance("b");
+	private final ServiceInstance c = instance("c");
+
+	@BeforeEach
+	void setUp() {
+		properties.setConsecutiveFailures(3);
+		ReflectionTestUtils.setField(registry, "properties", properties);
+	}
+
+	private static ServiceInstance instance(String host) {
+		return new DefaultServiceInstance(host, "menu-service", host, 8080, false);
+	}
+
+	private void fail(ServiceInstance instance, int times) {
+		for (int i = 0; i < times; i++) {
+			registry.get("menu-service", instance).onStart();
+			registry.onComplete("menu-service", instance, Duration.ofMillis(10).toNanos(), true);
+		}
+	}
+
+	@Test
+	void ejectsAfterConsecutiveFailures() {
+		registry.get("menu-service", b);
+		fail(a, 2);
+		assertFalse(registry.get("menu-service", a).isEjected());
+		fail(a, 1);
+		assertTrue(registry.get("menu-service", a).isEjected());
+		assertEquals(1, registry.get("menu-service", a).getEjections());
+	}
+
+	@Test
+	void neverEjectsMoreThanTheAllowedShare() {
+		registry.get("menu-service", b);
+		fail(a, 3);
+		fail(b, 3);
+		assertTrue(registry.get("menu-service", a).isEjected());
+		assertFalse(registry.get("menu-service", b).isEjected());
+	}
+
+	@Test
+	void choosesTheFasterOfTwoAndNeverTheExcludedInstance() {
+		registry.get("menu-service", a).onStart();
+		registry.onComplete("menu-service", a, Duration.ofSeconds(1).toNanos(), false);
+		assertSame(b, registry.choose("menu-service", List.of(a, b)));
+		assertSame(a, registry.chooseOther("menu-service", List.of(a, b), b));
+		for (int i = 0; i < 20; i++) {
+			// Whichever pair is drawn, the slow a loses to c and b is never a candidate
+			assertSame(c, registry.chooseOther("menu-service", List.of(a, b, c), b));
+		}
+	}
+
+	@Test
+	void abandonedCallsOnlyRaiseTheAverage() {
+		InstanceStats stats = registry.get("menu-service", a);
+		stats.onStart();
+		registry.onAbandoned("menu-service", a, Duration.ofSeconds(1).toNanos());
+		assertEquals(0, stats.getInFlight());
+		assertEquals(1000, stats.getEwmaMillis(), 0.001);
+		assertEquals(0, stats.getConsecutiveFailures());
+
+		stats.onStart();
+		registry.onAbandoned("menu-service", a, Duration.ofMillis(1).toNanos());
+		assertEquals(1000, stats.getEwmaMillis(), 0.001);
+	}
+}
@@ -0,0 +1,73 @@
+package com.amolina.order.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceStatsTests {
+
+	private static final long DECAY = Duration.ofSeconds(10).toNanos();
+	private static final long BASE_EJECTION = Duration.ofSeconds(30).toNanos();
+	private static final long MAX_EJECTION = Duration.ofMinutes(5).toNanos();
+
+	private final InstanceStats stats = new InstanceStats("menu:8080", DECAY, Duration.ofMillis(50).toNanos(), 3);
+
+	private void complete(long rttNanos, boolean failed) {
+		stats.onStart();
+		stats.onComplete(rttNanos, failed);
+	}
+
+	@Test
+	void slowResponsesAreAdoptedAtOnce() {
+		complete(Duration.ofMillis(400).toNanos(), false);
+		assertEquals(400, stats.getEwmaMillis(), 0.001);
+	}
+
+	@Test
+	void callsWithoutAKnownDurationLeaveTheAverageAlone() {
+		complete(InstanceStats.UNKNOWN_RTT, false);
+		complete(InstanceStats.UNKNOWN_RTT, true);
+		assertEquals(50, stats.getEwmaMillis(), 0.001);
+		assertEquals(1, stats.getConsecutiveFailures());
+		assertEquals(0, stats.getInFlight());
+	}
+
+	@Test
+	void ejectionTimeGrowsUpToTheCap() {
+		long now = 0;
+		for (int i = 1; i <= 20; i++) {
+			stats.eject(now, BASE_EJECTION, MAX_EJECTION);
+			assertTrue(stats.isEjected(now + Math.min(MAX_EJECTION, BASE_EJECTION * i) - 1));
+			assertFalse(stats.isEjected(now + Math.min(MAX_EJECTION, BASE_EJECTION * i)));
+		}
+		assertEquals(20, stats.getEjections());
+	}
+
+	@Test
+	void aHealthyStreakForgetsEarlierEjections() {
+		stats.eject(0, BASE_EJECTION, MAX_EJECTION);
+		stats.eject(0, BASE_EJECTION, MAX_EJECTION);
+		complete(Duration.ofMillis(20).toNanos(), false);
+		complete(Duration.ofMillis(20).toNanos(), false);
+		assertEquals(2, stats.getEjections());
+		complete(Duration.ofMillis(20).toNanos(), false);
+		assertEquals(0, stats.getEjections());
+
+		stats.eject(0, BASE_EJECTION, MAX_EJECTION);
+		assertFalse(stats.isEjected(BASE_EJECTION));
+	}
+
+	@Test
+	void aFailureBreaksTheHealthyStreak() {
+		stats.eject(0, BASE_EJECTION, MAX_EJECTION);
+		complete(Duration.ofMillis(20).toNanos(), false);
+		complete(Duration.ofMillis(20).toNanos(), false);
+		complete(Duration.ofMillis(20).toNanos(), true);
+		complete(Duration.ofMillis(20).toNanos(), false);
+		assertEquals(1, stats.getEjections());
+	}
+}
@@ -0,0 +1,88 @@
+package com.amolina.order.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderPartitionMaintainerTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final OrderPartitionMaintainer maintainer = new OrderPartitionMaintainer();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(maintainer, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(maintainer, "monthsAhead", 3);
+		when(jdbcTemplate.queryForList(contains("FROM order_default"), eq(String.class))).thenReturn(List.of());
+		when(jdbcTemplate.queryForObject(contains("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+	}
+
+	private void at(String instant) {
+		ReflectionTestUtils.setField(maintainer, "clock", Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+	}
+
+	private List<String> statements() {
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+		return sql.getAllValues();
+	}
+
+	private List<String> created() {
+		return statements().stream()
+				.map(sql -> sql.replaceAll(".*TABLE (IF NOT EXISTS )?(order_p\\d{4}_\\d{2}).*", "$2"))
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	void createsTheCurrentMonthAndTheMonthsAhead() {
+		at("2024-11-20T10:00:00Z");
+		maintainer.createPartitions();
+		assertEquals(List.of("order_p2024_11", "order_p2024_12", "order_p2025_01", "order_p2025_02"), created());
+		assertTrue(statements().get(0).contains("FROM ('2024-11-01 00:00:00+00') TO ('2024-12-01 00:00:00+00')"));
+	}
+
+	@Test
+	void rollsForwardAsTheMonthsPass() {
+		at("2024-12-31T23:59:59Z");
+		maintainer.createPartitions();
+		at("2025-01-01T00:00:00Z");
+		maintainer.createPartitions();
+		assertEquals(List.of("order_p2024_12", "order_p2025_01", "order_p2025_02", "order_p2025_03", "order_p2025_04"),
+				created());
+	}
+
+	@Test
+	void movesOrdersOutOfTheDefaultPartition() {
+		at("2024-11-20T10:00:00Z");
+		// The service was down through August, so those orders went to the default partition
+		when(jdbcTemplate.queryForList(contains("FROM order_default"), eq(String.class))).thenReturn(List.of("2024-08"));
+		when(jdbcTemplate.queryForObject(contains("created_at >= '2024-08-01"), eq(Boolean.class))).thenReturn(true);
+		maintainer.createPartitions();
+
+		assertEquals("order_p2024_08", created().get(0));
+		String move = statements().get(0);
+		assertTrue(move.startsWith("DO $$"));
+		assertTrue(move.contains("DELETE FROM order_default WHERE created_at >= '2024-08-01 00:00:00+00' "
+				+ "AND created_at < '2024-09-01 00:00:00+00' RETURNING *"));
+		assertTrue(move.contains("ATTACH PARTITION order_p2024_08 FOR VALUES FROM ('2024-08-01 00:00:00+00')"));
+		statements().subList(1, statements().size()).forEach(sql -> assertTrue(sql.startsWith("CREATE TABLE IF NOT EXISTS")));
+	}
+}
@@ -0,0 +1,101 @@
+package com.amolina.order.resilience;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbortableAttemptTests {
+
+	private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private ServerSocket server;
+	private PoolingHttpClientConnectionManager connectionManager;
+	private CloseableHttpClient client;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		// Accepts connections and never answers, so a request blocks in its socket read
+		server = new ServerSocket(0);
+		executor.submit(() -> {
+			while (!server.isClosed()) {
+				accepted.add(server.accept());
+			}
+			return null;
+		});
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(1);
+		connectionManager.setDefaultMaxPerRoute(1);
+		client = HttpClientBuilder.create()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(RequestConfig.custom().setSocketTimeout(60_000).build())
+				.addInterceptorFirst(AbortableAttempt.REGISTER_REQUEST)
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		client.close();
+		server.close();
+		for (Socket socket : accepted) {
+			socket.close();
+		}
+		executor.shutdownNow();
+	}
+
+	private Future<Object> send(AbortableAttempt attempt) {
+		return executor.submit(() -> attempt.run(() -> client.execute(
+				new HttpGet("http://localhost:" + server.getLocalPort() + "/"), response -> null)));
+	}
+
+	@Test
+	void abortWakesABlockedReadAndFreesThePooledConnection() throws Exception {
+		AbortableAttempt attempt = new AbortableAttempt();
+		Future<Object> blocked = send(attempt);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (connectionManager.getTotalStats().getLeased() == 0) {
+			assertTrue(System.nanoTime() < deadline, "request never leased a connection");
+			Thread.sleep(10);
+		}
+
+		// Interrupting alone leaves the thread in its socket read
+		blocked.cancel(true);
+		Thread.sleep(100);
+		assertEquals(1, connectionManager.getTotalStats().getLeased());
+
+		attempt.abort();
+		deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (connectionManager.getTotalStats().getLeased() != 0) {
+			assertTrue(System.nanoTime() < deadline, "aborted request kept its connection");
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void requestSentAfterAbortFailsAtOnce() throws Exception {
+		AbortableAttempt attempt = new AbortableAttempt();
+		attempt.abort();
+		Future<Object> aborted = send(attempt);
+		Exception e = assertThrows(Exception.class, () -> aborted.get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IOException, String.valueOf(e.getCause()));
+		assertEquals(0, connectionManager.getTotalStats().getLeased());
+	}
+}
@@ -0,0 +1,132 @@
+package com.amolina.order.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final long FAST = Duration.ofMillis(20).toNanos();
+	private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+		AdaptiveLimiterProperties.InstanceProperties config = new AdaptiveLimiterProperties.InstanceProperties();
+		config.setInitialLimit(initialLimit);
+		return new AdaptiveConcurrencyLimiter("test", config, clock::get);
+	}
+
+	@Test
+	void rejectsOnceLimitIsReached() {
+		AdaptiveConcurrencyLimiter limiter = limiter(2);
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(1, limiter.getRejections());
+	}
+
+	@Test
+	void growsWhileDownstreamIsHealthy() {
+		AdaptiveConcurrencyLimiter limiter = limiter(10);
+		for (int i = 0; i < 200; i++) {
+			for (int j = 0; j < limiter.getLimit(); j++) {
+				limiter.tryAcquire();
+			}
+			while (limiter.getInFlight() > 0) {
+				limiter.onSuccess(FAST);
+			}
+		}
+		assertTrue(limiter.getLimit() > 10);
+	}
+
+	@Test
+	void backsOffWhenLatencyRises() {
+		AdaptiveConcurrencyLimiter limiter = limiter(50);
+		limiter.tryAcquire();
+		limiter.onSuccess(FAST);
+		for (int i = 0; i < 20; i++) {
+			limiter.tryAcquire();
+			clock.addAndGet(SLOW);
+			limiter.onSuccess(SLOW);
+		}
+		assertTrue(limiter.getLimit() < 10);
+	}
+
+	@Test
+	void oneUnusuallyFastAnswerDoesNotPinTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = limiter(10);
+		limiter.tryAcquire();
+		limiter.onSuccess(Duration.ofMillis(1).toNanos());
+		for (int i = 0; i < 200; i++) {
+			for (int j = 0; j < limiter.getLimit(); j++) {
+				limiter.tryAcquire();
+			}
+			while (limiter.getInFlight() > 0) {
+				limiter.onSuccess(FAST);
+			}
+		}
+		assertTrue(limiter.getLimit() > 10);
+	}
+
+	@Test
+	void ignoredAnswersOnlyReleaseThePermit() {
+		AdaptiveConcurrencyLimiter limiter = limiter(10);
+		limiter.tryAcquire();
+		limiter.onIgnore();
+		assertEquals(0, limiter.getInFlight());
+		assertEquals(10, limiter.getLimit());
+	}
+
+	@Test
+	void backsOffOnErrors() {
+		AdaptiveConcurrencyLimiter limiter = limiter(50);
+		limiter.tryAcquire();
+		clock.addAndGet(FAST);
+		limiter.onError(FAST);
+		assertEquals(45, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	void concurrentErrorBurstBacksOffOnce() {
+		AdaptiveConcurrencyLimiter limiter = limiter(50);
+		for (int i = 0; i < 20; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		clock.addAndGet(FAST);
+		// All twenty were in flight together, so they report the same congestion
+		for (int i = 0; i < 20; i++) {
+			limiter.onError(FAST);
+		}
+		assertEquals(45, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+
+		// A call sent after the cut that still fails is a new signal
+		limiter.tryAcquire();
+		clock.addAndGet(FAST);
+		limiter.onError(FAST);
+		assertEquals(40, limiter.getLimit());
+	}
+
+	@Test
+	void slowAnswersFromTheSameWindowBackOffOnce() {
+		AdaptiveConcurrencyLimiter limiter = limiter(50);
+		limiter.tryAcquire();
+		clock.addAndGet(FAST);
+		limiter.onSuccess(FAST);
+		for (int i = 0; i < 10; i++) {
+			limiter.tryAcquire();
+		}
+		clock.addAndGet(SLOW);
+		for (int i = 0; i < 10; i++) {
+			limiter.onSuccess(SLOW);
+		}
+		assertEquals(45, limiter.getLimit());
+	}
+}
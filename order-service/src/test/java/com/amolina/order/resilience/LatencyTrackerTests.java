@@ -0,0 +1,24 @@
+package com.amolina.order.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyTrackerTests {
+
+	@Test
+	void unknownUntilFirstRecompute() {
+		LatencyTracker tracker = new LatencyTracker(1024, 0.95);
+		tracker.record(10);
+		assertEquals(Long.MAX_VALUE, tracker.getPercentileNanos());
+	}
+
+	@Test
+	void tracksPercentileOfRecentSamples() {
+		LatencyTracker tracker = new LatencyTracker(100, 0.95);
+		for (int i = 1; i <= 1000; i++) {
+			tracker.record(i % 100 + 1);
+		}
+		assertEquals(95, tracker.getPercentileNanos());
+	}
+}
@@ -0,0 +1,63 @@
+package com.amolina.order.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderFieldsTests {
+
+	@Test
+	void noSelectionIsEverything() {
+		assertSame(OrderFields.ALL, OrderFields.parse(null));
+		assertTrue(OrderFields.ALL.needsMenu());
+		assertTrue(OrderFields.ALL.needsCustomer());
+	}
+
+	@Test
+	void emptySelectionIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse(""));
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse(" "));
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse("total,,tax"));
+	}
+
+	@Test
+	void unknownFieldIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse("total,price"));
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse("lines.price"));
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse("lines.pizzaName.length"));
+		// Line fields only exist under lines
+		assertThrows(IllegalArgumentException.class, () -> OrderFields.parse("quantity"));
+	}
+
+	@Test
+	void linesSelectsEveryLineFieldAndLinesDotFieldOne() {
+		OrderFields all = OrderFields.parse("lines");
+		assertTrue(all.includes("lines"));
+		assertTrue(all.includesLine("itemId"));
+		assertTrue(all.includesLine("lineTotal"));
+		assertTrue(all.needsMenu());
+
+		OrderFields one = OrderFields.parse("total, lines.quantity");
+		assertTrue(one.includes("total"));
+		assertTrue(one.includes("lines"));
+		assertTrue(one.includesLine("quantity"));
+		assertFalse(one.includesLine("pizzaName"));
+		assertFalse(one.needsMenu());
+	}
+
+	@Test
+	void downstreamServicesAreOnlyNeededForTheirFields() {
+		OrderFields totals = OrderFields.parse("orderId,subtotal,tax,total");
+		assertFalse(totals.needsMenu());
+		assertFalse(totals.needsCustomer());
+		assertFalse(totals.includes("lines"));
+
+		assertTrue(OrderFields.parse("lines.pizzaName").needsMenu());
+		assertTrue(OrderFields.parse("pizzaName").needsMenu());
+		assertTrue(OrderFields.parse("customerEmail").needsCustomer());
+		assertFalse(OrderFields.parse("customerId").needsCustomer());
+	}
+}
@@ -0,0 +1,261 @@
+package com.amolina.order.service;
+
+import com.amolina.order.analytics.SalesAnalytics;
+import com.amolina.order.archive.OrderArchive;
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.amolina.order.model.dto.OrderResponseDTO;
+import com.amolina.order.repository.OrderRepository;
+import com.amolina.order.service.client.CustomerServiceClient;
+import com.amolina.order.service.client.MenuServiceClient;
+import com.amolina.order.service.client.dto.CustomerDTO;
+import com.amolina.order.service.client.dto.PizzaDTO;
+import com.amolina.order.stream.OrderEvent;
+import com.amolina.order.stream.OrderEventBroadcaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTests {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final MenuServiceClient menuServiceClient = mock(MenuServiceClient.class);
+	private final CustomerServiceClient customerServiceClient = mock(CustomerServiceClient.class);
+	private final OrderArchive orderArchive = mock(OrderArchive.class);
+	private final OrderEventBroadcaster orderEventBroadcaster = mock(OrderEventBroadcaster.class);
+	private final OrderService service = new OrderService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "menuServiceClient", menuServiceClient);
+		ReflectionTestUtils.setField(service, "customerServiceClient", customerServiceClient);
+		ReflectionTestUtils.setField(service, "orderArchive", orderArchive);
+		ReflectionTestUtils.setField(service, "salesAnalytics", mock(SalesAnalytics.class));
+		ReflectionTestUtils.setField(service, "orderEventBroadcaster", orderEventBroadcaster);
+		ReflectionTestUtils.setField(service, "taxRate", new BigDecimal("0.08"));
+		when(orderRepository.save(any())).thenAnswer(returnsFirstArg());
+	}
+
+	private static PizzaDTO pizza(long id, String price, boolean stale) {
+		return new PizzaDTO(id, "Pizza " + id, null, new BigDecimal(price), stale);
+	}
+
+	private static Order order(OrderLine... lines) {
+		Order order = new Order();
+		order.setCustomerId(2L);
+		order.setLines(new ArrayList<>(List.of(lines)));
+		return order;
+	}
+
+	@Test
+	void multiLineOrderIsPricedFromOneMenuRequest() {
+		when(menuServiceClient.getPizzas(Set.of(4L, 1L)))
+				.thenReturn(Map.of(4L, pizza(4, "12.99", false), 1L, pizza(1, "9.99", false)));
+
+		Order created = service.createOrder(order(new OrderLine(4L, 2, null), new OrderLine(1L, 1, null)));
+
+		assertEquals(new BigDecimal("12.99"), created.getLines().get(0).getUnitPrice());
+		assertEquals(new BigDecimal("9.99"), created.getLines().get(1).getUnitPrice());
+		assertEquals(new BigDecimal("35.97"), created.getSubtotal());
+		assertEquals(new BigDecimal("2.88"), created.getTax());
+		assertEquals(new BigDecimal("38.85"), created.getTotal());
+		assertNull(created.getItemId());
+		verify(menuServiceClient).getPizzas(Set.of(4L, 1L));
+	}
+
+	@Test
+	void taxIsRoundedHalfUpToCents() {
+		ReflectionTestUtils.setField(service, "taxRate", new BigDecimal("0.05"));
+		when(menuServiceClient.getPizzas(Set.of(4L))).thenReturn(Map.of(4L, pizza(4, "5.25", false)));
+
+		// 10.50 * 0.05 = 0.525
+		Order created = service.createOrder(order(new OrderLine(4L, 2, null)));
+
+		assertEquals(new BigDecimal("0.53"), created.getTax());
+		assertEquals(new BigDecimal("11.03"), created.getTotal());
+	}
+
+	@Test
+	void unknownItemIsRejected() {
+		when(menuServiceClient.getPizzas(Set.of(4L, 99L))).thenReturn(Map.of(4L, pizza(4, "12.99", false)));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> service.createOrder(order(new OrderLine(4L, 1, null), new OrderLine(99L, 1, null))));
+		verify(orderRepository, never()).save(any());
+	}
+
+	@Test
+	void stalePriceIsRefusedRatherThanCharged() {
+		when(menuServiceClient.getPizzas(Set.of(4L))).thenReturn(Map.of(4L, pizza(4, "12.99", true)));
+
+		assertThrows(MenuUnavailableException.class, () -> service.createOrder(order(new OrderLine(4L, 1, null))));
+		verify(orderRepository, never()).save(any());
+	}
+
+	@Test
+	void orderWithoutLinesOrQuantityIsRejectedBeforeCallingTheMenu() {
+		assertThrows(IllegalArgumentException.class, () -> service.createOrder(order()));
+		assertThrows(IllegalArgumentException.class, () -> service.createOrder(order(new OrderLine(4L, 0, null))));
+		verifyNoInteractions(menuServiceClient);
+	}
+
+	@Test
+	void singleItemRequestBecomesAOneLineOrder() {
+		when(menuServiceClient.getPizzas(Set.of(4L))).thenReturn(Map.of(4L, pizza(4, "12.99", false)));
+		Order request = new Order();
+		request.setCustomerId(2L);
+		request.setItemId(4L);
+
+		Order created = service.createOrder(request);
+
+		assertEquals(List.of(new OrderLine(4L, 1, new BigDecimal("12.99"))), created.getLines());
+		assertEquals(4L, created.getItemId());
+		assertEquals(new BigDecimal("12.99"), created.getSubtotal());
+	}
+
+	@Test
+	void oneLineOrderKeepsTheSingleItemResponseFields() {
+		Order single = order(new OrderLine(4L, 1, new BigDecimal("12.99")));
+		single.setOrderId(7L);
+		Order multi = order(new OrderLine(4L, 1, new BigDecimal("12.99")), new OrderLine(1L, 1, new BigDecimal("9.99")));
+		multi.setOrderId(8L);
+		when(orderRepository.findById(7L)).thenReturn(Optional.of(single));
+		when(orderRepository.findById(8L)).thenReturn(Optional.of(multi));
+		when(menuServiceClient.getPizzas(any())).thenReturn(Map.of(4L, pizza(4, "13.50", false),
+				1L, pizza(1, "9.99", false)));
+		OrderFields fields = OrderFields.parse("itemId,pizzaName,pizzaPrice");
+
+		OrderResponseDTO response = service.getOrderById(7L, fields).get();
+		assertEquals(4L, response.getItemId());
+		assertEquals("Pizza 4", response.getPizzaName());
+		// The price the order was charged, not today's menu price
+		assertEquals(new BigDecimal("12.99"), response.getPizzaPrice());
+		assertFalse(response.isStale());
+
+		OrderResponseDTO multiResponse = service.getOrderById(8L, fields).get();
+		assertNull(multiResponse.getItemId());
+		assertNull(multiResponse.getPizzaName());
+		assertNull(multiResponse.getPizzaPrice());
+		verifyNoInteractions(customerServiceClient);
+	}
+
+	@Test
+	void listResponsesResolveTheirPizzasAndCustomersOnce() {
+		Order first = order(new OrderLine(4L, 1, new BigDecimal("12.99")), new OrderLine(1L, 2, new BigDecimal("9.99")));
+		Order second = order(new OrderLine(4L, 3, new BigDecimal("12.99")));
+		second.setCustomerId(3L);
+		Order third = order(new OrderLine(1L, 1, new BigDecimal("9.99")));
+		when(menuServiceClient.getPizzas(Set.of(4L, 1L)))
+				.thenReturn(Map.of(4L, pizza(4, "12.99", false), 1L, pizza(1, "9.99", true)));
+		CustomerDTO customer = new CustomerDTO();
+		customer.setCustomerId(2L);
+		customer.setEmail("ada@example.com");
+		when(customerServiceClient.getCustomers(Set.of(2L, 3L))).thenReturn(Map.of(2L, customer));
+		CustomerDTO unknown = new CustomerDTO();
+		unknown.setEmail("unavailable@pizza-store.com");
+		when(customerServiceClient.getCustomer(3L)).thenReturn(unknown);
+
+		List<OrderResponseDTO> responses = service.getOrderResponses(List.of(first, second, third),
+				OrderFields.parse("customerEmail,lines.pizzaName"));
+
+		assertEquals(3, responses.size());
+		assertEquals("ada@example.com", responses.get(0).getCustomerEmail());
+		assertEquals("Pizza 1", responses.get(0).getLines().get(1).getPizzaName());
+		assertNull(responses.get(0).getLines().get(1).getQuantity());
+		assertNull(responses.get(0).getTotal());
+		assertEquals("unavailable@pizza-store.com", responses.get(1).getCustomerEmail());
+		assertFalse(responses.get(1).isStale());
+		// Only the orders with the stale pizza are flagged
+		assertEquals(List.of(true, false, true), List.of(responses.get(0).isStale(), responses.get(1).isStale(),
+				responses.get(2).isStale()));
+		verify(menuServiceClient, times(1)).getPizzas(any());
+		verify(customerServiceClient, times(1)).getCustomers(any());
+	}
+
+	@Test
+	void totalsOnlyListResponsesCallNoDownstreamService() {
+		List<OrderResponseDTO> responses = service.getOrderResponses(
+				List.of(order(new OrderLine(4L, 1, new BigDecimal("12.99")))), OrderFields.parse("total"));
+
+		assertNull(responses.get(0).getLines());
+		verifyNoInteractions(menuServiceClient, customerServiceClient);
+	}
+
+	private static Order customerChange(long customerId) {
+		Order changes = new Order();
+		changes.setCustomerId(customerId);
+		return changes;
+	}
+
+	@Test
+	void patchPublishesTheUpdatedOrderAndAnswersTheNextVersion() {
+		Order patched = order(new OrderLine(4L, 1, new BigDecimal("12.99")));
+		patched.setOrderId(7L);
+		patched.setCustomerId(5L);
+		when(orderRepository.patchCustomerId(7L, 3L, 5L)).thenReturn(1);
+		when(orderRepository.findById(7L)).thenReturn(Optional.of(patched));
+
+		assertEquals(4L, service.patchOrder(7L, 3L, customerChange(5L)));
+		verify(orderRepository, times(1)).findById(7L);
+		verify(orderRepository, never()).existsById(any());
+		verify(orderEventBroadcaster).publish(OrderEvent.Type.UPDATED, patched);
+	}
+
+	@Test
+	void failedPatchTellsAMissingOrderFromAConflict() {
+		when(orderRepository.patchCustomerId(any(), anyLong(), any())).thenReturn(0);
+		when(orderRepository.existsById(7L)).thenReturn(true);
+		when(orderRepository.existsById(8L)).thenReturn(false);
+
+		assertThrows(VersionConflictException.class, () -> service.patchOrder(7L, 3L, customerChange(5L)));
+		RuntimeException missing = assertThrows(RuntimeException.class,
+				() -> service.patchOrder(8L, 3L, customerChange(5L)));
+		assertFalse(missing instanceof VersionConflictException);
+		verify(orderRepository, never()).findById(any());
+		verifyNoInteractions(orderEventBroadcaster);
+	}
+
+	@Test
+	void patchOfLinesOrOfNothingIsRejected() {
+		Order lines = order(new OrderLine(4L, 1, null));
+
+		assertThrows(IllegalArgumentException.class, () -> service.patchOrder(7L, 3L, lines));
+		assertThrows(IllegalArgumentException.class, () -> service.patchOrder(7L, 3L, new Order()));
+		verify(orderRepository, never()).patchCustomerId(any(), anyLong(), any());
+	}
+
+	@Test
+	void updateAtAnotherVersionIsAConflict() {
+		Order current = order(new OrderLine(4L, 1, new BigDecimal("12.99")));
+		current.setOrderId(7L);
+		current.setVersion(3L);
+		when(orderRepository.findById(7L)).thenReturn(Optional.of(current));
+
+		assertThrows(VersionConflictException.class,
+				() -> service.updateOrder(7L, 2L, order(new OrderLine(1L, 1, null))));
+		verify(orderRepository, never()).save(any());
+		verifyNoInteractions(menuServiceClient, orderEventBroadcaster);
+	}
+}
@@ -0,0 +1,57 @@
+package com.amolina.order.service.client.cache;
+
+import com.amolina.order.service.client.dto.PizzaDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LastKnownGoodCacheTests {
+
+	private final LastKnownGoodCache<PizzaDTO> cache = new LastKnownGoodCache<>(new ObjectMapper(), PizzaDTO.class, 2);
+
+	private static PizzaDTO pizza(long id) {
+		PizzaDTO pizza = new PizzaDTO();
+		pizza.setItemId(id);
+		pizza.setName("Pizza " + id);
+		return pizza;
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedId() {
+		cache.put(1L, pizza(1));
+		cache.put(2L, pizza(2));
+		assertTrue(cache.get(1L).isPresent());
+		cache.put(3L, pizza(3));
+
+		assertEquals(2, cache.size());
+		assertEquals("Pizza 1", cache.get(1L).get().getName());
+		assertFalse(cache.get(2L).isPresent());
+		assertTrue(cache.get(3L).isPresent());
+	}
+
+	@Test
+	void staleMarksAreBoundedByTheCachedIds() {
+		cache.put(1L, pizza(1));
+		cache.put(2L, pizza(2));
+		for (long id = 1; id <= 1000; id++) {
+			cache.markStale(id);
+		}
+		// Evicting 1 drops its stale mark too
+		cache.put(3L, pizza(3));
+		assertEquals(List.of(2L), cache.drainStaleKeys());
+		assertTrue(cache.drainStaleKeys().isEmpty());
+	}
+
+	@Test
+	void freshValueClearsTheStaleMark() {
+		cache.put(1L, pizza(1));
+		cache.markStale(1L);
+		cache.put(1L, pizza(1));
+		assertTrue(cache.drainStaleKeys().isEmpty());
+	}
+}
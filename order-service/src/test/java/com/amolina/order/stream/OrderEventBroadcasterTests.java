@@ -0,0 +1,189 @@
+package com.amolina.order.stream;
+
+import com.amolina.order.model.Order;
+import com.amolina.order.model.OrderLine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.ServletRegistration;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEventBroadcasterTests {
+
+	private static OrderEventBroadcaster broadcaster;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<Socket> clients = new ArrayList<>();
+	private WebServer server;
+
+	@BeforeEach
+	void startServer() {
+		OrderStreamProperties properties = new OrderStreamProperties();
+		properties.setSenderThreads(1);
+		properties.setSubscriberBuffer(10_000);
+		properties.setWriteTimeout(Duration.ofMillis(500));
+		broadcaster = new OrderEventBroadcaster();
+		ReflectionTestUtils.setField(broadcaster, "properties", properties);
+		ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+		ReflectionTestUtils.setField(broadcaster, "meterRegistry", meterRegistry);
+		broadcaster.init();
+
+		AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+		context.register(StreamConfig.class);
+		DispatcherServlet dispatcher = new DispatcherServlet(context);
+		server = new TomcatServletWebServerFactory(0).getWebServer(servletContext -> {
+			ServletRegistration.Dynamic registration = servletContext.addServlet("dispatcher", dispatcher);
+			registration.addMapping("/");
+			registration.setAsyncSupported(true);
+			registration.setLoadOnStartup(1);
+		});
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() throws Exception {
+		for (Socket client : clients) {
+			client.close();
+		}
+		broadcaster.shutdown();
+		server.stop();
+	}
+
+	@Test
+	void clientThatStopsReadingDoesNotStallTheOthers() throws Exception {
+		// Never reads, so once the socket buffers are full the only sender thread blocks writing to it
+		Socket stalled = connect(1024);
+		await(() -> subscribers() == 1);
+		for (int i = 0; i < 200; i++) {
+			broadcaster.publish(OrderEvent.Type.CREATED, order(1L, 2_000));
+		}
+		await(() -> evictions() == 1);
+
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		Socket reader = connect(0);
+		Thread readerThread = new Thread(() -> readLines(reader, received));
+		readerThread.setDaemon(true);
+		readerThread.start();
+		await(() -> subscribers() == 1);
+		broadcaster.publish(OrderEvent.Type.UPDATED, order(2L, 1));
+
+		String event = null;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (event == null && System.nanoTime() < deadline) {
+			String line = received.poll(100, TimeUnit.MILLISECONDS);
+			if (line != null && line.startsWith("event:")) {
+				event = line;
+			}
+		}
+		assertNotNull(event, "the reading client should get the event while the other write is blocked");
+		assertEquals("event:updated", event);
+
+		ThreadPoolExecutor senderPool = (ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "senderPool");
+		assertEquals(2, senderPool.getCorePoolSize());
+		// Closing the connection ends the blocked write and gives the replacement thread back
+		stalled.close();
+		await(() -> senderPool.getCorePoolSize() == 1);
+	}
+
+	private Socket connect(int receiveBuffer) throws Exception {
+		Socket socket = new Socket();
+		if (receiveBuffer > 0) {
+			socket.setReceiveBufferSize(receiveBuffer);
+		}
+		socket.connect(new InetSocketAddress("localhost", server.getPort()));
+		clients.add(socket);
+		OutputStream out = socket.getOutputStream();
+		out.write(("GET /stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+				.getBytes(StandardCharsets.US_ASCII));
+		out.flush();
+		return socket;
+	}
+
+	private static void readLines(Socket socket, BlockingQueue<String> lines) {
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				lines.add(line);
+			}
+		} catch (Exception e) {
+			// The test closed the connection
+		}
+	}
+
+	private static Order order(Long orderId, int lines) {
+		Order order = new Order();
+		order.setOrderId(orderId);
+		order.setCustomerId(1L);
+		for (int i = 0; i < lines; i++) {
+			order.getLines().add(new OrderLine((long) i, 1, BigDecimal.TEN));
+		}
+		return order;
+	}
+
+	private double subscribers() {
+		return meterRegistry.get("order.stream.subscribers").gauge().value();
+	}
+
+	private double evictions() {
+		return meterRegistry.get("order.stream.evictions").counter().count();
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "timed out waiting");
+			Thread.sleep(20);
+		}
+	}
+
+	@EnableWebMvc
+	static class StreamConfig {
+
+		@RestController
+		static class StreamController {
+
+			@GetMapping("/stream")
+			SseEmitter stream() {
+				return broadcaster.subscribe(null, null, null);
+			}
+		}
+
+		@Bean
+		StreamController streamController() {
+			return new StreamController();
+		}
+	}
+}